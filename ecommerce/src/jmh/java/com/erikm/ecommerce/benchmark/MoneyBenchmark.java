@@ -0,0 +1,120 @@
+package com.erikm.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.erikm.ecommerce.model.Utils.Money;
+
+/**
+ * Total de um carrinho como em OrderService#createNewOrder: BigDecimal por operação contra Money em centavos.
+ * Rodar com -prof gc e comparar gc.alloc.rate.norm (bytes por operação):
+ * <ul>
+ *   <li>bigDecimalTotal: o cálculo anterior (multiply + add por item);</li>
+ *   <li>moneyTotal: mesmo cálculo em centavos, convertendo o preço BigDecimal de cada produto;</li>
+ *   <li>moneyTotalFromCents: preços já em centavos (reprecificação em lote, índices em memória);</li>
+ *   <li>moneyTotalBoxedAccumulator: como o anterior, mas somando em Money em vez de long;</li>
+ *   <li>*Checkout: também cria o subtotal BigDecimal de cada item, que vai para a coluna de order_items.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int cartSize;
+
+    private BigDecimal[] prices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[cartSize];
+        moneyPrices = new Money[cartSize];
+        quantities = new int[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            // Preços como chegam do banco (numeric(10, 2)) e quantidades fora do cache de BigDecimal.valueOf
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2);
+            moneyPrices[i] = Money.of(prices[i]);
+            quantities[i] = 1 + random.nextInt(20);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        long totalCents = 0;
+        for (int i = 0; i < cartSize; i++) {
+            totalCents = Math.addExact(totalCents, Money.of(prices[i]).times(quantities[i]).cents());
+        }
+        return Money.ofCents(totalCents);
+    }
+
+    @Benchmark
+    public Money moneyTotalFromCents() {
+        long totalCents = 0;
+        for (int i = 0; i < cartSize; i++) {
+            totalCents = Math.addExact(totalCents, moneyPrices[i].times(quantities[i]).cents());
+        }
+        return Money.ofCents(totalCents);
+    }
+
+    // Acumulando em Money: o C2 não elimina o objeto que atravessa o loop, um Money por item
+    @Benchmark
+    public Money moneyTotalBoxedAccumulator() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCheckout(Blackhole blackhole) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            BigDecimal subtotal = prices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            blackhole.consume(subtotal);
+            total = total.add(subtotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal moneyCheckout(Blackhole blackhole) {
+        long totalCents = 0;
+        for (int i = 0; i < cartSize; i++) {
+            Money subtotal = Money.of(prices[i]).times(quantities[i]);
+            blackhole.consume(subtotal.toBigDecimal());
+            totalCents = Math.addExact(totalCents, subtotal.cents());
+        }
+        return Money.ofCents(totalCents).toBigDecimal();
+    }
+}
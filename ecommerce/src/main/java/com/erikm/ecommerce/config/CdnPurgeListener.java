@@ -0,0 +1,35 @@
+package com.erikm.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.erikm.ecommerce.service.CatalogChangedEvent;
+
+// Depois do commit, para a CDN não buscar de novo a versão antiga antes de a mudança ficar visível
+@Component
+public class CdnPurgeListener 
+{
+    private static final Logger log = LoggerFactory.getLogger(CdnPurgeListener.class);
+
+    private final CdnPurger cdnPurger;
+
+    public CdnPurgeListener(CdnPurger cdnPurger) {
+        this.cdnPurger = cdnPurger;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) 
+    {
+        try 
+        {
+            cdnPurger.purge(event.surrogateKeys());
+        }
+        catch (RuntimeException e) 
+        {
+            // A mudança já foi commitada; o s-maxage limita quanto tempo a CDN serve a versão antiga
+            log.warn("Falha ao purgar surrogate keys {} da CDN", event.surrogateKeys(), e);
+        }
+    }
+}
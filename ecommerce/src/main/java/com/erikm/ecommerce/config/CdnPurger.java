@@ -0,0 +1,9 @@
+package com.erikm.ecommerce.config;
+
+import java.util.Set;
+
+// Invalida na CDN as respostas marcadas com as surrogate keys; a integração real entra declarando o próprio bean
+public interface CdnPurger 
+{
+    void purge(Set<String> surrogateKeys);
+}
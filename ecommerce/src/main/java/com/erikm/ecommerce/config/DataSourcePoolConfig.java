@@ -0,0 +1,77 @@
+package com.erikm.ecommerce.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+@EnableConfigurationProperties(DataSourcePoolProperties.class)
+public class DataSourcePoolConfig 
+{
+    private static final Logger log = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+    // Roda antes de qualquer proxy envolver o pool e antes da primeira conexão ser aberta
+    @Bean
+    public static BeanPostProcessor hikariPoolPostProcessor(Environment environment) 
+    {
+        return new HikariPoolPostProcessor(environment);
+    }
+
+    static class HikariPoolPostProcessor implements BeanPostProcessor, Ordered 
+    {
+        private final Environment environment;
+
+        HikariPoolPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException 
+        {
+            if (!(bean instanceof HikariDataSource hikari)) 
+            {
+                return bean;
+            }
+
+            DataSourcePoolProperties properties = Binder.get(environment)
+                .bind("app.datasource.pool", DataSourcePoolProperties.class)
+                .orElseGet(DataSourcePoolProperties::new);
+
+            long maxWait = properties.getMaxWait().toMillis();
+            if (properties.isFailFast() && hikari.getConnectionTimeout() > maxWait) 
+            {
+                log.info("Pool {}: connection-timeout reduzido de {}ms para {}ms (fail-fast)", hikari.getPoolName(), hikari.getConnectionTimeout(), maxWait);
+                hikari.setConnectionTimeout(maxWait);
+                if (hikari.getValidationTimeout() >= maxWait) 
+                {
+                    hikari.setValidationTimeout(Math.max(HikariPoolValidator.MIN_CONNECTION_TIMEOUT_MS, maxWait / 2));
+                }
+            }
+
+            List<String> problems = HikariPoolValidator.validate(hikari, properties);
+            if (!problems.isEmpty()) 
+            {
+                throw new BeanInitializationException("Configuração inválida do pool de conexões: " + String.join("; ", problems));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() 
+        {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
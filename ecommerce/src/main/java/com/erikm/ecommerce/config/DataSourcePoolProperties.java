@@ -0,0 +1,41 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.datasource.pool")
+public class DataSourcePoolProperties 
+{
+    // Quando ativo, o tempo máximo de espera por conexão é limitado a max-wait e o
+    // esgotamento do pool vira 503 com Retry-After em vez de threads presas por 30s.
+    private boolean failFast = true;
+
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    private Duration retryAfter = Duration.ofSeconds(2);
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
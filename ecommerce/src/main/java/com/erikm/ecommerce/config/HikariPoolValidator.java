@@ -0,0 +1,56 @@
+package com.erikm.ecommerce.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * Regras de sanidade para a configuração do pool. O Hikari aceita silenciosamente várias
+ * combinações inválidas (ex.: leak detection maior que max-lifetime), então validamos na subida.
+ */
+public final class HikariPoolValidator 
+{
+    static final long MIN_CONNECTION_TIMEOUT_MS = 250;
+
+    private HikariPoolValidator() 
+    {
+
+    }
+
+    public static List<String> validate(HikariConfig config, DataSourcePoolProperties properties) 
+    {
+        List<String> problems = new ArrayList<>();
+        String pool = config.getPoolName() != null ? config.getPoolName() : "pool";
+
+        if (config.getMaximumPoolSize() < 1) 
+        {
+            problems.add(pool + ": maximum-pool-size deve ser >= 1");
+        }
+        if (config.getMinimumIdle() > config.getMaximumPoolSize()) 
+        {
+            problems.add(pool + ": minimum-idle (" + config.getMinimumIdle() + ") não pode exceder maximum-pool-size (" + config.getMaximumPoolSize() + ")");
+        }
+        if (config.getConnectionTimeout() < MIN_CONNECTION_TIMEOUT_MS) 
+        {
+            problems.add(pool + ": connection-timeout deve ser >= " + MIN_CONNECTION_TIMEOUT_MS + "ms");
+        }
+        if (config.getValidationTimeout() >= config.getConnectionTimeout()) 
+        {
+            problems.add(pool + ": validation-timeout deve ser menor que connection-timeout");
+        }
+        if (config.getMaxLifetime() > 0 && config.getIdleTimeout() > 0 && config.getIdleTimeout() >= config.getMaxLifetime()) 
+        {
+            problems.add(pool + ": idle-timeout deve ser menor que max-lifetime");
+        }
+        if (config.getLeakDetectionThreshold() > 0 && config.getMaxLifetime() > 0 && config.getLeakDetectionThreshold() >= config.getMaxLifetime()) 
+        {
+            problems.add(pool + ": leak-detection-threshold deve ser menor que max-lifetime");
+        }
+        if (properties.isFailFast() && properties.getMaxWait().toMillis() < MIN_CONNECTION_TIMEOUT_MS) 
+        {
+            problems.add(pool + ": app.datasource.pool.max-wait deve ser >= " + MIN_CONNECTION_TIMEOUT_MS + "ms");
+        }
+        return problems;
+    }
+}
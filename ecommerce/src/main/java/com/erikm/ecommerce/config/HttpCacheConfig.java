@@ -0,0 +1,23 @@
+package com.erikm.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class HttpCacheConfig 
+{
+    private static final Logger log = LoggerFactory.getLogger(HttpCacheConfig.class);
+
+    // Sem CDN configurada só registra as chaves que seriam purgadas
+    @Bean
+    @ConditionalOnMissingBean(CdnPurger.class)
+    public CdnPurger cdnPurger() 
+    {
+        return surrogateKeys -> log.debug("Purga de surrogate keys: {}", surrogateKeys);
+    }
+}
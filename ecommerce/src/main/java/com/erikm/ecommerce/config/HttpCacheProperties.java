@@ -0,0 +1,113 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+
+@ConfigurationProperties(prefix = "app.http-cache")
+public class HttpCacheProperties 
+{
+    // Respostas públicas sem o timestamp do envelope: o mesmo dado gera sempre o mesmo corpo
+    private boolean deterministicEnvelope = true;
+
+    private String surrogateKeyHeader = "Surrogate-Key";
+
+    // Uma política por endpoint (product, product-list, category, category-list); sem política, no-cache
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public boolean isDeterministicEnvelope() {
+        return deterministicEnvelope;
+    }
+
+    public void setDeterministicEnvelope(boolean deterministicEnvelope) {
+        this.deterministicEnvelope = deterministicEnvelope;
+    }
+
+    public String getSurrogateKeyHeader() {
+        return surrogateKeyHeader;
+    }
+
+    public void setSurrogateKeyHeader(String surrogateKeyHeader) {
+        this.surrogateKeyHeader = surrogateKeyHeader;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public CacheControl cacheControl(String policy) 
+    {
+        Policy configured = policies.get(policy);
+        return configured == null ? CacheControl.noCache() : configured.toCacheControl();
+    }
+
+    public static class Policy 
+    {
+        // Navegador; 0 faz o navegador revalidar (ETag) a cada uso
+        private Duration maxAge = Duration.ZERO;
+
+        // s-maxage: CDN e proxies compartilhados
+        private Duration sharedMaxAge;
+
+        private Duration staleWhileRevalidate;
+
+        private Duration staleIfError;
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public Duration getSharedMaxAge() {
+            return sharedMaxAge;
+        }
+
+        public void setSharedMaxAge(Duration sharedMaxAge) {
+            this.sharedMaxAge = sharedMaxAge;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public Duration getStaleIfError() {
+            return staleIfError;
+        }
+
+        public void setStaleIfError(Duration staleIfError) {
+            this.staleIfError = staleIfError;
+        }
+
+        CacheControl toCacheControl() 
+        {
+            CacheControl cacheControl = CacheControl.maxAge(maxAge == null ? Duration.ZERO : maxAge).cachePublic();
+            if (sharedMaxAge != null) 
+            {
+                cacheControl = cacheControl.sMaxAge(sharedMaxAge);
+            }
+            if (staleWhileRevalidate != null) 
+            {
+                cacheControl = cacheControl.staleWhileRevalidate(staleWhileRevalidate);
+            }
+            if (staleIfError != null) 
+            {
+                cacheControl = cacheControl.staleIfError(staleIfError);
+            }
+            return cacheControl;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.erikm.ecommerce.config;
+
+/**
+ * Idempotency-Key da requisição em execução na thread. O serviço que cria o recurso chama
+ * markCommitted dentro da própria transação, e o marcador é gravado junto com o recurso.
+ */
+public final class IdempotencyContext 
+{
+    private record Binding(IdempotencyStore store, String key) {
+
+    }
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private IdempotencyContext() 
+    {
+
+    }
+
+    static void bind(IdempotencyStore store, String key) 
+    {
+        CURRENT.set(new Binding(store, key));
+    }
+
+    static void clear() 
+    {
+        CURRENT.remove();
+    }
+
+    // Sem Idempotency-Key na requisição (ou fora de uma), não faz nada
+    public static void markCommitted(Object resourceId) 
+    {
+        Binding binding = CURRENT.get();
+        if (binding != null) 
+        {
+            binding.store().markCommitted(binding.key(), String.valueOf(resourceId));
+        }
+    }
+}
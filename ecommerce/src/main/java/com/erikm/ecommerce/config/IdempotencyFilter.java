@@ -0,0 +1,353 @@
+package com.erikm.ecommerce.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.erikm.ecommerce.config.IdempotencyStore.StoredResponse;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Honra o header Idempotency-Key nas rotas configuradas: a primeira requisição executa e tem a resposta
+ * guardada; retries com a mesma chave recebem a resposta original sem passar pelo controller. Duplicatas
+ * simultâneas na mesma instância aguardam a original; entre instâncias, a reserva no banco decide quem executa.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter 
+{
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final DomainMetrics domainMetrics;
+    private final ObjectMapper objectMapper;
+
+    // Requisições em execução nesta instância; o futuro completa com null se não houver resposta a reenviar
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, DomainMetrics domainMetrics, ObjectMapper objectMapper) {
+        this.store = store;
+        this.properties = properties;
+        this.domainMetrics = domainMetrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) 
+    {
+        return !HttpMethod.POST.matches(request.getMethod()) || !properties.getPaths().contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException 
+    {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) 
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) 
+        {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida.", "A chave deve ter no máximo " + MAX_KEY_LENGTH + " caracteres.");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(properties.getMaxBodySize() + 1);
+        if (body.length > properties.getMaxBodySize()) 
+        {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Corpo da requisição muito grande.", "Requisições com Idempotency-Key aceitam até " + properties.getMaxBodySize() + " bytes.");
+            return;
+        }
+
+        String key = sha256((principal() + '\n' + request.getMethod() + '\n' + request.getServletPath() + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(body);
+
+        StoredResponse stored = store.findCompleted(key);
+        if (stored != null) 
+        {
+            replay(response, stored, requestHash, "replayed");
+            return;
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) 
+        {
+            awaitOriginal(response, running, requestHash);
+            return;
+        }
+
+        StoredResponse result = null;
+        try 
+        {
+            if (!store.reserve(key, requestHash)) 
+            {
+                result = store.findCompleted(key);
+                String committedResource = result == null ? store.findCommittedResource(key) : null;
+                if (result != null) 
+                {
+                    replay(response, result, requestHash, "replayed");
+                }
+                else if (committedResource != null) 
+                {
+                    // O recurso foi criado, mas a resposta original se perdeu (processo caiu entre o commit e o registro)
+                    domainMetrics.recordIdempotency("committed");
+                    response.setHeader(HttpHeaders.LOCATION, request.getServletPath() + "/" + committedResource);
+                    response.setHeader(REPLAYED_HEADER, "true");
+                    writeError(response, HttpStatus.SEE_OTHER, "Requisição já processada.", "O recurso criado com esta Idempotency-Key está em " + request.getServletPath() + "/" + committedResource + ".");
+                }
+                else 
+                {
+                    domainMetrics.recordIdempotency("conflict");
+                    writeError(response, HttpStatus.CONFLICT, "Requisição em processamento.", "Já existe uma requisição com esta Idempotency-Key em andamento.");
+                }
+                return;
+            }
+
+            result = execute(new CachedBodyRequest(request, body), response, filterChain, key, requestHash);
+        }
+        finally 
+        {
+            inFlight.remove(key, execution);
+            execution.complete(result);
+        }
+    }
+
+    private StoredResponse execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String key, String requestHash)
+            throws ServletException, IOException 
+    {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse result = null;
+        try 
+        {
+            IdempotencyContext.bind(store, key);
+            try 
+            {
+                filterChain.doFilter(request, responseWrapper);
+            }
+            finally 
+            {
+                IdempotencyContext.clear();
+            }
+
+            // 5xx não é uma resposta definitiva: a reserva é liberada para o cliente poder tentar de novo
+            if (responseWrapper.getStatus() < 500) 
+            {
+                Charset charset = Charset.forName(responseWrapper.getCharacterEncoding());
+                result = store.complete(key, requestHash, responseWrapper.getStatus(), responseWrapper.getContentType(), replayedHeaders(responseWrapper),
+                    new String(responseWrapper.getContentAsByteArray(), charset));
+            }
+            domainMetrics.recordIdempotency("executed");
+        }
+        finally 
+        {
+            if (result == null) 
+            {
+                store.release(key);
+            }
+        }
+        responseWrapper.copyBodyToResponse();
+        return result;
+    }
+
+    private void awaitOriginal(HttpServletResponse response, CompletableFuture<StoredResponse> running, String requestHash) throws IOException 
+    {
+        StoredResponse stored;
+        try 
+        {
+            stored = running.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) 
+        {
+            Thread.currentThread().interrupt();
+            stored = null;
+        }
+        catch (ExecutionException | TimeoutException e) 
+        {
+            stored = null;
+        }
+
+        if (stored == null) 
+        {
+            domainMetrics.recordIdempotency("conflict");
+            writeError(response, HttpStatus.CONFLICT, "Requisição em processamento.", "A requisição original com esta Idempotency-Key não foi concluída, tente novamente.");
+            return;
+        }
+        replay(response, stored, requestHash, "coalesced");
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored, String requestHash, String outcome) throws IOException 
+    {
+        if (!stored.requestHash().equals(requestHash)) 
+        {
+            domainMetrics.recordIdempotency("mismatch");
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key reutilizada.", "A chave já foi usada com um corpo de requisição diferente.");
+            return;
+        }
+
+        domainMetrics.recordIdempotency(outcome);
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = stored.body() != null ? stored.body().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (stored.contentType() != null) 
+        {
+            response.setContentType(MediaType.parseMediaType(stored.contentType()).toString());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private HttpHeaders replayedHeaders(HttpServletResponse response) 
+    {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : properties.getReplayedHeaders()) 
+        {
+            response.getHeaders(name).forEach(value -> headers.add(name, value));
+        }
+        return headers;
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String details) throws IOException 
+    {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponser.error(status.toString(), message, details));
+    }
+
+    private static String principal() 
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+
+    private static String sha256(byte[] value) 
+    {
+        try 
+        {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        }
+        catch (NoSuchAlgorithmException e) 
+        {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    // O corpo já foi lido para calcular o hash; o controller recebe uma cópia em memória
+    private static class CachedBodyRequest extends HttpServletRequestWrapper 
+    {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() 
+        {
+            ByteArrayInputStream source = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() 
+                {
+                    return source.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) 
+                {
+                    return source.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() 
+                {
+                    return source.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() 
+                {
+                    return true;
+                }
+
+                // O corpo já está todo em memória: não há espera, os dados estão disponíveis de imediato
+                @Override
+                public void setReadListener(ReadListener readListener) 
+                {
+                    try 
+                    {
+                        if (!isFinished()) 
+                        {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) 
+                        {
+                            readListener.onAllDataRead();
+                        }
+                    }
+                    catch (IOException e) 
+                    {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() 
+        {
+            Charset charset = Charset.forName(getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() 
+        {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() 
+        {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties 
+{
+    private boolean enabled = true;
+
+    // Rotas POST em que o header Idempotency-Key é honrado
+    private List<String> paths = new ArrayList<>(List.of("/api/orders"));
+
+    // Por quanto tempo uma resposta pode ser reenviada
+    private Duration ttl = Duration.ofHours(24);
+
+    // Uma reserva sem resposta mais antiga que isso é considerada abandonada (processo caiu)
+    private Duration lockTimeout = Duration.ofMinutes(2);
+
+    // Espera máxima de uma requisição duplicada pela original na mesma instância
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    // Cabeçalhos da resposta original guardados e reenviados no replay, além do Content-Type
+    private List<String> replayedHeaders = new ArrayList<>(List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL));
+
+    private int cacheSize = 10_000;
+
+    private int maxBodySize = 256 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    public void setLockTimeout(Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    public List<String> getReplayedHeaders() {
+        return replayedHeaders;
+    }
+
+    public void setReplayedHeaders(List<String> replayedHeaders) {
+        this.replayedHeaders = replayedHeaders;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
@@ -0,0 +1,220 @@
+package com.erikm.ecommerce.config;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+/**
+ * Armazena as respostas já produzidas para cada Idempotency-Key. A tabela tb_idempotency_keys
+ * é a fonte da verdade (e coordena instâncias diferentes via chave primária); um LRU em memória
+ * evita ida ao banco nos retries mais comuns, que chegam segundos depois da requisição original.
+ */
+public class IdempotencyStore 
+{
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(String requestHash, int status, String contentType, HttpHeaders headers, String body, LocalDateTime expiresAt) {
+
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final DomainMetrics domainMetrics;
+    private final Map<String, StoredResponse> recent;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties, DomainMetrics domainMetrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.domainMetrics = domainMetrics;
+        int capacity = properties.getCacheSize();
+        this.recent = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) 
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public StoredResponse findCompleted(String key) 
+    {
+        LocalDateTime now = LocalDateTime.now();
+        StoredResponse cached;
+        synchronized (recent) 
+        {
+            cached = recent.get(key);
+        }
+        if (cached != null && cached.expiresAt().isAfter(now)) 
+        {
+            domainMetrics.recordCacheAccess("idempotency", true);
+            return cached;
+        }
+        domainMetrics.recordCacheAccess("idempotency", false);
+
+        List<StoredResponse> rows = jdbcTemplate.query(
+            "select request_hash, status_code, content_type, response_headers, response_body, expires_at from tb_idempotency_keys where idempotency_key = ? and status_code is not null and expires_at > ?",
+            (rs, rowNum) -> new StoredResponse(rs.getString(1), rs.getInt(2), rs.getString(3), decodeHeaders(rs.getString(4)), rs.getString(5), rs.getTimestamp(6).toLocalDateTime()),
+            key, Timestamp.valueOf(now));
+        if (rows.isEmpty()) 
+        {
+            return null;
+        }
+        remember(key, rows.get(0));
+        return rows.get(0);
+    }
+
+    // Id do recurso criado por uma requisição cuja transação foi commitada, mas cuja resposta não chegou a ser guardada
+    public String findCommittedResource(String key) 
+    {
+        List<String> rows = jdbcTemplate.queryForList(
+            "select resource_id from tb_idempotency_keys where idempotency_key = ? and status_code is null and committed_at is not null and expires_at > ?",
+            String.class, key, Timestamp.valueOf(LocalDateTime.now()));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Insere a reserva; false se outra requisição (possivelmente em outra instância) já a detém
+    public boolean reserve(String key, String requestHash) 
+    {
+        LocalDateTime now = LocalDateTime.now();
+        try 
+        {
+            insertReservation(key, requestHash, now);
+            return true;
+        } 
+        catch (DuplicateKeyException e) 
+        {
+            int removed = jdbcTemplate.update(
+                "delete from tb_idempotency_keys where idempotency_key = ? and (expires_at <= ? or (status_code is null and committed_at is null and created_at < ?))",
+                key, Timestamp.valueOf(now), Timestamp.valueOf(now.minus(properties.getLockTimeout())));
+            if (removed == 0) 
+            {
+                return false;
+            }
+            try 
+            {
+                insertReservation(key, requestHash, now);
+                return true;
+            } 
+            catch (DuplicateKeyException raced) 
+            {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Marca a reserva como commitada dentro da transação corrente (antes do commit, na mesma conexão):
+     * se o processo cair antes de complete, a chave continua bloqueada e um retry não cria o recurso de novo.
+     */
+    public void markCommitted(String key, String resourceId) 
+    {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) 
+        {
+            updateCommitted(key, resourceId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) 
+            {
+                updateCommitted(key, resourceId);
+            }
+        });
+    }
+
+    public StoredResponse complete(String key, String requestHash, int status, String contentType, HttpHeaders headers, String body) 
+    {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(properties.getTtl());
+        jdbcTemplate.update("update tb_idempotency_keys set status_code = ?, content_type = ?, response_headers = ?, response_body = ?, expires_at = ? where idempotency_key = ?",
+            status, contentType, encodeHeaders(headers), body, Timestamp.valueOf(expiresAt), key);
+        StoredResponse stored = new StoredResponse(requestHash, status, contentType, headers, body, expiresAt);
+        remember(key, stored);
+        return stored;
+    }
+
+    // Libera a reserva quando a requisição falhou sem resposta definitiva (5xx), permitindo um novo retry.
+    // Uma reserva já commitada não é liberada: o recurso existe e um retry não pode criá-lo de novo
+    public void release(String key) 
+    {
+        jdbcTemplate.update("delete from tb_idempotency_keys where idempotency_key = ? and status_code is null and committed_at is null", key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:10m}")
+    public void purgeExpired() 
+    {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = jdbcTemplate.update("delete from tb_idempotency_keys where expires_at <= ?", Timestamp.valueOf(now));
+        synchronized (recent) 
+        {
+            recent.values().removeIf(stored -> !stored.expiresAt().isAfter(now));
+        }
+        if (removed > 0) 
+        {
+            log.debug("{} chaves de idempotência expiradas removidas", removed);
+        }
+    }
+
+    private void updateCommitted(String key, String resourceId) 
+    {
+        jdbcTemplate.update("update tb_idempotency_keys set committed_at = ?, resource_id = ? where idempotency_key = ? and status_code is null",
+            Timestamp.valueOf(LocalDateTime.now()), resourceId, key);
+    }
+
+    // Valores de cabeçalho não contêm quebras de linha, então basta um "Nome: valor" por linha
+    private static String encodeHeaders(HttpHeaders headers) 
+    {
+        if (headers == null || headers.isEmpty()) 
+        {
+            return null;
+        }
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, values) -> values.forEach(value -> encoded.append(name).append(": ").append(value).append('\n')));
+        return encoded.toString();
+    }
+
+    private static HttpHeaders decodeHeaders(String encoded) 
+    {
+        HttpHeaders headers = new HttpHeaders();
+        if (encoded == null) 
+        {
+            return headers;
+        }
+        for (String line : encoded.split("\n")) 
+        {
+            int separator = line.indexOf(": ");
+            if (separator > 0) 
+            {
+                headers.add(line.substring(0, separator), line.substring(separator + 2));
+            }
+        }
+        return headers;
+    }
+
+    private void insertReservation(String key, String requestHash, LocalDateTime now) 
+    {
+        jdbcTemplate.update("insert into tb_idempotency_keys (idempotency_key, request_hash, created_at, expires_at) values (?, ?, ?, ?)",
+            key, requestHash, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(properties.getTtl())));
+    }
+
+    private void remember(String key, StoredResponse stored) 
+    {
+        synchronized (recent) 
+        {
+            recent.put(key, stored);
+        }
+    }
+}
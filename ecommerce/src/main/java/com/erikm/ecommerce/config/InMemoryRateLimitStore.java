@@ -0,0 +1,65 @@
+package com.erikm.ecommerce.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Limites desta instância, sem lock: o ConcurrentHashMap distribui as chaves em bins independentes e
+ * cada chave é um AtomicLong atualizado por CAS. Uma chave que já existe custa um get e um CAS, sem
+ * alocação no store. O mapa tem teto de maxKeys: com ele cheio, clientes novos dividem um único balde
+ * de overflow até a varredura periódica (evictIdle) descartar as chaves ociosas.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore 
+{
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+    private final int maxKeys;
+
+    public InMemoryRateLimitStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long acquire(String key, long emissionIntervalNanos, long burstToleranceNanos) 
+    {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) 
+        {
+            // O teto pode ser ultrapassado por no máximo uma chave por thread concorrente
+            bucket = buckets.size() < maxKeys ? buckets.computeIfAbsent(key, ignored -> new AtomicLong(now)) : overflow;
+        }
+
+        while (true) 
+        {
+            long current = bucket.get();
+            long tat = current - now > 0 ? current : now;
+            long earliest = tat - burstToleranceNanos;
+            if (earliest - now > 0) 
+            {
+                return earliest - now;
+            }
+            if (bucket.compareAndSet(current, tat + emissionIntervalNanos)) 
+            {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int size() 
+    {
+        return buckets.size();
+    }
+
+    // Fora do caminho da requisição. Uma chave ociosa já tem o balde cheio, então descartá-la não muda
+    // o limite (no máximo uma requisição concorrente à remoção deixa de contar)
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:30s}", initialDelayString = "${app.rate-limit.sweep-interval:30s}")
+    public void evictIdle() 
+    {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.erikm.ecommerce.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reexecuta o método (e a transação que ele abre) quando o commit falha por conflito de versão
+ * (@Version). Só tem efeito na chamada mais externa: dentro de uma transação já ativa o conflito
+ * é propagado para quem a abriu. Limites e backoff em app.optimistic-retry.*.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OptimisticRetry 
+{
+    // Sobrescreve app.optimistic-retry.max-attempts quando maior que zero
+    int maxAttempts() default 0;
+}
@@ -0,0 +1,78 @@
+package com.erikm.ecommerce.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+/**
+ * Executa antes do interceptor de @Transactional (ordem menor), então cada tentativa roda em uma
+ * transação nova e relê o estado atual. Entre tentativas espera um backoff exponencial com jitter
+ * completo, para que as requisições em conflito não voltem a colidir no mesmo instante.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticRetryAspect 
+{
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    private final OptimisticRetryProperties properties;
+    private final DomainMetrics domainMetrics;
+
+    public OptimisticRetryAspect(OptimisticRetryProperties properties, DomainMetrics domainMetrics) {
+        this.properties = properties;
+        this.domainMetrics = domainMetrics;
+    }
+
+    @Around("@annotation(optimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry optimisticRetry) throws Throwable 
+    {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) 
+        {
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        int maxAttempts = optimisticRetry.maxAttempts() > 0 ? optimisticRetry.maxAttempts() : properties.getMaxAttempts();
+        for (int attempt = 1; ; attempt++) 
+        {
+            try 
+            {
+                Object result = joinPoint.proceed();
+                domainMetrics.recordOptimisticAttempts(operation, attempt, DomainMetrics.OUTCOME_SUCCESS);
+                return result;
+            } 
+            catch (OptimisticLockingFailureException e) 
+            {
+                domainMetrics.recordOptimisticConflict(operation);
+                if (attempt >= maxAttempts) 
+                {
+                    domainMetrics.recordOptimisticAttempts(operation, attempt, DomainMetrics.OUTCOME_REJECTED);
+                    log.warn("{} desistiu após {} conflitos de versão", operation, attempt);
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "O recurso foi alterado por outra requisição, tente novamente.", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedException 
+    {
+        long ceiling = Math.min(properties.getMaxBackoff().toMillis(), properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        if (ceiling > 0) 
+        {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.erikm.ecommerce.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+@Configuration
+@EnableConfigurationProperties(OptimisticRetryProperties.class)
+public class OptimisticRetryConfig 
+{
+    @Bean
+    public OptimisticRetryAspect optimisticRetryAspect(OptimisticRetryProperties properties, DomainMetrics domainMetrics) 
+    {
+        return new OptimisticRetryAspect(properties, domainMetrics);
+    }
+}
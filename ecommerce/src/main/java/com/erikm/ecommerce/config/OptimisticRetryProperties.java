@@ -0,0 +1,40 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.optimistic-retry")
+public class OptimisticRetryProperties 
+{
+    // Total de tentativas, incluindo a primeira
+    private int maxAttempts = 4;
+
+    private Duration initialBackoff = Duration.ofMillis(10);
+
+    private Duration maxBackoff = Duration.ofMillis(200);
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+}
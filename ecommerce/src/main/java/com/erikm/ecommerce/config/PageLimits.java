@@ -0,0 +1,23 @@
+package com.erikm.ecommerce.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limites do Pageable de um endpoint, aplicados pelo PageRequestGuard. Sem a anotação o endpoint
+ * aceita só a ordenação padrão; os campos de sortable devem ter índice na tabela.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PageLimits 
+{
+    // Propriedades da entidade aceitas em ?sort=
+    String[] sortable() default {};
+
+    // Custo relativo de cada linha da página (coleções EAGER e joins pesam mais)
+    int rowCost() default 1;
+}
@@ -0,0 +1,119 @@
+package com.erikm.ecommerce.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Barra listagens caras antes do controller, sem abrir transação. O Pageable é resolvido pelo mesmo
+ * resolver do Spring Data (size acima de spring.data.web.pageable.max-page-size já chega reduzido)
+ * e checado contra a profundidade do offset, os campos de ordenação do @PageLimits do endpoint e o
+ * custo estimado da página. Fora dos limites, 400 com o motivo.
+ */
+public class PageRequestGuard implements HandlerInterceptor 
+{
+    private final PageableHandlerMethodArgumentResolver pageableResolver;
+    private final PaginationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public PageRequestGuard(PageableHandlerMethodArgumentResolver pageableResolver, PaginationProperties properties, ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.pageableResolver = pageableResolver;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    record Rejection(String reason, String details) {
+
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException 
+    {
+        if (!(handler instanceof HandlerMethod handlerMethod)) 
+        {
+            return true;
+        }
+        MethodParameter parameter = Arrays.stream(handlerMethod.getMethodParameters())
+            .filter(candidate -> Pageable.class.isAssignableFrom(candidate.getParameterType()))
+            .findFirst()
+            .orElse(null);
+        if (parameter == null) 
+        {
+            return true;
+        }
+
+        Pageable pageable = pageableResolver.resolveArgument(parameter, null, new ServletWebRequest(request, response), null);
+        Rejection rejection = check(pageable, handlerMethod.getMethodAnnotation(PageLimits.class));
+        if (rejection == null) 
+        {
+            return true;
+        }
+
+        meterRegistry.counter("http.pagination.rejections", "reason", rejection.reason()).increment();
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponser.error(HttpStatus.BAD_REQUEST.toString(), "Paginação fora dos limites.", rejection.details()));
+        return false;
+    }
+
+    Rejection check(Pageable pageable, PageLimits limits) 
+    {
+        if (pageable.isUnpaged()) 
+        {
+            return null;
+        }
+
+        List<String> sortable = limits == null ? List.of() : List.of(limits.sortable());
+        for (Sort.Order order : pageable.getSort()) 
+        {
+            if (!sortable.contains(order.getProperty())) 
+            {
+                return new Rejection("sort", "Ordenação por '" + order.getProperty() + "' não é permitida. Campos permitidos: "
+                    + (sortable.isEmpty() ? "nenhum" : String.join(", ", sortable)) + ".");
+            }
+        }
+
+        long offset = pageable.getOffset();
+        if (offset > properties.getMaxOffset()) 
+        {
+            return new Rejection("offset", "A página pedida começa no registro " + offset + "; o máximo é " + properties.getMaxOffset()
+                + ". Use filtros para restringir a listagem.");
+        }
+
+        long cost = estimateCost(pageable, limits);
+        if (cost > properties.getMaxCost()) 
+        {
+            return new Rejection("cost", "Custo estimado da página (" + cost + ") acima do limite de " + properties.getMaxCost()
+                + ". Reduza o parâmetro size.");
+        }
+        return null;
+    }
+
+    long estimateCost(Pageable pageable, PageLimits limits) 
+    {
+        int rowCost = limits == null ? 1 : Math.max(1, limits.rowCost());
+        return (long) pageable.getPageSize() * rowCost + pageable.getOffset() / Math.max(1, properties.getSkippedRowsPerCost());
+    }
+}
@@ -0,0 +1,40 @@
+package com.erikm.ecommerce.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(PaginationProperties.class)
+@ConditionalOnProperty(prefix = "app.pagination", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaginationConfig implements WebMvcConfigurer 
+{
+    private final ObjectProvider<PageableHandlerMethodArgumentResolver> pageableResolver;
+    private final PaginationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public PaginationConfig(ObjectProvider<PageableHandlerMethodArgumentResolver> pageableResolver, PaginationProperties properties,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.pageableResolver = pageableResolver;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // O resolver do Spring Data é o mesmo usado nos controllers, já com max-page-size aplicado
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) 
+    {
+        registry.addInterceptor(new PageRequestGuard(pageableResolver.getIfAvailable(PageableHandlerMethodArgumentResolver::new), properties, objectMapper, meterRegistry))
+            .addPathPatterns("/api/**");
+    }
+}
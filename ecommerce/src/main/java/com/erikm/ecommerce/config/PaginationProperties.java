@@ -0,0 +1,51 @@
+package com.erikm.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// O tamanho máximo de página fica em spring.data.web.pageable.max-page-size (valores maiores são reduzidos)
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties 
+{
+    private boolean enabled = true;
+
+    // page * size: o banco lê e descarta todas as linhas antes do offset
+    private long maxOffset = 10_000;
+
+    // Orçamento por requisição: size * rowCost + offset / skippedRowsPerCost
+    private long maxCost = 1_500;
+
+    // Linhas puladas pelo offset custam menos que linhas materializadas em entidades e JSON
+    private int skippedRowsPerCost = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxOffset() {
+        return maxOffset;
+    }
+
+    public void setMaxOffset(long maxOffset) {
+        this.maxOffset = maxOffset;
+    }
+
+    public long getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(long maxCost) {
+        this.maxCost = maxCost;
+    }
+
+    public int getSkippedRowsPerCost() {
+        return skippedRowsPerCost;
+    }
+
+    public void setSkippedRowsPerCost(int skippedRowsPerCost) {
+        this.skippedRowsPerCost = skippedRowsPerCost;
+    }
+}
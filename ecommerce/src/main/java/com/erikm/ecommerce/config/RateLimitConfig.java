@@ -0,0 +1,40 @@
+package com.erikm.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig 
+{
+    // Um store distribuído de verdade entra definindo outro bean RateLimitStore
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    public RateLimitStore rateLimitStore(RateLimitProperties properties) 
+    {
+        if ("shared".equalsIgnoreCase(properties.getStore())) 
+        {
+            return new SharedRateLimitStore(properties.getMaxKeys());
+        }
+        return new InMemoryRateLimitStore(properties.getMaxKeys());
+    }
+
+    // Depois do Spring Security (a chave usa o subject do JWT) e antes da idempotência e dos controllers
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitStore store, RateLimitProperties properties, DomainMetrics domainMetrics,
+            ObjectMapper objectMapper) 
+    {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(store, properties, domainMetrics, objectMapper));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 5);
+        return registration;
+    }
+}
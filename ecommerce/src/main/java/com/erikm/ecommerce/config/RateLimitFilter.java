@@ -0,0 +1,132 @@
+package com.erikm.ecommerce.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita requisições por cliente nas rotas de app.rate-limit.routes, antes de qualquer acesso ao banco.
+ * O cliente é o subject autenticado pelo Spring Security (JWT), senão o IP; um header enviado pelo
+ * cliente sem validação nunca vira chave, senão bastaria trocar o valor a cada requisição.
+ * Estourado o limite, 429 com Retry-After. Rotas e contadores são resolvidos uma vez na construção:
+ * por requisição sobram o parse e o casamento do caminho, a montagem da chave (Strings curtas) e um
+ * get + CAS no store.
+ */
+public class RateLimitFilter extends OncePerRequestFilter 
+{
+    private final RateLimitStore store;
+    private final ObjectMapper objectMapper;
+    private final List<CompiledRoute> routes;
+
+    private record CompiledRoute(String name, PathPattern pattern, HttpMethod method, long emissionIntervalNanos, long burstToleranceNanos,
+                                 Counter allowed, Counter rejected) {
+
+    }
+
+    public RateLimitFilter(RateLimitStore store, RateLimitProperties properties, DomainMetrics domainMetrics, ObjectMapper objectMapper) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.routes = compile(properties.getRoutes(), domainMetrics);
+        domainMetrics.registerRateLimitKeys(store::size);
+    }
+
+    private static List<CompiledRoute> compile(List<RateLimitProperties.Route> configured, DomainMetrics domainMetrics) 
+    {
+        List<CompiledRoute> compiled = new ArrayList<>(configured.size());
+        for (RateLimitProperties.Route route : configured) 
+        {
+            if (route.getLimit() <= 0 || route.getPeriod() == null || route.getPeriod().isZero() || route.getPeriod().isNegative()) 
+            {
+                throw new IllegalStateException("Rota de rate limit '" + route.getName() + "' precisa de limit > 0 e period positivo.");
+            }
+            long interval = Math.max(1, route.getPeriod().toNanos() / route.getLimit());
+            int burst = route.getBurst() > 0 ? route.getBurst() : route.getLimit();
+            HttpMethod method = route.getMethod() == null || route.getMethod().isBlank() ? null : HttpMethod.valueOf(route.getMethod().trim().toUpperCase());
+            compiled.add(new CompiledRoute(route.getName(), PathPatternParser.defaultInstance.parse(route.getPath()), method, interval,
+                interval * (burst - 1), domainMetrics.rateLimitRequests(route.getName(), true), domainMetrics.rateLimitRequests(route.getName(), false)));
+        }
+        return compiled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException 
+    {
+        CompiledRoute route = match(request);
+        if (route == null) 
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = store.acquire(route.name() + '|' + client(request), route.emissionIntervalNanos(), route.burstToleranceNanos());
+        if (waitNanos == 0) 
+        {
+            route.allowed().increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected().increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponser.error(HttpStatus.TOO_MANY_REQUESTS.toString(),
+            "Muitas requisições.", "Limite de requisições excedido, tente novamente em " + retryAfter + " segundo(s)."));
+    }
+
+    private CompiledRoute match(HttpServletRequest request) 
+    {
+        if (routes.isEmpty()) 
+        {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (CompiledRoute route : routes) 
+        {
+            if ((route.method() == null || route.method().matches(request.getMethod())) && route.pattern().matches(path)) 
+            {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // Uma API key só conta depois de autenticada: o mecanismo que a validar vira a Authentication e cai
+    // no subject. Atrás de proxy, o IP real depende de server.forward-headers-strategy (X-Forwarded-For confiável)
+    private String client(HttpServletRequest request) 
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) 
+        {
+            return "sub:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,122 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties 
+{
+    private boolean enabled = true;
+
+    // memory: limites por instância; shared: SharedRateLimitStore (substituto local de um mapa distribuído)
+    private String store = "memory";
+
+    // Teto de chaves no store; com ele cheio, clientes novos dividem um balde de overflow até a
+    // varredura (app.rate-limit.sweep-interval) descartar as chaves ociosas
+    private int maxKeys = 100_000;
+
+    // Avaliadas em ordem; a primeira rota que casar com a requisição define o limite
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route 
+    {
+        // Tag route das métricas e prefixo da chave no store
+        private String name;
+
+        // Padrão de caminho (PathPattern), ex.: /api/products/**
+        private String path;
+
+        // Vazio vale para qualquer método
+        private String method;
+
+        // limit requisições por period, com rajadas de até burst (padrão: limit)
+        private int limit;
+
+        private Duration period = Duration.ofSeconds(1);
+
+        private int burst;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.erikm.ecommerce.config;
+
+/**
+ * Estado dos limites de requisição por chave, no algoritmo GCRA (equivalente a um token bucket, mas
+ * com um único número por chave: o TAT, instante teórico da próxima chegada). Cada implementação usa
+ * o próprio relógio; uma implementação distribuída deve usar o relógio do servidor compartilhado e
+ * atualizar o TAT atomicamente (compare-and-set ou script no servidor).
+ */
+public interface RateLimitStore 
+{
+    /**
+     * Consome uma requisição da chave. Retorna 0 se ela cabe no limite ou, se não cabe, quantos
+     * nanossegundos faltam para a próxima ser aceita.
+     *
+     * @param emissionIntervalNanos intervalo entre requisições na taxa sustentada (período / limite)
+     * @param burstToleranceNanos   adiantamento aceito além da taxa: (burst - 1) * emissionIntervalNanos
+     */
+    long acquire(String key, long emissionIntervalNanos, long burstToleranceNanos);
+
+    // Chaves acompanhadas no momento (métrica http.rate_limit.keys)
+    int size();
+}
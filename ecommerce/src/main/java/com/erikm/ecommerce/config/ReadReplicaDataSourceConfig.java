@@ -0,0 +1,60 @@
+package com.erikm.ecommerce.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Ativado por app.datasource.replica.url. Substitui o DataSource autoconfigurado por dois pools
+ * (primário e réplica) atrás de um roteador; JPA, JdbcTemplate e o proxy de métricas continuam
+ * enxergando um único bean "dataSource".
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaDataSourceConfig 
+{
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) 
+    {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties, ReadReplicaProperties replicaProperties) 
+    {
+        HikariDataSource replica = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(primaryProperties.determineDriverClassName())
+            .url(replicaProperties.getUrl())
+            .username(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : primaryProperties.determineUsername())
+            .password(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : primaryProperties.determinePassword())
+            .build();
+        replica.setPoolName("ecommerce-replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 ReadReplicaProperties replicaProperties, ReadYourWritesTracker readYourWrites) 
+    {
+        return new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaProperties.getRoutedPackages(), readYourWrites));
+    }
+}
@@ -0,0 +1,54 @@
+package com.erikm.ecommerce.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReadReplicaProperties 
+{
+    // Sem url o roteamento fica desligado e tudo vai para o primário
+    private String url;
+
+    // Quando vazios, reutiliza as credenciais do primário (spring.datasource.*)
+    private String username;
+
+    private String password;
+
+    // Só transações read-only abertas por código destes pacotes vão para a réplica; as
+    // transações padrão do Spring Data (ex.: findById fora de serviço) continuam no primário.
+    private List<String> routedPackages = new ArrayList<>(List.of("com.erikm.ecommerce.service."));
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public List<String> getRoutedPackages() {
+        return routedPackages;
+    }
+
+    public void setRoutedPackages(List<String> routedPackages) {
+        this.routedPackages = routedPackages;
+    }
+}
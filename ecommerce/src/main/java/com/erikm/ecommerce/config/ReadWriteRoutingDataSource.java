@@ -0,0 +1,53 @@
+package com.erikm.ecommerce.config;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Escolhe o pool no momento em que a conexão física é pedida. Precisa ficar atrás de um
+ * LazyConnectionDataSourceProxy: assim a decisão acontece no primeiro comando SQL, quando a
+ * transação (e o flag read-only) já foi aberta pelo Spring.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource 
+{
+    public enum Route { PRIMARY, REPLICA }
+
+    private final List<String> routedPackages;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, List<String> routedPackages, ReadYourWritesTracker readYourWrites) {
+        this.routedPackages = List.copyOf(routedPackages);
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() 
+    {
+        return currentRoute();
+    }
+
+    public Route currentRoute() 
+    {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) 
+        {
+            return Route.PRIMARY;
+        }
+
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName == null || routedPackages.stream().noneMatch(transactionName::startsWith)) 
+        {
+            return Route.PRIMARY;
+        }
+
+        return readYourWrites.requiresPrimary() ? Route.PRIMARY : Route.REPLICA;
+    }
+}
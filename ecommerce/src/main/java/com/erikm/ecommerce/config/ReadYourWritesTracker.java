@@ -0,0 +1,119 @@
+package com.erikm.ecommerce.config;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Janela de read-your-writes por cliente: depois de um pedido confirmado no primário, as
+ * leituras desse cliente ficam no primário até a réplica ter tido tempo de alcançá-lo.
+ * O estado é local à instância (suficiente com sticky sessions ou uma única réplica da API).
+ */
+@Component
+public class ReadYourWritesTracker 
+{
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final int EVICTION_THRESHOLD = 10_000;
+
+    private final ConcurrentHashMap<Long, Long> lastWriteDeadline = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(@Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    // A janela começa no commit; um rollback não deve prender o cliente no primário
+    public void recordWrite(Long customerId) 
+    {
+        if (customerId == null) 
+        {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) 
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() 
+                {
+                    stamp(customerId);
+                }
+            });
+        } 
+        else 
+        {
+            stamp(customerId);
+        }
+    }
+
+    public boolean isWithinWindow(Long customerId) 
+    {
+        if (customerId == null) 
+        {
+            return false;
+        }
+        Long deadline = lastWriteDeadline.get(customerId);
+        return deadline != null && deadline - System.nanoTime() > 0;
+    }
+
+    // Para leituras sobre um cliente explícito (ex.: pedidos de um cliente consultados por um admin).
+    // Deve ser chamado antes do primeiro comando SQL da transação. Sem transação não há o que prender
+    // (essas leituras já vão ao primário) nem quem limpe o pino, que vazaria para a próxima requisição da thread.
+    public void pinIfRecentWrite(Long customerId) 
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !isWithinWindow(customerId)) 
+        {
+            return;
+        }
+        PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) 
+            {
+                PINNED.remove();
+            }
+        });
+    }
+
+    public boolean requiresPrimary() 
+    {
+        if (Boolean.TRUE.equals(PINNED.get())) 
+        {
+            return true;
+        }
+        return isWithinWindow(currentCustomerId());
+    }
+
+    private void stamp(Long customerId) 
+    {
+        long now = System.nanoTime();
+        if (lastWriteDeadline.size() >= EVICTION_THRESHOLD) 
+        {
+            lastWriteDeadline.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        lastWriteDeadline.put(customerId, now + windowNanos);
+    }
+
+    private static Long currentCustomerId() 
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken)) 
+        {
+            return null;
+        }
+        try 
+        {
+            return Long.valueOf(authentication.getName());
+        } 
+        catch (NumberFormatException e) 
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.erikm.ecommerce.config;
+
+import java.util.regex.Pattern;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * O Hibernate registra a consulta lenta usando o {@code toString()} do statement, que no driver
+ * do PostgreSQL já vem com os valores de bind embutidos. Este conversor substitui literais
+ * (strings e números) por {@code ?} dentro do SQL, preservando o prefixo com o tempo gasto.
+ */
+public class RedactedSqlConverter extends ClassicConverter 
+{
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    @Override
+    public String convert(ILoggingEvent event) 
+    {
+        return redact(event.getFormattedMessage());
+    }
+
+    static String redact(String message) 
+    {
+        if (message == null) 
+        {
+            return "";
+        }
+
+        // "Slow query took N milliseconds [sql]": apenas o trecho entre colchetes é SQL
+        int sqlStart = message.indexOf('[');
+        if (sqlStart < 0) 
+        {
+            return message;
+        }
+
+        String sql = message.substring(sqlStart);
+        sql = STRING_LITERAL.matcher(sql).replaceAll("?");
+        sql = NUMERIC_LITERAL.matcher(sql).replaceAll("?");
+        return message.substring(0, sqlStart) + sql;
+    }
+}
@@ -0,0 +1,85 @@
+package com.erikm.ecommerce.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Limites compartilhados entre instâncias sobre qualquer ConcurrentMap com replace atômico (o contrato
+ * dos mapas distribuídos, como IMap do Hazelcast ou caches do Infinispan). O TAT é guardado em
+ * nanossegundos de relógio de parede, comparável entre nós. Com um ConcurrentHashMap local ele serve
+ * de substituto do armazenamento distribuído em desenvolvimento e testes; em produção, o mapa remoto
+ * deve expirar chaves ociosas por TTL. Com maxKeys chaves no mapa, clientes novos dividem a chave de
+ * overflow até a varredura periódica liberar espaço.
+ */
+public class SharedRateLimitStore implements RateLimitStore 
+{
+    static final String OVERFLOW_KEY = "overflow";
+
+    private final ConcurrentMap<String, Long> buckets;
+    private final LongSupplier clock;
+    private final int maxKeys;
+
+    public SharedRateLimitStore(int maxKeys) {
+        this(new ConcurrentHashMap<>(), () -> TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()), maxKeys);
+    }
+
+    public SharedRateLimitStore(ConcurrentMap<String, Long> buckets, LongSupplier clock, int maxKeys) {
+        this.buckets = buckets;
+        this.clock = clock;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long acquire(String key, long emissionIntervalNanos, long burstToleranceNanos) 
+    {
+        long now = clock.getAsLong();
+        String bucketKey = key;
+        while (true) 
+        {
+            Long current = buckets.get(bucketKey);
+            if (current == null && !OVERFLOW_KEY.equals(bucketKey) && buckets.size() >= maxKeys) 
+            {
+                bucketKey = OVERFLOW_KEY;
+                continue;
+            }
+            long tat = current != null && current > now ? current : now;
+            long earliest = tat - burstToleranceNanos;
+            if (earliest > now) 
+            {
+                return earliest - now;
+            }
+            boolean updated = current == null
+                ? buckets.putIfAbsent(bucketKey, tat + emissionIntervalNanos) == null
+                : buckets.replace(bucketKey, current, tat + emissionIntervalNanos);
+            if (updated) 
+            {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int size() 
+    {
+        return buckets.size();
+    }
+
+    // Fora do caminho da requisição; remove(key, value) só descarta a chave se ninguém a atualizou nesse meio tempo
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:30s}", initialDelayString = "${app.rate-limit.sweep-interval:30s}")
+    public void evictIdle() 
+    {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Long> entry : buckets.entrySet()) 
+        {
+            if (entry.getValue() <= now) 
+            {
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
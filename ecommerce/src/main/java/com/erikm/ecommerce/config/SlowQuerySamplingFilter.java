@@ -0,0 +1,38 @@
+package com.erikm.ecommerce.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Deixa passar apenas uma fração dos eventos de consulta lenta, evitando que um pico de
+ * lentidão vire uma nova enxurrada de logs.
+ */
+public class SlowQuerySamplingFilter extends Filter<ILoggingEvent> 
+{
+    private double sampleRate = 1.0;
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) 
+    {
+        if (sampleRate >= 1.0) 
+        {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate <= 0.0) 
+        {
+            return FilterReply.DENY;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
@@ -0,0 +1,147 @@
+package com.erikm.ecommerce.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.Responses.ApiError;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.dto.Responses.SalesBackfillReport;
+import com.erikm.ecommerce.dto.Responses.SalesSummary;
+import com.erikm.ecommerce.service.SalesAnalyticsService;
+import com.erikm.ecommerce.service.SalesRollupService;
+
+import io.micrometer.observation.annotation.Observed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@Observed(name = "app.controller")
+@Tag(name = "Análise de vendas", description = "Endpoints de receita e mais vendidos, respondidos a partir de rollups diários.")
+public class AnalyticsController 
+{
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final SalesRollupService salesRollupService;
+
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService, SalesRollupService salesRollupService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Operation(
+        summary = "Receita por período.",
+        description = "Receita, unidades e pedidos entre from e to (inclusive), agrupados por dia (day), categoria (category) ou produto (product). Considera pedidos CONFIRMED e DELIVERED; os dados podem estar atrasados em até um ciclo do job de rollup.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Vendas exibidas com sucesso.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Período ou agrupamento inválido.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @GetMapping("/api/analytics/sales")
+    public ResponseEntity<ApiResponser<?>> getSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(defaultValue = "day") String groupBy) 
+    {
+        try 
+        {
+            List<SalesSummary> call = salesAnalyticsService.findSales(from, to, groupBy);
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Vendas encontradas com sucesso."));
+        }
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+
+    @Operation(
+        summary = "Produtos mais vendidos.",
+        description = "Os produtos com maior receita (revenue), unidades (units) ou pedidos (orders) entre from e to (inclusive).",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Ranking exibido com sucesso.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Período, métrica ou limite inválido.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @GetMapping("/api/analytics/top-sellers")
+    public ResponseEntity<ApiResponser<?>> getTopSellers(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(defaultValue = "revenue") String metric,
+                                                         @RequestParam(defaultValue = "10") int limit) 
+    {
+        try 
+        {
+            List<SalesSummary> call = salesAnalyticsService.findTopSellers(from, to, metric, limit);
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Mais vendidos encontrados com sucesso."));
+        }
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+
+    @Operation(
+        summary = "Recalcula os rollups de um período.",
+        description = "Reconstrói os rollups diários de vendas entre from e to (inclusive) a partir dos pedidos, em blocos de dias. Usado para carregar o histórico ou corrigir um período.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Rollups recalculados com sucesso.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Período inválido.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @PostMapping("/api/analytics/rollups/backfill")
+    public ResponseEntity<ApiResponser<?>> backfill(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) 
+    {
+        try 
+        {
+            SalesBackfillReport call = salesRollupService.backfill(from, to);
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Rollups recalculados com sucesso."));
+        }
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.erikm.ecommerce.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.erikm.ecommerce.config.HttpCacheProperties;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
+
+/**
+ * Respostas públicas do catálogo: GET condicional (If-None-Match / If-Modified-Since), Cache-Control
+ * da política do endpoint (app.http-cache.policies) e surrogate keys para purga seletiva na CDN.
+ * O ETag é um hash dos ids, versões e updated_at que determinam a resposta; quando o cliente já tem
+ * essa versão, o handler devolve 304 sem serializar nada. Nas listagens o validador é calculado
+ * antes da consulta: se os dados mudarem no meio, a resposta sai com um ETag mais antigo e a
+ * próxima requisição recebe 200.
+ */
+@Component
+public class CacheableResponses 
+{
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_LIST = "product-list";
+    public static final String CATEGORY = "category";
+    public static final String CATEGORY_LIST = "category-list";
+
+    private final HttpCacheProperties properties;
+
+    public CacheableResponses(HttpCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    // true: a resposta 304 já foi preparada e o handler deve retornar null
+    public boolean checkNotModified(WebRequest request, String policy, Collection<String> surrogateKeys, LocalDateTime lastModified, Object... parts) 
+    {
+        StringJoiner key = new StringJoiner("|").add(policy);
+        for (Object part : parts) 
+        {
+            key.add(String.valueOf(part));
+        }
+        // ETag fraco: a mesma versão sai com ou sem gzip, e o Tomcat não comprime respostas com ETag forte
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        // Também no 304, que atualiza a política guardada pelo cliente; sem Cache-Control o Spring Security enviaria no-store
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) 
+        {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, properties.cacheControl(policy).getHeaderValue());
+            if (!surrogateKeys.isEmpty()) 
+            {
+                servletRequest.getResponse().setHeader(properties.getSurrogateKeyHeader(), String.join(" ", surrogateKeys));
+            }
+        }
+        if (lastModified == null) 
+        {
+            return request.checkNotModified(etag);
+        }
+        return request.checkNotModified(etag, lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public boolean checkNotModified(WebRequest request, String policy, Collection<String> surrogateKeys, List<ResourceVersion> versions) 
+    {
+        Object[] parts = new Object[versions.size() * 2];
+        LocalDateTime lastModified = null;
+        for (int i = 0; i < versions.size(); i++) 
+        {
+            ResourceVersion version = versions.get(i);
+            parts[i * 2] = version.count();
+            parts[i * 2 + 1] = version.lastModified();
+            lastModified = latest(lastModified, version.lastModified());
+        }
+        return checkNotModified(request, policy, surrogateKeys, lastModified, parts);
+    }
+
+    public <T> ApiResponser<T> body(T data, String message) 
+    {
+        return properties.isDeterministicEnvelope() ? ApiResponser.cacheable(data, message) : ApiResponser.success(data, message);
+    }
+
+    public static LocalDateTime latest(LocalDateTime first, LocalDateTime second) 
+    {
+        if (first == null) 
+        {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+}
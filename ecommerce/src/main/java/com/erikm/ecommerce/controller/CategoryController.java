@@ -1,5 +1,7 @@
 package com.erikm.ecommerce.controller;
 
+import java.util.List;
+
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,13 +9,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.PageLimits;
 import com.erikm.ecommerce.dto.CategoryDTO;
 import com.erikm.ecommerce.dto.Responses.ApiError;
 import com.erikm.ecommerce.dto.Responses.ApiResponser;
 import com.erikm.ecommerce.dto.Responses.PageResponse;
 import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.service.CatalogChangedEvent;
 import com.erikm.ecommerce.service.CategoryService;
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -22,15 +27,21 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
+@Observed(name = "app.controller")
 @Tag(name = "Categoria", description = "Endpoints para gerenciamento de categorias e suas informações.")
 public class CategoryController 
 {
+    private static final List<String> CATEGORY_LIST_KEYS = List.of(CatalogChangedEvent.CATEGORY_LIST, CatalogChangedEvent.ALL_CATEGORIES);
+
     private final CategoryService categoryService;
+    private final CacheableResponses cacheableResponses;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CacheableResponses cacheableResponses) {
         this.categoryService = categoryService;
+        this.cacheableResponses = cacheableResponses;
     }
 
     @Operation(
@@ -74,6 +85,7 @@ public class CategoryController
                 mediaType = "application/json",
                 schema = @Schema(implementation = PageResponse.class)
             )),
+            @ApiResponse(responseCode = "304", description = "Conteúdo não modificado desde a versão em cache do cliente (If-None-Match/If-Modified-Since)."),
             @ApiResponse(responseCode = "404", description = "As credenciais informadas não foram encontradas no sistema.", content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = PageResponse.class)
@@ -85,8 +97,14 @@ public class CategoryController
         }
     )
     @GetMapping("/api/categories")
-    public ResponseEntity<PageResponse<?>> getAllCategories(@ParameterObject Pageable pageable) 
+    @PageLimits(sortable = { "categoryId", "name", "createdAt" })
+    public ResponseEntity<PageResponse<?>> getAllCategories(@ParameterObject Pageable pageable, WebRequest request) 
     {
+        if (cacheableResponses.checkNotModified(request, CacheableResponses.CATEGORY_LIST, CATEGORY_LIST_KEYS, List.of(categoryService.findCategoriesVersion()))) 
+        {
+            return null;
+        }
+
         Page<Category> call = categoryService.findAllCategories(pageable);
         PageResponse<Category> pageResponse = PageResponse.fromSpringPage(call);
         return ResponseEntity.status(HttpStatus.OK).body(pageResponse);
@@ -100,6 +118,7 @@ public class CategoryController
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponser.class)
             )),
+            @ApiResponse(responseCode = "304", description = "Conteúdo não modificado desde a versão em cache do cliente (If-None-Match/If-Modified-Since)."),
             @ApiResponse(responseCode = "404", description = "As credenciais informadas não foram encontradas no sistema.", content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiError.class)
@@ -111,12 +130,17 @@ public class CategoryController
         }
     )
     @GetMapping("/api/categories/{id}")
-    public ResponseEntity<ApiResponser<?>> getCategory(@PathVariable("id") Long categoryId)
+    public ResponseEntity<ApiResponser<?>> getCategory(@PathVariable("id") Long categoryId, WebRequest request)
     {
         try 
         {
             Category call = categoryService.findCategoryById(categoryId);
-            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Categoria encontrada com sucesso."));
+            if (cacheableResponses.checkNotModified(request, CacheableResponses.CATEGORY,
+                    List.of(CatalogChangedEvent.categoryKey(categoryId), CatalogChangedEvent.ALL_CATEGORIES), call.getUpdatedAt(), call.getCategoryId(), call.getUpdatedAt())) 
+            {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(cacheableResponses.body(call, "Categoria encontrada com sucesso."));
         } 
         catch (ResponseStatusException e) {
             return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
@@ -14,15 +14,19 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.PageLimits;
 import com.erikm.ecommerce.dto.CustomerDTO;
 import com.erikm.ecommerce.dto.Responses.ApiError;
 import com.erikm.ecommerce.dto.Responses.ApiResponser;
 import com.erikm.ecommerce.dto.Responses.PageResponse;
 import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.CustomerOrderStats;
+import com.erikm.ecommerce.service.CustomerOrderStatsService;
 import com.erikm.ecommerce.service.CustomerService;
 
 import org.springframework.web.bind.annotation.RequestBody;
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -31,14 +35,17 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
+@Observed(name = "app.controller")
 @Tag(name = "Clientes", description = "Endpoints para gerenciamento de Clientes e suas informações.")
 public class CustomerController 
 {
 
     private final CustomerService customerService;
+    private final CustomerOrderStatsService customerOrderStatsService;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerOrderStatsService customerOrderStatsService) {
         this.customerService = customerService;
+        this.customerOrderStatsService = customerOrderStatsService;
     }
 
     @Operation(
@@ -94,6 +101,8 @@ public class CustomerController
     )
     @SecurityRequirement(name = "Auth JWT")
     @GetMapping("/api/customers")
+    // Cada cliente carrega os papéis (EAGER)
+    @PageLimits(sortable = { "customerId", "email", "createdAt" }, rowCost = 3)
     public ResponseEntity<PageResponse<Customer>> getAllCustomers(@ParameterObject Pageable pageable) 
     {
         Page<Customer> call = customerService.listAllCostumers(pageable);
@@ -133,6 +142,38 @@ public class CustomerController
         }
     }
 
+    @Operation(
+        summary = "Resumo de pedidos de um Cliente.",
+        description = "Retorna a quantidade de pedidos, cancelados, total gasto e data do último pedido do cliente, lidos de um resumo mantido a cada pedido (sem paginar os pedidos).\n Endpoint Público a todos os visitantes.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Resumo exibido com sucesso.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "404", description = "As credenciais informadas não foram encontradas no sistema.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @GetMapping("/api/customers/{id}/order-stats")
+    public ResponseEntity<ApiResponser<?>> getCustomerOrderStats(@PathVariable("id") Long customerId) 
+    {
+        try 
+        {
+            CustomerOrderStats call = customerOrderStatsService.findByCustomerId(customerId);
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Resumo de pedidos encontrado com sucesso."));
+        } 
+        catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+
     @Operation(
         summary = "Buscar um Cliente pelo e-mail.",
         description = "Dadas as credenciais requisitadas, faça a busca de um cliente registrado no sistema.\n Endpoint Público a todos os visitantes.",
@@ -0,0 +1,70 @@
+package com.erikm.ecommerce.controller;
+
+import java.sql.SQLTransientConnectionException;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.erikm.ecommerce.config.DataSourcePoolProperties;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Quando o pool de conexões não entrega uma conexão dentro do orçamento (fail-fast),
+ * responde 503 com Retry-After para que o cliente recue em vez de acumular threads.
+ * O esgotamento é reconhecido pela SQLTransientConnectionException do Hikari na cadeia de
+ * causas: ela chega como CannotCreateTransactionException quando a conexão é pedida no início
+ * da transação e como TransientDataAccessResourceException quando o LazyConnectionDataSourceProxy
+ * só a pede no primeiro comando. Banco fora do ar, queda de rede ou réplica com falha também
+ * respondem 503, mas não contam em db.pool.rejections.
+ */
+@RestControllerAdvice
+public class DatabaseUnavailableHandler 
+{
+    private final DataSourcePoolProperties poolProperties;
+    private final MeterRegistry meterRegistry;
+
+    public DatabaseUnavailableHandler(DataSourcePoolProperties poolProperties, MeterRegistry meterRegistry) {
+        this.poolProperties = poolProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class, TransientDataAccessResourceException.class})
+    public ResponseEntity<ApiResponser<?>> handleDatabaseUnavailable(Exception e) 
+    {
+        String detail;
+        if (isPoolExhausted(e)) 
+        {
+            meterRegistry.counter("db.pool.rejections").increment();
+            detail = "Banco de dados sobrecarregado, tente novamente em instantes.";
+        }
+        else 
+        {
+            detail = "Banco de dados indisponível, tente novamente em instantes.";
+        }
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, poolProperties.getRetryAfter().toSeconds())))
+            .body(ApiResponser.error(HttpStatus.SERVICE_UNAVAILABLE.toString(), "Serviço temporariamente indisponível.", detail));
+    }
+
+    // O Hikari lança SQLTransientConnectionException só quando o tempo de espera por uma conexão do pool acaba
+    static boolean isPoolExhausted(Throwable e) 
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) 
+        {
+            if (cause instanceof SQLTransientConnectionException) 
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
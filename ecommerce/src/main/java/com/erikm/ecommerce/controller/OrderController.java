@@ -1,44 +1,72 @@
 package com.erikm.ecommerce.controller;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.PageLimits;
 import com.erikm.ecommerce.dto.OrderDTO;
+import com.erikm.ecommerce.dto.OrderStatusTransitionDTO;
 import com.erikm.ecommerce.dto.Responses.ApiError;
 import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.dto.Responses.OrderStatusTransitionResult;
 import com.erikm.ecommerce.dto.Responses.PageResponse;
 import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.Enums.FileFormat;
 import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.service.OrderExportService;
 import com.erikm.ecommerce.service.OrderService;
+import com.erikm.ecommerce.service.OrderStatusTransitionService;
+import com.erikm.ecommerce.service.PageStreamingService;
 
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 
 @RestController
+@Observed(name = "app.controller")
 @Tag(name = "Pedido", description = "Endpoints para gerenciamento de Pedidos e suas informações.")
 public class OrderController 
 {
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderStatusTransitionService orderStatusTransitionService;
+    private final PageStreamingService pageStreamingService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService, OrderStatusTransitionService orderStatusTransitionService,
+                           PageStreamingService pageStreamingService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderStatusTransitionService = orderStatusTransitionService;
+        this.pageStreamingService = pageStreamingService;
     }
 
     @Operation(
@@ -96,8 +124,17 @@ public class OrderController
         }
     )
     @GetMapping("/api/orders")
-    public ResponseEntity<PageResponse<Order>> getAllOrders(@ParameterObject Pageable pageable) 
+    // Cada pedido carrega o cliente e os papéis dele
+    @PageLimits(sortable = { "orderId" }, rowCost = 2)
+    public ResponseEntity<?> getAllOrders(@ParameterObject Pageable pageable) 
     {
+        // Páginas grandes saem em streaming, sem montar a lista de pedidos em memória
+        if (pageStreamingService.shouldStream(pageable)) 
+        {
+            StreamingResponseBody body = output -> pageStreamingService.writeOrders(pageable, output);
+            return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+
         Page<Order> call = orderService.listAllOrders(pageable);
         PageResponse<Order> pageResponse = PageResponse.fromSpringPage(call);
         return ResponseEntity.status(HttpStatus.OK).body(pageResponse);
@@ -198,6 +235,7 @@ public class OrderController
         }
     )
     @GetMapping("/api/orders/customer/{customerId}")
+    @PageLimits(sortable = { "orderId" }, rowCost = 2)
     public ResponseEntity<PageResponse<Order>> getOrdersbyCustomerId(@PathVariable("customerId") Long customerId, @ParameterObject Pageable pageable)
     {
         Page<Order> call = orderService.findOrdersByCustomerId(customerId, pageable);
@@ -240,4 +278,99 @@ public class OrderController
             return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
         }
     }
+
+    @Operation(
+        summary = "Altera o status de vários pedidos.",
+        description = "Recebe uma lista de transições (orderId e novo status), validadas contra a máquina de estados do pedido (CREATED -> PENDING/CONFIRMED/CANCELLED, PENDING -> CANCELLED, CONFIRMED -> DELIVERED/CANCELLED; pedidos PENDING só são confirmados pela alocação de estoque) e aplicadas em uma única transação com UPDATEs em lote. Cada item tem seu próprio resultado (APPLIED, NOT_FOUND ou REJECTED). Endpoint para parceiros de logística.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Transições processadas; veja o resultado de cada item.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite de itens por requisição.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @PatchMapping("/api/orders/status")
+    public ResponseEntity<ApiResponser<?>> transitionStatuses(@RequestBody List<OrderStatusTransitionDTO> transitions) 
+    {
+        try 
+        {
+            List<OrderStatusTransitionResult> call = orderStatusTransitionService.transitionStatuses(transitions);
+            long applied = call.stream().filter(result -> OrderStatusTransitionResult.APPLIED.equals(result.status())).count();
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Transições de status processadas: " + applied + " aplicadas, " + (call.size() - applied) + " não aplicadas."));
+        } 
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+
+    @Operation(
+        summary = "Exporta pedidos de um período.",
+        description = "Gera um arquivo CSV ou NDJSON com os pedidos entre from e to (inclusive), escrito em streaming a partir de um cursor no banco. Com Accept-Encoding: gzip a resposta é comprimida. Endpoint disponível para administradores.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Arquivo de exportação gerado.", content = {
+                @Content(mediaType = "text/csv"),
+                @Content(mediaType = "application/x-ndjson")
+            }),
+            @ApiResponse(responseCode = "400", description = "Período ou formato inválido.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @GetMapping("/api/orders/export")
+    public ResponseEntity<?> exportOrders(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+    {
+        FileFormat fileFormat;
+        try 
+        {
+            orderExportService.validatePeriod(from, to);
+            fileFormat = FileFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } 
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+        catch (IllegalArgumentException e) 
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponser.error(HttpStatus.BAD_REQUEST.toString(), "Formato de exportação inválido.", "Formatos permitidos: csv, ndjson."));
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = output -> {
+            OutputStream target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+            orderExportService.exportOrders(from, to, fileFormat, target);
+            if (target instanceof GZIPOutputStream gzipOutput) 
+            {
+                gzipOutput.finish();
+            }
+        };
+
+        String extension = fileFormat == FileFormat.NDJSON ? "ndjson" : "csv";
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+            .contentType(fileFormat == FileFormat.NDJSON ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv;charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-" + from + "-" + to + "." + extension + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) 
+        {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 }
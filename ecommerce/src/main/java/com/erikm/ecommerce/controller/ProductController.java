@@ -1,11 +1,16 @@
 package com.erikm.ecommerce.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,17 +19,31 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.PageLimits;
 import com.erikm.ecommerce.dto.ProductDTO;
+import com.erikm.ecommerce.dto.StockAdjustmentDTO;
 import com.erikm.ecommerce.dto.Responses.ApiError;
 import com.erikm.ecommerce.dto.Responses.ApiResponser;
 import com.erikm.ecommerce.dto.Responses.PageResponse;
+import com.erikm.ecommerce.dto.Responses.ProductImportReport;
+import com.erikm.ecommerce.dto.Responses.StockAdjustmentResult;
+import com.erikm.ecommerce.model.Category;
 import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.service.CatalogChangedEvent;
+import com.erikm.ecommerce.service.PageStreamingService;
+import com.erikm.ecommerce.service.ProductImportService;
 import com.erikm.ecommerce.service.ProductService;
+import com.erikm.ecommerce.service.StockAdjustmentService;
 
 import org.springframework.web.bind.annotation.RequestBody;
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,13 +52,25 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
+@Observed(name = "app.controller")
 @Tag(name = "Produtos", description = "Endpoints para gerenciamento de Produtos e suas informações.")
 public class ProductController 
 {
+    private static final List<String> PRODUCT_LIST_KEYS = List.of(CatalogChangedEvent.PRODUCT_LIST, CatalogChangedEvent.ALL_PRODUCTS);
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final StockAdjustmentService stockAdjustmentService;
+    private final CacheableResponses cacheableResponses;
+    private final PageStreamingService pageStreamingService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService, StockAdjustmentService stockAdjustmentService,
+                             CacheableResponses cacheableResponses, PageStreamingService pageStreamingService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.stockAdjustmentService = stockAdjustmentService;
+        this.cacheableResponses = cacheableResponses;
+        this.pageStreamingService = pageStreamingService;
     }
 
     @Operation(
@@ -83,6 +114,7 @@ public class ProductController
                 mediaType = "application/json",
                 schema = @Schema(implementation = PageResponse.class)
             )),
+            @ApiResponse(responseCode = "304", description = "Conteúdo não modificado desde a versão em cache do cliente (If-None-Match/If-Modified-Since)."),
             @ApiResponse(responseCode = "400", description = "Os parâmetros de filtro são inválidos.", content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiError.class)
@@ -94,12 +126,24 @@ public class ProductController
         }
     )
     @GetMapping("/api/products")
-    public ResponseEntity<PageResponse<Product>> getProducts(
+    @PageLimits(sortable = { "productId", "name", "price", "createdAt" })
+    public ResponseEntity<?> getProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @ParameterObject Pageable pageable) {
+            @ParameterObject Pageable pageable,
+            WebRequest request) {
+
+        if (cacheableResponses.checkNotModified(request, CacheableResponses.PRODUCT_LIST, PRODUCT_LIST_KEYS, productService.findProductsVersion())) {
+            return null;
+        }
+
+        // Página grande sem filtros (ex.: size=500): escrita em streaming a partir de um cursor
+        if (name == null && categoryId == null && minPrice == null && maxPrice == null && pageStreamingService.shouldStream(pageable)) {
+            StreamingResponseBody body = output -> pageStreamingService.writeActiveProducts(pageable, output);
+            return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+        }
 
         Page<Product> products;
 
@@ -107,6 +151,8 @@ public class ProductController
             products = productService.findProductsByNameAndCategory(name, categoryId, pageable);
         } else if (name != null) {
             products = productService.findProductsByName(name, pageable);
+        } else if (categoryId != null && minPrice != null && maxPrice != null) {
+            products = productService.findProductsByCategoryAndPriceRange(categoryId, minPrice, maxPrice, pageable);
         } else if (categoryId != null) {
             products = productService.findProductsByCategory(categoryId, pageable);
         } else if (minPrice != null && maxPrice != null) {
@@ -130,6 +176,7 @@ public class ProductController
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponser.class)
             )),
+            @ApiResponse(responseCode = "304", description = "Conteúdo não modificado desde a versão em cache do cliente (If-None-Match/If-Modified-Since)."),
             @ApiResponse(responseCode = "404", description = "Produto não encontrado.", content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiError.class)
@@ -141,12 +188,21 @@ public class ProductController
         }
     )
     @GetMapping("/api/products/{id}")
-    public ResponseEntity<ApiResponser<?>> getProductById(@PathVariable("id") Long productId)
+    public ResponseEntity<ApiResponser<?>> getProductById(@PathVariable("id") Long productId, WebRequest request)
     {
         try 
         {
             Product call = productService.findProductById(productId);
-            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Produto encontrado com sucesso."));
+            Category category = call.getCategory();
+            LocalDateTime categoryUpdatedAt = category == null ? null : category.getUpdatedAt();
+            Long categoryId = category == null ? null : category.getCategoryId();
+            List<String> surrogateKeys = List.of(CatalogChangedEvent.productKey(productId), CatalogChangedEvent.categoryKey(categoryId), CatalogChangedEvent.ALL_PRODUCTS);
+            if (cacheableResponses.checkNotModified(request, CacheableResponses.PRODUCT, surrogateKeys, CacheableResponses.latest(call.getUpdatedAt(), categoryUpdatedAt),
+                    call.getProductId(), call.getVersion(), call.getUpdatedAt(), categoryId, categoryUpdatedAt)) 
+            {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(cacheableResponses.body(call, "Produto encontrado com sucesso."));
         } 
         catch (ResponseStatusException e) {
             return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
@@ -161,6 +217,7 @@ public class ProductController
                 mediaType = "application/json",
                 schema = @Schema(implementation = PageResponse.class)
             )),
+            @ApiResponse(responseCode = "304", description = "Conteúdo não modificado desde a versão em cache do cliente (If-None-Match/If-Modified-Since)."),
             @ApiResponse(responseCode = "404", description = "Categoria não encontrada ou sem produtos associados.", content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiError.class)
@@ -173,8 +230,14 @@ public class ProductController
     )
     @SecurityRequirement(name = "Auth JWT")
     @GetMapping("/api/products/category/{categoryId}")
-    public ResponseEntity<PageResponse<Product>> getProductByCategoryId(@PathVariable("categoryId") Long categoryId, @ParameterObject Pageable pageable)
+    @PageLimits(sortable = { "productId", "name", "price", "createdAt" })
+    public ResponseEntity<PageResponse<Product>> getProductByCategoryId(@PathVariable("categoryId") Long categoryId, @ParameterObject Pageable pageable, WebRequest request)
     {
+        if (cacheableResponses.checkNotModified(request, CacheableResponses.PRODUCT_LIST, PRODUCT_LIST_KEYS, productService.findProductsVersion())) 
+        {
+            return null;
+        }
+
         Page<Product> call = productService.findProductsByCategory(categoryId, pageable);
         PageResponse<Product> pageResponse = PageResponse.fromSpringPage(call);
         return ResponseEntity.status(HttpStatus.OK).body(pageResponse);
@@ -284,4 +347,75 @@ public class ProductController
             return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
         }
     }
-}
\ No newline at end of file
+
+    @Operation(
+        summary = "Ajusta o estoque de vários produtos.",
+        description = "Recebe uma lista de ajustes por productId ou sku, absolutos (ABSOLUTE) ou relativos (RELATIVE), aplicados em uma única transação com UPDATEs em lote. Cada item tem seu próprio resultado (APPLIED, NOT_FOUND ou REJECTED). Endpoint disponível para administradores.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Ajustes processados; veja o resultado de cada item.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite de itens por requisição.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @PatchMapping("/api/products/stock")
+    public ResponseEntity<ApiResponser<?>> adjustStock(@RequestBody List<StockAdjustmentDTO> adjustments) 
+    {
+        try 
+        {
+            List<StockAdjustmentResult> call = stockAdjustmentService.adjustStock(adjustments);
+            long applied = call.stream().filter(result -> StockAdjustmentResult.APPLIED.equals(result.status())).count();
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Ajustes de estoque processados: " + applied + " aplicados, " + (call.size() - applied) + " não aplicados."));
+        } 
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+    }
+
+    @Operation(
+        summary = "Importa produtos em massa.",
+        description = "Recebe um arquivo CSV (colunas sku, name, description, price, stockQuantity, category) ou NDJSON (um produto por linha) e faz upsert por SKU em lotes. SKUs de produtos desativados são atualizados sem reativá-los. Linhas inválidas não interrompem a importação e são listadas no relatório. Endpoint disponível para administradores.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; o relatório traz inseridos, atualizados e erros por linha.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ProductImportReport.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Formato de arquivo ou cabeçalho CSV inválido.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiError.class)
+            )),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponser.class)
+            ))
+        }
+    )
+    @SecurityRequirement(name = "Auth JWT")
+    @PostMapping(value = "/api/products/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponser<?>> importProducts(@RequestPart("file") MultipartFile file, @RequestParam(value = "format", required = false) String format) 
+    {
+        try (InputStream input = file.getInputStream())
+        {
+            ProductImportReport call = productImportService.importProducts(input, productImportService.resolveFormat(format, file.getOriginalFilename()));
+            return ResponseEntity.status(HttpStatus.OK).body(ApiResponser.success(call, "Importação concluída: " + call.inserted() + " inseridos, " + call.updated() + " atualizados, " + call.failed() + " com erro."));
+        } 
+        catch (ResponseStatusException e) 
+        {
+            return ResponseEntity.status(e.getStatusCode()).body(ApiResponser.error(e.getStatusCode().toString(), e.getTypeMessageCode(), e.getReason()));
+        }
+        catch (IOException e) 
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponser.error(HttpStatus.BAD_REQUEST.toString(), "Falha ao ler o arquivo de importação.", e.getMessage()));
+        }
+    }
+}
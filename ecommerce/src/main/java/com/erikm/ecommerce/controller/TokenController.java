@@ -1,6 +1,7 @@
 package com.erikm.ecommerce.controller;
 
 
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -21,6 +22,7 @@ import com.erikm.ecommerce.dto.Responses.LoginResponse;
 import com.erikm.ecommerce.service.TokenService;
 
 @RestController
+@Observed(name = "app.controller")
 public class TokenController {
 
     private final TokenService tokenService;
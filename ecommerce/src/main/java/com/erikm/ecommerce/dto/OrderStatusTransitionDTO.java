@@ -0,0 +1,7 @@
+package com.erikm.ecommerce.dto;
+
+// status é o novo status do pedido (sem diferenciar maiúsculas), validado contra a máquina de estados de OrderStatus
+public record OrderStatusTransitionDTO(Long orderId, String status) 
+{
+
+}
@@ -12,11 +12,15 @@ public class ApiResponser<T> {
     private LocalDateTime timestamp;
 
     public ApiResponser(boolean success, T data, String message, ApiError error) {
+        this(success, data, message, error, LocalDateTime.now());
+    }
+
+    private ApiResponser(boolean success, T data, String message, ApiError error, LocalDateTime timestamp) {
         this.success = success;
         this.data = data;
         this.message = message;
         this.error = error;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
     }
 
     // Getters para todos os campos
@@ -45,6 +49,11 @@ public class ApiResponser<T> {
         return new ApiResponser<>(true, data, message, null);
     }
 
+    // Sem timestamp: o mesmo dado gera sempre o mesmo corpo, o que permite cache em CDN
+    public static <T> ApiResponser<T> cacheable(T data, String message) {
+        return new ApiResponser<>(true, data, message, null, null);
+    }
+
     public static <T> ApiResponser<T> success(T data) {
         return new ApiResponser<>(true, data, "Operação realizada com sucesso", null);
     }
@@ -0,0 +1,13 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// index é a posição do item na requisição; fromStatus/toStatus descrevem a transição aplicada (ou tentada)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderStatusTransitionResult(int index, Long orderId, String status, OrderStatus fromStatus, OrderStatus toStatus, String message) {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String REJECTED = "REJECTED";
+}
@@ -0,0 +1,65 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Escreve o mesmo JSON de PageResponse com o conteúdo vindo de um Stream: cada elemento é
+ * serializado direto no OutputStream e liberado em seguida (afterWrite), então a página nunca fica
+ * inteira em memória, nem como entidades nem como bytes.
+ */
+public final class PageResponseWriter 
+{
+    // Flush em blocos: um flush por elemento quebraria a compressão gzip em pedaços pequenos
+    static final int FLUSH_EVERY = 100;
+
+    private PageResponseWriter() {
+    }
+
+    // Retorna quantos elementos foram escritos
+    public static <T> int write(ObjectMapper objectMapper, OutputStream output, Pageable pageable, long totalElements,
+                                Stream<T> content, Consumer<? super T> afterWrite) throws IOException 
+    {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) 
+        {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+            for (Iterator<T> iterator = content.iterator(); iterator.hasNext();) 
+            {
+                T element = iterator.next();
+                writer.writeValue(generator, element);
+                afterWrite.accept(element);
+                if (++written % FLUSH_EVERY == 0) 
+                {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+
+            // Mesmos cálculos de PageImpl, com o total contado antes do conteúdo
+            int size = pageable.getPageSize();
+            int totalPages = size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+            generator.writeNumberField("page", pageable.getPageNumber());
+            generator.writeNumberField("size", size);
+            generator.writeNumberField("totalElements", totalElements);
+            generator.writeNumberField("totalPages", totalPages);
+            generator.writeBooleanField("first", pageable.getPageNumber() == 0);
+            generator.writeBooleanField("last", pageable.getPageNumber() + 1 >= totalPages);
+            generator.writeEndObject();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,5 @@
+package com.erikm.ecommerce.dto.Responses;
+
+public record ProductImportError(long line, String sku, String message) {
+
+}
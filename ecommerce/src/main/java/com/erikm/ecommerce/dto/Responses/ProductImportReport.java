@@ -0,0 +1,9 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import java.util.List;
+
+// errorsTruncated indica que houve mais falhas do que as listadas em errors (ver failed)
+public record ProductImportReport(long totalRows, long inserted, long updated, long failed,
+                                  List<ProductImportError> errors, boolean errorsTruncated, long elapsedMs) {
+
+}
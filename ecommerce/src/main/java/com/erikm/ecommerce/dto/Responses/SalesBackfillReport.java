@@ -0,0 +1,8 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import java.time.LocalDate;
+
+// rows é o total de linhas de rollup gravadas no período
+public record SalesBackfillReport(LocalDate from, LocalDate to, int days, int rows, long elapsedMs) {
+
+}
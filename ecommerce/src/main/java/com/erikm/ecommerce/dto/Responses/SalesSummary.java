@@ -0,0 +1,12 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Uma linha da consulta de vendas: date no agrupamento por dia, id/name por categoria ou produto
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SalesSummary(LocalDate date, Long id, String name, long orders, long units, BigDecimal revenue) {
+
+}
@@ -0,0 +1,12 @@
+package com.erikm.ecommerce.dto.Responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// index é a posição do item na requisição; stockQuantity é o estoque resultante após este item
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockAdjustmentResult(int index, Long productId, String sku, String status, Integer stockQuantity, String message) {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String REJECTED = "REJECTED";
+}
@@ -0,0 +1,9 @@
+package com.erikm.ecommerce.dto;
+
+import com.erikm.ecommerce.model.Enums.StockAdjustmentType;
+
+// Identifica o produto por productId ou por sku; ABSOLUTE define o estoque, RELATIVE soma (ou subtrai) quantity
+public record StockAdjustmentDTO(Long productId, String sku, StockAdjustmentType type, Integer quantity) 
+{
+
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,7 +15,10 @@ import jakarta.validation.constraints.Size;
 
 
 @Entity
-@Table (name = "tb_categories")
+@Table (name = "tb_categories", indexes = {
+    @Index(name = "idx_categories_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_categories_active_name", columnList = "is_active, name")
+})
 public class Category extends Timestamps
 {
 
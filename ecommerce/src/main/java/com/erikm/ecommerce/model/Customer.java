@@ -14,6 +14,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -26,7 +27,7 @@ import jakarta.validation.constraints.Size;
 
 
 @Entity
-@Table (name = "tb_customers")
+@Table (name = "tb_customers", indexes = @Index(name = "idx_customers_created_at", columnList = "created_at"))
 public class Customer extends Timestamps
 {
 
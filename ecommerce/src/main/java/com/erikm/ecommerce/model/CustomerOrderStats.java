@@ -0,0 +1,79 @@
+package com.erikm.ecommerce.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Resumo de pedidos por cliente mantido incrementalmente pelo CustomerOrderStatsService (página da conta)
+@Entity
+@Table(name = "tb_customer_order_stats")
+public class CustomerOrderStats 
+{
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // Todos os pedidos feitos, inclusive os cancelados
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    // Soma de total_amount dos pedidos não cancelados
+    @Column(name = "total_spent", precision = 14, scale = 2, nullable = false)
+    private BigDecimal totalSpent;
+
+    @Column(name = "last_order_date")
+    private LocalDateTime lastOrderDate;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected CustomerOrderStats() 
+    {
+
+    }
+
+    public CustomerOrderStats(Long customerId, long orderCount, long cancelledCount, BigDecimal totalSpent, LocalDateTime lastOrderDate, LocalDateTime updatedAt) {
+        this.customerId = customerId;
+        this.orderCount = orderCount;
+        this.cancelledCount = cancelledCount;
+        this.totalSpent = totalSpent;
+        this.lastOrderDate = lastOrderDate;
+        this.updatedAt = updatedAt;
+    }
+
+    public static CustomerOrderStats empty(Long customerId) 
+    {
+        return new CustomerOrderStats(customerId, 0, 0, BigDecimal.ZERO, null, null);
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+
+    public LocalDateTime getLastOrderDate() {
+        return lastOrderDate;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,9 +1,59 @@
 package com.erikm.ecommerce.model.Enums;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED,
     PENDING,
     CONFIRMED,
     DELIVERED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    private static final OrderStatus[] VALUES = values();
+
+    // Texto usado nas mensagens de erro, calculado uma única vez
+    public static final String ALLOWED_VALUES = Arrays.toString(VALUES);
+
+    // Máquina de estados do pedido: DELIVERED e CANCELLED são finais. PENDING -> CONFIRMED não é manual:
+    // só o PendingOrderAllocator confirma, porque é ele quem reserva o estoque
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(CREATED, EnumSet.of(PENDING, CONFIRMED, CANCELLED));
+        TRANSITIONS.put(PENDING, EnumSet.of(CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(DELIVERED, CANCELLED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) 
+    {
+        return target != null && TRANSITIONS.get(this).contains(target);
+    }
+
+    public boolean isFinal() 
+    {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    // Equivalente a valueOf(value.toUpperCase()) sem alocar nem lançar exceção; null se não existir
+    public static OrderStatus parse(String value) 
+    {
+        if (value == null) 
+        {
+            return null;
+        }
+        for (OrderStatus status : VALUES) 
+        {
+            if (status.name().equalsIgnoreCase(value)) 
+            {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.erikm.ecommerce.model.Enums;
+
+// Agrupamentos mantidos em tb_sales_rollups; DAY é o total do dia (dimension_id = 0)
+public enum SalesDimension {
+    DAY,
+    CATEGORY,
+    PRODUCT
+}
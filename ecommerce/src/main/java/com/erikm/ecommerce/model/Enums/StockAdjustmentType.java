@@ -0,0 +1,6 @@
+package com.erikm.ecommerce.model.Enums;
+
+public enum StockAdjustmentType {
+    ABSOLUTE,
+    RELATIVE
+}
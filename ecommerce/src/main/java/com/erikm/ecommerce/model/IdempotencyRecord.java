@@ -0,0 +1,92 @@
+package com.erikm.ecommerce.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Mapeada para o ddl-auto criar a tabela; leitura e escrita são feitas via JDBC pelo IdempotencyStore
+@Entity
+@Table(name = "tb_idempotency_keys", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord 
+{
+    // SHA-256 (hex) de cliente + método + rota + Idempotency-Key
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    // SHA-256 (hex) do corpo da requisição original
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    // Nulo enquanto a requisição original está em processamento
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    // Cabeçalhos reenviados no replay (Location, ETag...), um "Nome: valor" por linha
+    @Column(name = "response_headers", columnDefinition = "TEXT")
+    private String responseHeaders;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    // Gravado na mesma transação que o pedido: com ele, a reserva nunca é tratada como abandonada
+    @Column(name = "committed_at")
+    private LocalDateTime committedAt;
+
+    // Id do recurso criado pela transação marcada em committed_at
+    @Column(name = "resource_id", length = 64)
+    private String resourceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public LocalDateTime getCommittedAt() {
+        return committedAt;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -15,9 +15,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -25,7 +27,13 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "tb_orders")
+// created_at atende exportação e rollups por período; updated_at, a varredura incremental dos rollups;
+// customer_id + order_id, a listagem paginada de pedidos do cliente
+@Table(name = "tb_orders", indexes = {
+    @Index(name = "idx_orders_created_at", columnList = "created_at"),
+    @Index(name = "idx_orders_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_orders_customer_order", columnList = "customer_id, order_id")
+})
 public class Order extends Timestamps 
 {
 
@@ -59,12 +67,21 @@ public class Order extends Timestamps
     @Column(name = "order_date", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Impede que duas transições de status concorrentes se sobrescrevam (ver @OptimisticRetry)
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     public Order() 
     {
         super();
         this.status = OrderStatus.CREATED;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Long getOrderId() {
         return orderId;
     }
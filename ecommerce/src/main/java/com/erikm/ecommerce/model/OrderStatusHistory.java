@@ -0,0 +1,69 @@
+package com.erikm.ecommerce.model;
+
+import java.time.LocalDateTime;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Log append-only das transições de status; gravado em batch JDBC pelo OrderStatusHistoryWriter
+@Entity
+@Table(name = "tb_order_status_history", indexes = @Index(name = "idx_order_status_history_order", columnList = "order_id, changed_at"))
+public class OrderStatusHistory 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "history_id")
+    private Long historyId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Nulo na criação do pedido
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", length = 20, nullable = false)
+    private OrderStatus toStatus;
+
+    // CHECKOUT, API, CANCEL, BULK ou ALLOCATION
+    @Column(name = "source", length = 20, nullable = false)
+    private String source;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public Long getHistoryId() {
+        return historyId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public OrderStatus getToStatus() {
+        return toStatus;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,77 @@
+package com.erikm.ecommerce.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Eventos de domínio gravados na mesma transação da mudança (OutboxWriter) e publicados depois pelo OutboxRelay
+@Entity
+@Table(name = "tb_outbox_events", indexes = @Index(name = "idx_outbox_events_pending", columnList = "published_at, event_id"))
+public class OutboxEvent 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    // Order ou Product
+    @Column(name = "aggregate_type", length = 30, nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", length = 64, nullable = false)
+    private String aggregateId;
+
+    // OrderCreated, OrderConfirmed, OrderCancelled ou StockChanged
+    @Column(name = "event_type", length = 50, nullable = false)
+    private String eventType;
+
+    // JSON
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Nulo enquanto o evento não foi entregue ao sink
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    protected OutboxEvent() 
+    {
+
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+}
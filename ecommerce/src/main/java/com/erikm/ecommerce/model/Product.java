@@ -9,9 +9,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -20,7 +22,13 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "tb_products") 
+// Os índices com is_active cobrem as ordenações permitidas na listagem (ver @PageLimits em ProductController)
+@Table(name = "tb_products", indexes = {
+    @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_products_active_name", columnList = "is_active, name"),
+    @Index(name = "idx_products_active_price", columnList = "is_active, price"),
+    @Index(name = "idx_products_active_created_at", columnList = "is_active, created_at")
+})
 public class Product extends Timestamps
 {
 
@@ -63,6 +71,11 @@ public class Product extends Timestamps
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Controle de concorrência otimista; o default permite adicionar a coluna em tabelas já populadas
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     public Product() 
     {
         super();
@@ -80,6 +93,10 @@ public class Product extends Timestamps
         this.isActive = isActive;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Long getProductId() {
         return productId;
     }
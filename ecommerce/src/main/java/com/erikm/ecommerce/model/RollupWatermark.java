@@ -0,0 +1,34 @@
+package com.erikm.ecommerce.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Até onde (updated_at dos pedidos) cada job incremental já processou; a linha também serve de lock entre instâncias
+@Entity
+@Table(name = "tb_rollup_watermarks")
+public class RollupWatermark 
+{
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "watermark", nullable = false)
+    private LocalDateTime watermark;
+
+    protected RollupWatermark() 
+    {
+
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+}
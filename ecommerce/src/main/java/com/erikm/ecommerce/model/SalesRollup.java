@@ -0,0 +1,89 @@
+package com.erikm.ecommerce.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.erikm.ecommerce.model.Enums.SalesDimension;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Vendas pré-agregadas por dia e dimensão; gravadas em SQL pelo SalesRollupService (um dia é sempre recalculado inteiro)
+@Entity
+@Table(name = "tb_sales_rollups", indexes = @Index(name = "ux_sales_rollups_dimension_day", columnList = "dimension, sales_date, dimension_id", unique = true))
+public class SalesRollup 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 20, nullable = false)
+    private SalesDimension dimension;
+
+    // category_id ou product_id; 0 para DAY
+    @Column(name = "dimension_id", nullable = false)
+    private long dimensionId;
+
+    // Pedidos distintos no dia (para CATEGORY, pedidos com ao menos um item da categoria)
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    protected SalesRollup() 
+    {
+
+    }
+
+    public Long getRollupId() {
+        return rollupId;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public SalesDimension getDimension() {
+        return dimension;
+    }
+
+    public long getDimensionId() {
+        return dimensionId;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+}
@@ -0,0 +1,64 @@
+package com.erikm.ecommerce.model.Utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Valor monetário em centavos (long) para cálculos internos: somas e multiplicações sem alocar um
+ * BigDecimal por operação e com estouro detectado (ArithmeticException). A conversão de e para
+ * BigDecimal, nas colunas numeric(10, 2) e no JSON, é exata: frações de centavo são rejeitadas, não arredondadas.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+    // Maior valor de uma coluna numeric(10, 2), como price, unit_price, subtotal e total_amount
+    public static final Money COLUMN_MAX = new Money(99_999_999_99L);
+
+    public static Money ofCents(long cents) 
+    {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) 
+    {
+        return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) 
+    {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money times(long quantity) 
+    {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean exceeds(Money limit) 
+    {
+        return cents > limit.cents;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() 
+    {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) 
+    {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() 
+    {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,8 @@
+package com.erikm.ecommerce.model.Utils;
+
+import java.math.BigDecimal;
+
+// Só o que o índice de preços em memória precisa de um produto, sem carregar a entidade; version null é produto removido
+public record ProductPriceEntry(Long productId, Long categoryId, BigDecimal price, Boolean active, Long version) {
+
+}
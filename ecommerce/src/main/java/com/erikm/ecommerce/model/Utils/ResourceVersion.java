@@ -0,0 +1,8 @@
+package com.erikm.ecommerce.model.Utils;
+
+import java.time.LocalDateTime;
+
+// Validador barato de uma tabela inteira: muda sempre que uma linha é criada, alterada (updated_at) ou removida
+public record ResourceVersion(long count, LocalDateTime lastModified) {
+
+}
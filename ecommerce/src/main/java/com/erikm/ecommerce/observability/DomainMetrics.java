@@ -0,0 +1,324 @@
+package com.erikm.ecommerce.observability;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de negócio (checkout, estoque, importação/exportação, autenticação, caches, idempotência,
+ * conflitos de versão, alocação de pedidos pendentes, outbox, rate limit e single-flight). Os buckets de SLO e os histogramas são
+ * configurados em application.properties (management.metrics.distribution.*).
+ */
+@Component
+public class DomainMetrics 
+{
+    public static final String OUTCOME_SUCCESS = "SUCCESS";
+    public static final String OUTCOME_REJECTED = "REJECTED";
+    public static final String OUTCOME_NOT_FOUND = "NOT_FOUND";
+    public static final String OUTCOME_ROLLED_BACK = "ROLLED_BACK";
+
+    private final MeterRegistry meterRegistry;
+
+    public DomainMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordCheckout(long startNanos, String outcome, int cartSize) 
+    {
+        String cartBucket = cartSizeBucket(cartSize);
+        afterCompletion(outcome, finalOutcome -> {
+            timer("orders.checkout", "Duração do checkout (createNewOrder)", finalOutcome)
+                .tag("cart.size", cartBucket)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            Counter.builder("orders.created")
+                .tag("outcome", finalOutcome)
+                .tag("cart.size", cartBucket)
+                .register(meterRegistry)
+                .increment();
+        });
+    }
+
+    public void recordInsufficientStock(int items) 
+    {
+        Counter.builder("orders.items.insufficient_stock")
+            .description("Itens de pedido sem estoque suficiente no momento do checkout")
+            .register(meterRegistry)
+            .increment(items);
+    }
+
+    public void recordOrderCancellation(long startNanos, String outcome) 
+    {
+        afterCompletion(outcome, finalOutcome -> timer("orders.cancel", "Duração do cancelamento de pedidos (deleteOrder)", finalOutcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+    }
+
+    public void recordStockEdit(long startNanos, String outcome) 
+    {
+        afterCompletion(outcome, finalOutcome -> timer("products.stock.edit", "Duração das alterações de estoque", finalOutcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+    }
+
+    public void recordStockBatch(long startNanos, int applied, int rejected) 
+    {
+        afterCompletion(OUTCOME_SUCCESS, finalOutcome -> {
+            timer("products.stock.batch", "Duração dos ajustes de estoque em lote", finalOutcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            Counter.builder("products.stock.batch.items")
+                .description("Itens dos ajustes de estoque em lote")
+                .tag("result", OUTCOME_SUCCESS.equals(finalOutcome) ? "applied" : "rolled_back")
+                .register(meterRegistry)
+                .increment(applied);
+            Counter.builder("products.stock.batch.items")
+                .description("Itens dos ajustes de estoque em lote")
+                .tag("result", "rejected")
+                .register(meterRegistry)
+                .increment(rejected);
+        });
+    }
+
+    public void recordOrderStatusBatch(long startNanos, int applied, int rejected) 
+    {
+        afterCompletion(OUTCOME_SUCCESS, finalOutcome -> {
+            timer("orders.status.batch", "Duração das transições de status em lote", finalOutcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            Counter.builder("orders.status.batch.items")
+                .description("Itens das transições de status em lote")
+                .tag("result", OUTCOME_SUCCESS.equals(finalOutcome) ? "applied" : "rolled_back")
+                .register(meterRegistry)
+                .increment(applied);
+            Counter.builder("orders.status.batch.items")
+                .description("Itens das transições de status em lote")
+                .tag("result", "rejected")
+                .register(meterRegistry)
+                .increment(rejected);
+        });
+    }
+
+    public void recordProductImport(long startNanos, long inserted, long updated, long failed) 
+    {
+        Timer.builder("products.import")
+            .description("Duração das importações em massa de produtos")
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        importRows("inserted").increment(inserted);
+        importRows("updated").increment(updated);
+        importRows("failed").increment(failed);
+    }
+
+    public void recordOrderExport(long startNanos, String format, String outcome, long rows) 
+    {
+        Timer.builder("orders.export")
+            .description("Duração das exportações de pedidos")
+            .tag("format", format)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("orders.export.rows")
+            .description("Pedidos escritos pelas exportações")
+            .tag("format", format)
+            .register(meterRegistry)
+            .increment(rows);
+    }
+
+    public void recordAuthentication(long startNanos, String operation, String outcome) 
+    {
+        timer("auth.tokens", "Emissão de tokens (login e refresh)", outcome)
+            .tag("operation", operation)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCacheAccess(String cache, boolean hit) 
+    {
+        Counter.builder("cache.requests")
+            .description("Acessos a caches da aplicação; taxa de acerto = hit / (hit + miss)")
+            .tag("cache", cache)
+            .tag("result", hit ? "hit" : "miss")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    public void recordIdempotency(String result) 
+    {
+        Counter.builder("idempotency.requests")
+            .description("Requisições com Idempotency-Key por desfecho (executed, replayed, coalesced, committed, conflict, mismatch)")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    public void recordOptimisticConflict(String operation) 
+    {
+        Counter.builder("optimistic.lock.conflicts")
+            .description("Tentativas abortadas por conflito de versão (@Version)")
+            .tag("operation", operation)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    // Taxa de conflito = optimistic.lock.conflicts / optimistic.lock.attempts_sum
+    public void recordOptimisticAttempts(String operation, int attempts, String outcome) 
+    {
+        DistributionSummary.builder("optimistic.lock.attempts")
+            .description("Tentativas por chamada de métodos com @OptimisticRetry")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(attempts);
+    }
+
+    public void recordPendingOrderAllocated(Duration waited) 
+    {
+        afterCompletion(OUTCOME_SUCCESS, finalOutcome -> timer("orders.allocation.wait", "Tempo que um pedido PENDING esperou até ser confirmado pela reposição de estoque", finalOutcome)
+            .register(meterRegistry)
+            .record(waited.isNegative() ? Duration.ZERO : waited));
+    }
+
+    public void registerAllocationBacklog(AtomicLong pendingOrders, Collection<String> dirtySkus) 
+    {
+        Gauge.builder("orders.allocation.backlog", pendingOrders, AtomicLong::get)
+            .description("Pedidos PENDING aguardando estoque (atualizado pela varredura)")
+            .register(meterRegistry);
+        Gauge.builder("orders.allocation.dirty_skus", dirtySkus, Collection::size)
+            .description("SKUs com reposição de estoque ainda não processada")
+            .register(meterRegistry);
+    }
+
+    public void recordOutboxPublished(Duration latency) 
+    {
+        Timer.builder("outbox.publish.latency")
+            .description("Tempo entre a gravação de um evento no outbox e a confirmação do sink")
+            .register(meterRegistry)
+            .record(latency.isNegative() ? Duration.ZERO : latency);
+    }
+
+    public void recordOutboxFailure() 
+    {
+        Counter.builder("outbox.publish.failures")
+            .description("Lotes do outbox não publicados por falha do sink ou do banco (reenviados no ciclo seguinte)")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    public void registerOutboxBacklog(AtomicLong pendingEvents, Supplier<Duration> lag) 
+    {
+        Gauge.builder("outbox.pending", pendingEvents, AtomicLong::get)
+            .description("Eventos do outbox ainda não publicados (atualizado a cada ciclo do relay)")
+            .register(meterRegistry);
+        Gauge.builder("outbox.lag", lag, supplier -> supplier.get().toMillis() / 1000.0)
+            .description("Idade do evento mais antigo ainda não publicado")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    // Criados uma vez por rota pelo RateLimitFilter; por requisição só há o increment
+    public Counter rateLimitRequests(String route, boolean allowed) 
+    {
+        return Counter.builder("http.rate_limit.requests")
+            .description("Requisições avaliadas pelo rate limit por rota e desfecho (allowed, rejected)")
+            .tag("route", route)
+            .tag("result", allowed ? "allowed" : "rejected")
+            .register(meterRegistry);
+    }
+
+    public void registerRateLimitKeys(Supplier<Integer> trackedKeys) 
+    {
+        Gauge.builder("http.rate_limit.keys", trackedKeys, supplier -> supplier.get())
+            .description("Clientes (chave rota + cliente) acompanhados pelo store de rate limit")
+            .register(meterRegistry);
+    }
+
+    // Uma chamada por voo (chave): consultas executadas, consultas evitadas e o tamanho de cada estouro
+    public void recordSingleFlight(String name, int followers) 
+    {
+        Counter.builder("singleflight.queries")
+            .description("Consultas executadas pelo single-flight")
+            .tag("name", name)
+            .register(meterRegistry)
+            .increment();
+        Counter.builder("singleflight.coalesced")
+            .description("Chamadas atendidas pela consulta de outra chamada com a mesma chave (consultas economizadas)")
+            .tag("name", name)
+            .register(meterRegistry)
+            .increment(followers);
+        DistributionSummary.builder("singleflight.followers")
+            .description("Chamadas que aguardaram cada consulta por chave; o máximo mostra o pior estouro")
+            .tag("name", name)
+            .register(meterRegistry)
+            .record(followers);
+    }
+
+    private Counter importRows(String result) 
+    {
+        return Counter.builder("products.import.rows")
+            .description("Linhas processadas pela importação em massa de produtos")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    static String cartSizeBucket(int cartSize) 
+    {
+        if (cartSize <= 1) 
+        {
+            return "1";
+        }
+        if (cartSize <= 5) 
+        {
+            return "2-5";
+        }
+        if (cartSize <= 20) 
+        {
+            return "6-20";
+        }
+        return "21+";
+    }
+
+    private Timer.Builder timer(String name, String description, String outcome) 
+    {
+        return Timer.builder(name)
+            .description(description)
+            .tag("outcome", outcome);
+    }
+
+    // Dentro de uma transação, a medição inclui o commit. Um rollback só rebaixa resultados de sucesso:
+    // REJECTED e NOT_FOUND vêm de ResponseStatusException, que sempre desfaz a transação.
+    private void afterCompletion(String outcome, Consumer<String> recorder) 
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) 
+        {
+            recorder.accept(outcome);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) 
+            {
+                recorder.accept(status == STATUS_COMMITTED || isFailure(outcome) ? outcome : OUTCOME_ROLLED_BACK);
+            }
+        });
+    }
+
+    private static boolean isFailure(String outcome) 
+    {
+        return OUTCOME_REJECTED.equals(outcome) || OUTCOME_NOT_FOUND.equals(outcome);
+    }
+}
@@ -0,0 +1,49 @@
+package com.erikm.ecommerce.observability;
+
+/**
+ * Acumulador das consultas SQL executadas durante uma única requisição HTTP.
+ * Não é thread-safe: cada instância vive apenas na thread da requisição.
+ */
+public class QueryStats 
+{
+    private int statementCount;
+    private long totalNanos;
+    private long slowestNanos;
+    private String slowestStatement;
+    private long pendingStart;
+
+    void beforeQuery(long nowNanos) 
+    {
+        this.pendingStart = nowNanos;
+    }
+
+    void afterQuery(long nowNanos, int statements, String sql) 
+    {
+        long elapsed = pendingStart > 0 ? nowNanos - pendingStart : 0;
+        pendingStart = 0;
+
+        statementCount += statements;
+        totalNanos += elapsed;
+        if (elapsed > slowestNanos || slowestStatement == null) 
+        {
+            slowestNanos = elapsed;
+            slowestStatement = sql;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getSlowestNanos() {
+        return slowestNanos;
+    }
+
+    public String getSlowestStatement() {
+        return slowestStatement;
+    }
+}
@@ -0,0 +1,50 @@
+package com.erikm.ecommerce.observability;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+@EnableConfigurationProperties(QueryStatsProperties.class)
+@ConditionalOnProperty(prefix = "app.query-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsConfig 
+{
+    // Apenas o DataSource principal ("dataSource") é envolvido, para não contar duas vezes
+    // quando houver pools internos (ex.: roteamento primário/réplica).
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor() 
+    {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) 
+            {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName) && !(bean instanceof ProxyDataSource)) 
+                {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                        .name("ecommerce")
+                        .listener(new QueryStatsListener())
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(MeterRegistry meterRegistry, QueryStatsProperties properties) 
+    {
+        FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(new QueryStatsFilter(meterRegistry, properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,83 @@
+package com.erikm.ecommerce.observability;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class QueryStatsFilter extends OncePerRequestFilter 
+{
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final QueryStatsProperties properties;
+
+    public QueryStatsFilter(MeterRegistry meterRegistry, QueryStatsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException 
+    {
+        QueryStats stats = QueryStatsHolder.start();
+        try 
+        {
+            filterChain.doFilter(request, response);
+        } 
+        finally 
+        {
+            QueryStatsHolder.clear();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) 
+    {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("db.request.statements")
+            .description("Statements SQL executados por requisição")
+            .tag("uri", route)
+            .tag("method", method)
+            .register(meterRegistry)
+            .record(stats.getStatementCount());
+
+        Timer.builder("db.request.time")
+            .description("Tempo total gasto no banco por requisição")
+            .tag("uri", route)
+            .tag("method", method)
+            .register(meterRegistry)
+            .record(stats.getTotalNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = properties.budgetFor(route);
+        if (budget > 0 && stats.getStatementCount() > budget) 
+        {
+            Counter.builder("db.request.budget.exceeded")
+                .tag("uri", route)
+                .tag("method", method)
+                .register(meterRegistry)
+                .increment();
+
+            log.warn("{} {} executou {} statements (orçamento: {}), {} ms no banco. Mais lento ({} ms): {}",
+                method, route, stats.getStatementCount(), budget,
+                TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos()),
+                TimeUnit.NANOSECONDS.toMillis(stats.getSlowestNanos()), stats.getSlowestStatement());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.erikm.ecommerce.observability;
+
+public final class QueryStatsHolder 
+{
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private QueryStatsHolder() 
+    {
+
+    }
+
+    public static QueryStats start() 
+    {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats current() 
+    {
+        return CURRENT.get();
+    }
+
+    public static void clear() 
+    {
+        CURRENT.remove();
+    }
+}
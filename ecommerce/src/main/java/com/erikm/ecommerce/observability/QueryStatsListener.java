@@ -0,0 +1,35 @@
+package com.erikm.ecommerce.observability;
+
+import java.util.List;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+public class QueryStatsListener implements QueryExecutionListener 
+{
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) 
+    {
+        QueryStats stats = QueryStatsHolder.current();
+        if (stats != null) 
+        {
+            stats.beforeQuery(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) 
+    {
+        QueryStats stats = QueryStatsHolder.current();
+        if (stats == null) 
+        {
+            return;
+        }
+
+        // Em batch, cada conjunto de parâmetros é um statement enviado ao banco
+        int statements = execInfo.isBatch() ? Math.max(execInfo.getBatchSize(), 1) : Math.max(queryInfoList.size(), 1);
+        String sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+        stats.afterQuery(System.nanoTime(), statements, sql);
+    }
+}
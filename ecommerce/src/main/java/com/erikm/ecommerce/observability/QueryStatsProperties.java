@@ -0,0 +1,57 @@
+package com.erikm.ecommerce.observability;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.query-stats")
+public class QueryStatsProperties 
+{
+    private boolean enabled = true;
+
+    // Cabeçalhos X-Query-* nas respostas; mantenha desligado em produção
+    private boolean responseHeaders = false;
+
+    // Número máximo de statements por rota (padrão do @RequestMapping); 0 = sem limite
+    private int defaultBudget = 0;
+
+    private Map<String, Integer> budgets = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public void setResponseHeaders(boolean responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    public int getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(int defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public Map<String, Integer> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(Map<String, Integer> budgets) {
+        this.budgets = budgets;
+    }
+
+    public int budgetFor(String route) 
+    {
+        return budgets.getOrDefault(route, defaultBudget);
+    }
+}
@@ -0,0 +1,44 @@
+package com.erikm.ecommerce.observability;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Expõe as estatísticas de SQL como cabeçalhos. Roda antes da serialização do corpo,
+ * quando a resposta ainda não foi enviada ao cliente.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "app.query-stats", name = "response-headers", havingValue = "true")
+public class QueryStatsResponseAdvice implements ResponseBodyAdvice<Object> 
+{
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) 
+    {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) 
+    {
+        QueryStats stats = QueryStatsHolder.current();
+        if (stats != null) 
+        {
+            response.getHeaders().set(QUERY_COUNT_HEADER, Integer.toString(stats.getStatementCount()));
+            response.getHeaders().set(QUERY_TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos())));
+        }
+        return body;
+    }
+}
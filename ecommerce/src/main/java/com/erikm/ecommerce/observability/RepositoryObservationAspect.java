@@ -0,0 +1,56 @@
+package com.erikm.ecommerce.observability;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Cria um span (observation "app.repository") para cada chamada de repositório Spring Data,
+ * incluindo os métodos herdados de JpaRepository como save e findById.
+ */
+@Aspect
+public class RepositoryObservationAspect 
+{
+    public static final String OBSERVATION_NAME = "app.repository";
+
+    private static final String BASE_PACKAGE = "com.erikm.ecommerce.repository";
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public RepositoryObservationAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable 
+    {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), type -> resolveName(joinPoint.getThis()));
+        String method = joinPoint.getSignature().getName();
+
+        return Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+            .contextualName(repository + "#" + method)
+            .lowCardinalityKeyValue("repository", repository)
+            .lowCardinalityKeyValue("method", method)
+            .observeChecked(() -> joinPoint.proceed());
+    }
+
+    private static String resolveName(Object proxy) 
+    {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) 
+        {
+            if (type.getPackageName().startsWith(BASE_PACKAGE)) 
+            {
+                return type.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+}
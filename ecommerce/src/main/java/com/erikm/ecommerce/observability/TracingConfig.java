@@ -0,0 +1,26 @@
+package com.erikm.ecommerce.observability;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+
+@Configuration
+public class TracingConfig 
+{
+    @Bean
+    public RepositoryObservationAspect repositoryObservationAspect(ObservationRegistry observationRegistry) 
+    {
+        return new RepositoryObservationAspect(observationRegistry);
+    }
+
+    // Exportador para log, útil localmente quando não há um coletor OTLP rodando
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing.log-exporter", name = "enabled", havingValue = "true")
+    public LoggingSpanExporter loggingSpanExporter() 
+    {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,55 @@
+package com.erikm.ecommerce.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Para desenvolvimento local: um evento JSON por linha (NDJSON), com fsync ao fim de cada lote
+public class FileOutboxSink implements OutboxSink 
+{
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException 
+    {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (OutboxMessage message : messages) 
+        {
+            lines.write(objectMapper.writeValueAsBytes(message));
+            lines.write('\n');
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) 
+        {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) 
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) 
+            {
+                channel.write(buffer);
+            }
+            // Só confirma o lote depois que ele está em disco
+            channel.force(false);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
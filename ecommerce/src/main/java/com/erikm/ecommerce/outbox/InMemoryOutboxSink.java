@@ -0,0 +1,40 @@
+package com.erikm.ecommerce.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Para desenvolvimento local e testes: guarda os últimos eventos publicados, descartando os mais antigos
+public class InMemoryOutboxSink implements OutboxSink 
+{
+    private final Deque<OutboxMessage> messages = new ArrayDeque<>();
+    private final int capacity;
+
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) 
+    {
+        for (OutboxMessage message : batch) 
+        {
+            if (messages.size() == capacity) 
+            {
+                messages.removeFirst();
+            }
+            messages.addLast(message);
+        }
+    }
+
+    public synchronized List<OutboxMessage> messages() 
+    {
+        return new ArrayList<>(messages);
+    }
+
+    public synchronized void clear() 
+    {
+        messages.clear();
+    }
+}
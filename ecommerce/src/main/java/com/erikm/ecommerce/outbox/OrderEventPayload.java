@@ -0,0 +1,8 @@
+package com.erikm.ecommerce.outbox;
+
+import java.math.BigDecimal;
+
+// Payload de OrderCreated, OrderConfirmed e OrderCancelled
+public record OrderEventPayload(Long orderId, Long customerId, String status, BigDecimal totalAmount) {
+
+}
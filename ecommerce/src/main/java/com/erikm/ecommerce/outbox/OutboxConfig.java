@@ -0,0 +1,28 @@
+package com.erikm.ecommerce.outbox;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig 
+{
+    // Uma integração real (broker, fila) entra declarando o próprio bean OutboxSink
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper) 
+    {
+        return switch (properties.getSink()) 
+        {
+            case "memory" -> new InMemoryOutboxSink(properties.getMemoryCapacity());
+            case "file" -> new FileOutboxSink(Path.of(properties.getFilePath()), objectMapper);
+            default -> throw new IllegalStateException("app.outbox.sink inválido: " + properties.getSink() + ". Valores permitidos: memory, file.");
+        };
+    }
+}
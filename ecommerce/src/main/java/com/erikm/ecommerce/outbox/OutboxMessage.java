@@ -0,0 +1,11 @@
+package com.erikm.ecommerce.outbox;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+// O que os sinks recebem; eventId é crescente e define a ordem de entrega
+public record OutboxMessage(long eventId, String aggregateType, String aggregateId, String eventType,
+                            LocalDateTime createdAt, @JsonRawValue String payload) {
+
+}
@@ -0,0 +1,73 @@
+package com.erikm.ecommerce.outbox;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties 
+{
+    // memory ou file; ignorado se a aplicação declarar o próprio bean OutboxSink
+    private String sink = "memory";
+
+    private String filePath = "data/outbox-events.ndjson";
+
+    private int memoryCapacity = 10_000;
+
+    // Eventos por lote enviado ao sink (uma transação por lote)
+    private int batchSize = 500;
+
+    // Lotes por ciclo do relay, para drenar um backlog sem segurar a thread do scheduler indefinidamente
+    private int maxBatchesPerRun = 20;
+
+    // Por quanto tempo eventos já publicados ficam na tabela
+    private Duration retention = Duration.ofDays(7);
+
+    public String getSink() {
+        return sink;
+    }
+
+    public void setSink(String sink) {
+        this.sink = sink;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public int getMemoryCapacity() {
+        return memoryCapacity;
+    }
+
+    public void setMemoryCapacity(int memoryCapacity) {
+        this.memoryCapacity = memoryCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,159 @@
+package com.erikm.ecommerce.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+/**
+ * Publica os eventos de tb_outbox_events no OutboxSink, em lotes por ordem de event_id. Cada lote
+ * roda numa transação: os eventos mais antigos ainda não publicados são bloqueados com
+ * SELECT ... FOR UPDATE, entregues ao sink e marcados como publicados. Se o sink falhar, a transação
+ * é desfeita e o mesmo lote volta no próximo ciclo (at-least-once); como nenhum evento posterior
+ * sai antes dele, a ordem por agregado é preservada. Sem SKIP LOCKED de propósito: uma segunda
+ * instância espera o lote da primeira em vez de publicar eventos mais novos na frente.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay 
+{
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final DomainMetrics domainMetrics;
+    private final OutboxProperties properties;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    public OutboxRelay(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, OutboxSink sink,
+                       DomainMetrics domainMetrics, OutboxProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("OutboxRelay.publish");
+        this.sink = sink;
+        this.domainMetrics = domainMetrics;
+        this.properties = properties;
+        domainMetrics.registerOutboxBacklog(pendingEvents, this::lag);
+    }
+
+    // Retorna quantos eventos foram publicados neste ciclo
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval:1s}", initialDelayString = "${app.outbox.relay.interval:1s}")
+    public int relay() 
+    {
+        int published = 0;
+        try 
+        {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) 
+            {
+                int sent = publishBatch();
+                published += sent;
+                if (sent < properties.getBatchSize()) 
+                {
+                    break;
+                }
+            }
+        }
+        catch (RuntimeException e) 
+        {
+            domainMetrics.recordOutboxFailure();
+            log.warn("Falha ao publicar eventos do outbox; o lote será reenviado no próximo ciclo", e);
+        }
+        finally 
+        {
+            refreshBacklog();
+        }
+        return published;
+    }
+
+    private int publishBatch() 
+    {
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> {
+            List<OutboxMessage> messages = jdbcTemplate.query(
+                "select event_id, aggregate_type, aggregate_id, event_type, created_at, payload from tb_outbox_events "
+                    + "where published_at is null order by event_id limit :limit for update",
+                new MapSqlParameterSource("limit", properties.getBatchSize()),
+                (rs, rowNum) -> new OutboxMessage(rs.getLong("event_id"), rs.getString("aggregate_type"), rs.getString("aggregate_id"),
+                    rs.getString("event_type"), rs.getTimestamp("created_at").toLocalDateTime(), rs.getString("payload")));
+            if (messages.isEmpty()) 
+            {
+                return messages;
+            }
+
+            try 
+            {
+                sink.publish(messages);
+            }
+            catch (IOException e) 
+            {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Long> ids = new ArrayList<>(messages.size());
+            messages.forEach(message -> ids.add(message.eventId()));
+            jdbcTemplate.update("update tb_outbox_events set published_at = :now where event_id in (:ids)",
+                new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())).addValue("ids", ids));
+            return messages;
+        });
+
+        // Latência ponta a ponta: do commit da mudança (aprox. created_at) até o sink confirmar
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(message -> domainMetrics.recordOutboxPublished(Duration.between(message.createdAt(), now)));
+        return batch.size();
+    }
+
+    // Eventos publicados saem da tabela depois do período de retenção
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:1h}", initialDelayString = "${app.outbox.purge-interval:1h}")
+    public int purge() 
+    {
+        int deleted = jdbcTemplate.update("delete from tb_outbox_events where published_at < :cutoff",
+            new MapSqlParameterSource("cutoff", Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()))));
+        if (deleted > 0) 
+        {
+            log.info("Outbox: {} eventos publicados removidos", deleted);
+        }
+        return deleted;
+    }
+
+    private void refreshBacklog() 
+    {
+        try 
+        {
+            jdbcTemplate.query("select count(*) as pending, min(created_at) as oldest from tb_outbox_events where published_at is null",
+                rs -> {
+                    Timestamp oldest = rs.getTimestamp("oldest");
+                    pendingEvents.set(rs.getLong("pending"));
+                    oldestPending.set(oldest == null ? null : oldest.toLocalDateTime());
+                });
+        }
+        catch (RuntimeException e) 
+        {
+            log.debug("Não foi possível atualizar o backlog do outbox", e);
+        }
+    }
+
+    // Idade do evento mais antigo não publicado; continua crescendo se o relay parar
+    private Duration lag() 
+    {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,14 @@
+package com.erikm.ecommerce.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox (fila, broker, arquivo). O lote chega em ordem de eventId e só é
+ * marcado como publicado se publish retornar sem exceção; em caso de falha o mesmo lote é reenviado
+ * no próximo ciclo, então a entrega é at-least-once e o consumidor deve deduplicar por eventId.
+ */
+public interface OutboxSink 
+{
+    void publish(List<OutboxMessage> messages) throws IOException;
+}
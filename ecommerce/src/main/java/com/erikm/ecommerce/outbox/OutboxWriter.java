@@ -0,0 +1,126 @@
+package com.erikm.ecommerce.outbox;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Acumula os eventos de domínio da transação e grava todos em tb_outbox_events num único batch de
+ * INSERT antes do commit: o evento existe se e somente se a mudança foi commitada. A publicação
+ * fica com o OutboxRelay, fora do caminho da requisição.
+ */
+@Component
+public class OutboxWriter 
+{
+    public static final String AGGREGATE_ORDER = "Order";
+    public static final String AGGREGATE_PRODUCT = "Product";
+
+    public static final String ORDER_CREATED = "OrderCreated";
+    public static final String ORDER_CONFIRMED = "OrderConfirmed";
+    public static final String ORDER_CANCELLED = "OrderCancelled";
+    public static final String STOCK_CHANGED = "StockChanged";
+
+    private static final String INSERT_SQL = "insert into tb_outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // OrderCreated na criação; OrderConfirmed/OrderCancelled quando o pedido chega a esses status
+    public void recordOrder(String eventType, Long orderId, Long customerId, OrderStatus status, BigDecimal totalAmount) 
+    {
+        if (eventType == null) 
+        {
+            return;
+        }
+        append(AGGREGATE_ORDER, orderId, eventType, new OrderEventPayload(orderId, customerId, status.name(), totalAmount));
+    }
+
+    // Evento emitido quando um pedido passa para o status; nulo se o status não gera evento
+    public static String orderEventFor(OrderStatus status) 
+    {
+        return switch (status) 
+        {
+            case CONFIRMED -> ORDER_CONFIRMED;
+            case CANCELLED -> ORDER_CANCELLED;
+            default -> null;
+        };
+    }
+
+    public void recordStockChanged(long productId, String sku, int previousStock, int stockQuantity) 
+    {
+        if (previousStock != stockQuantity) 
+        {
+            append(AGGREGATE_PRODUCT, productId, STOCK_CHANGED, new StockChangedPayload(productId, sku, previousStock, stockQuantity));
+        }
+    }
+
+    public void append(String aggregateType, Object aggregateId, String eventType, Object payload) 
+    {
+        Object[] row = { aggregateType, String.valueOf(aggregateId), eventType, serialize(eventType, payload), Timestamp.valueOf(LocalDateTime.now()) };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) 
+        {
+            jdbcTemplate.update(INSERT_SQL, row);
+            return;
+        }
+        pending().add(row);
+    }
+
+    private String serialize(String eventType, Object payload) 
+    {
+        try 
+        {
+            return objectMapper.writeValueAsString(payload);
+        }
+        catch (JsonProcessingException e) 
+        {
+            throw new IllegalStateException("Não foi possível serializar o evento " + eventType + ".", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pending() 
+    {
+        List<Object[]> rows = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) 
+        {
+            return rows;
+        }
+
+        List<Object[]> buffer = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, buffer);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) 
+            {
+                if (!buffer.isEmpty()) 
+                {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, buffer);
+                    buffer.clear();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) 
+            {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+            }
+        });
+        return buffer;
+    }
+}
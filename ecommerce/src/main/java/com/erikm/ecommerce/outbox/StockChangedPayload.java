@@ -0,0 +1,6 @@
+package com.erikm.ecommerce.outbox;
+
+// Payload de StockChanged: o estoque antes e depois da mudança
+public record StockChangedPayload(long productId, String sku, int previousStock, int stockQuantity) {
+
+}
@@ -5,8 +5,10 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
 
 
 public interface CategoryRepository extends JpaRepository<Category, Long>
@@ -16,4 +18,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long>
     Optional<Category> findByCategoryIdAndIsActiveTrue(Long categoryId);
 
     Optional<Category> findByNameAndIsActiveTrue(String name);
+
+    @Query("select new com.erikm.ecommerce.model.Utils.ResourceVersion(count(c), max(c.updatedAt)) from Category c")
+    ResourceVersion findVersion();
 }
@@ -0,0 +1,68 @@
+package com.erikm.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.erikm.ecommerce.model.CustomerOrderStats;
+
+public interface CustomerOrderStatsRepository extends JpaRepository<CustomerOrderStats, Long> 
+{
+    String AGGREGATE_FROM_ORDERS = "select o.customer_id, count(*), sum(case when o.status = 'CANCELLED' then 1 else 0 end), "
+        + "coalesce(sum(case when o.status <> 'CANCELLED' then o.total_amount else 0 end), 0), max(o.created_at), :now from tb_orders o ";
+
+    String INSERT_INTO_STATS = "insert into tb_customer_order_stats (customer_id, order_count, cancelled_count, total_spent, last_order_date, updated_at) ";
+
+    // Mesmo cálculo do rebuild, sem gravar: usado na leitura enquanto o cliente não tem linha
+    @Query("select new com.erikm.ecommerce.model.CustomerOrderStats(o.customer.customerId, count(o), "
+        + "sum(case when o.status = com.erikm.ecommerce.model.Enums.OrderStatus.CANCELLED then 1L else 0L end), "
+        + "coalesce(sum(case when o.status <> com.erikm.ecommerce.model.Enums.OrderStatus.CANCELLED then o.totalAmount else null end), 0), "
+        + "max(o.createdAt), max(o.updatedAt)) from Order o where o.customer.customerId = :customerId group by o.customer.customerId")
+    Optional<CustomerOrderStats> aggregateFromOrders(@Param("customerId") Long customerId);
+
+    // Retornam 0 quando o cliente ainda não tem linha; o serviço recalcula a partir de tb_orders
+    @Modifying
+    @Query("update CustomerOrderStats s set s.orderCount = s.orderCount + 1, s.totalSpent = s.totalSpent + :amount, "
+        + "s.lastOrderDate = case when s.lastOrderDate is null or s.lastOrderDate < :orderDate then :orderDate else s.lastOrderDate end, "
+        + "s.updatedAt = :now where s.customerId = :customerId")
+    int incrementPlaced(@Param("customerId") Long customerId, @Param("amount") BigDecimal amount, @Param("orderDate") LocalDateTime orderDate, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update CustomerOrderStats s set s.cancelledCount = s.cancelledCount + :orders, s.totalSpent = s.totalSpent - :amount, "
+        + "s.updatedAt = :now where s.customerId = :customerId")
+    int incrementCancelled(@Param("customerId") Long customerId, @Param("orders") long orders, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    // Serializa a criação da linha de um mesmo cliente entre transações concorrentes
+    @Query(nativeQuery = true, value = "select customer_id from tb_customers where customer_id = :customerId for update")
+    Optional<Long> lockCustomer(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_INTO_STATS + AGGREGATE_FROM_ORDERS + "where o.customer_id = :customerId group by o.customer_id")
+    int insertFromOrders(@Param("customerId") Long customerId, @Param("now") LocalDateTime now);
+
+    // Rebuild em lotes: clientes em ordem de id, bloqueados na mesma ordem para evitar deadlock
+    @Query("select c.customerId from Customer c where c.customerId > :after order by c.customerId")
+    List<Long> findCustomerIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(nativeQuery = true, value = "select customer_id from tb_customers where customer_id in (:customerIds) order by customer_id for update")
+    List<Long> lockCustomers(@Param("customerIds") Collection<Long> customerIds);
+
+    @Query(nativeQuery = true, value = "select customer_id from tb_customer_order_stats where customer_id in (:customerIds) order by customer_id for update")
+    List<Long> lockStats(@Param("customerIds") Collection<Long> customerIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from tb_customer_order_stats where customer_id in (:customerIds)")
+    int deleteByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_INTO_STATS + AGGREGATE_FROM_ORDERS + "where o.customer_id in (:customerIds) group by o.customer_id")
+    int insertFromOrdersIn(@Param("customerIds") Collection<Long> customerIds, @Param("now") LocalDateTime now);
+}
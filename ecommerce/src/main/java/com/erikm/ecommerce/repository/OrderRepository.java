@@ -1,14 +1,36 @@
 package com.erikm.ecommerce.repository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.erikm.ecommerce.model.Order;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> 
 {
     Page<Order> findByCustomerCustomerId(Long customerId, Pageable pageable);
+
+    // Listagem em streaming (PageStreamingService); o cliente vem no mesmo select em vez de um por pedido
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o join fetch o.customer")
+    Stream<Order> streamAll(Pageable pageable);
+
+    // Mudanças de status bloqueiam o pedido antes dos produtos, como as operações em lote. Nativo para usar o mesmo
+    // SELECT ... FOR UPDATE delas: o PESSIMISTIC_WRITE do dialeto PostgreSQL gera "for no key update", que o H2 não aceita
+    @Query(value = "select * from tb_orders where order_id = :orderId for update", nativeQuery = true)
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
 }
@@ -1,19 +1,41 @@
 package com.erikm.ecommerce.repository;
 
 import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Utils.ProductPriceEntry;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
+    long countByIsActiveTrue();
+
+    // Listagem em streaming (PageStreamingService): cursor com fetch size, entidades sem snapshot de dirty checking
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p join fetch p.category where p.isActive = true")
+    Stream<Product> streamByIsActiveTrue(Pageable pageable);
+
     Optional<Product> findByProductIdAndIsActiveTrue(Long productId);
 
     Optional<Product> findBySkuAndIsActiveTrue(String sku);
@@ -27,5 +49,22 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByPriceBetweenAndIsActiveTrue(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
+    Page<Product> findByCategoryCategoryIdAndPriceBetweenAndIsActiveTrue(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    // Hidratação de uma página de ids do CatalogPriceIndex; a ordem é a dos ids, refeita pelo chamador
+    @Query("select p from Product p join fetch p.category where p.productId in :productIds")
+    List<Product> findWithCategoryByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select new com.erikm.ecommerce.model.Utils.ProductPriceEntry(p.productId, p.category.categoryId, p.price, p.isActive, p.version) from Product p where p.isActive = true")
+    List<ProductPriceEntry> findActivePriceEntries();
+
+    // Inclui inativos: um produto desativado precisa sair do índice
+    @Query("select new com.erikm.ecommerce.model.Utils.ProductPriceEntry(p.productId, p.category.categoryId, p.price, p.isActive, p.version) from Product p where p.productId in :productIds")
+    List<ProductPriceEntry> findPriceEntriesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
     Page<Product> findByNameContainingIgnoreCaseAndCategoryCategoryIdAndIsActiveTrue(String name, Long categoryId, Pageable pageable);
+
+    // Inclui inativos: desativar um produto atualiza updated_at e precisa invalidar as listagens
+    @Query("select new com.erikm.ecommerce.model.Utils.ResourceVersion(count(p), max(p.updatedAt)) from Product p")
+    ResourceVersion findVersion();
 }
\ No newline at end of file
@@ -47,6 +47,8 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET,  "/api/categories/{id}").permitAll()
             .requestMatchers(HttpMethod.GET,  "/api/products").permitAll()
             .requestMatchers(HttpMethod.GET,  "/api/products/{id}").permitAll()
+            // Só o health é público; /actuator/prometheus e as demais métricas exigem token
+            .requestMatchers(HttpMethod.GET,  "/actuator/health").permitAll()
             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/swagger-ui.html").permitAll()
             .anyRequest().authenticated())
             .csrf(csrf -> csrf.disable())
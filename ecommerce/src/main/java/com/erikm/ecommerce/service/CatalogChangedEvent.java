@@ -0,0 +1,49 @@
+package com.erikm.ecommerce.service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Publicado quando produtos ou categorias mudam. Carrega as surrogate keys das respostas públicas
+ * afetadas, purgadas da CDN depois do commit; os controllers marcam as respostas com as mesmas chaves.
+ * productIds e allProductsChanged dizem o que o CatalogPriceIndex precisa recarregar.
+ */
+public record CatalogChangedEvent(Set<String> surrogateKeys, Set<Long> productIds, boolean allProductsChanged) 
+{
+    public static final String PRODUCT_LIST = "product-list";
+    public static final String ALL_PRODUCTS = "product-all";
+    public static final String CATEGORY_LIST = "category-list";
+    public static final String ALL_CATEGORIES = "category-all";
+
+    public static String productKey(Long productId) 
+    {
+        return "product-" + productId;
+    }
+
+    public static String categoryKey(Long categoryId) 
+    {
+        return "category-" + categoryId;
+    }
+
+    // Mudar um produto pode mudar qualquer listagem (filtros, ordenação), então as listas saem junto
+    public static CatalogChangedEvent products(Collection<Long> productIds) 
+    {
+        Set<String> keys = new LinkedHashSet<>();
+        productIds.forEach(productId -> keys.add(productKey(productId)));
+        keys.add(PRODUCT_LIST);
+        return new CatalogChangedEvent(keys, Set.copyOf(productIds), false);
+    }
+
+    // Importação em massa: não vale a pena listar os ids
+    public static CatalogChangedEvent allProducts() 
+    {
+        return new CatalogChangedEvent(Set.of(ALL_PRODUCTS), Set.of(), true);
+    }
+
+    // O JSON dos produtos inclui a categoria; o detalhe do produto já carrega a chave da categoria
+    public static CatalogChangedEvent category(Long categoryId) 
+    {
+        return new CatalogChangedEvent(Set.of(categoryKey(categoryId), CATEGORY_LIST, PRODUCT_LIST), Set.of(), false);
+    }
+}
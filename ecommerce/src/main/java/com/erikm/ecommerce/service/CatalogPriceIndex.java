@@ -0,0 +1,421 @@
+package com.erikm.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.model.Utils.ProductPriceEntry;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+/**
+ * Índice em memória dos produtos ativos por preço: por categoria (e um para o catálogo inteiro), arrays
+ * primitivos de preço em centavos e id, ordenados por (preço, id). Faixas de preço e listagens ordenadas
+ * por preço viram duas buscas binárias e devolvem só os ids da página; o ProductService hidrata as entidades.
+ * Carregado na subida e a cada refresh-interval; as escritas de produtos (CatalogChangedEvent) são aplicadas
+ * depois do commit. As linhas relidas fora do lock podem chegar fora de ordem, então cada produto guarda a
+ * version indexada e uma leitura mais antiga é descartada. Enquanto não há carga, ou se a ordenação não for
+ * por preço, as consultas vão ao banco.
+ */
+@Component
+public class CatalogPriceIndex 
+{
+    private static final Logger log = LoggerFactory.getLogger(CatalogPriceIndex.class);
+    private static final Comparator<ProductPriceEntry> BY_PRICE = Comparator.comparingLong((ProductPriceEntry entry) -> cents(entry.price()))
+        .thenComparing(ProductPriceEntry::productId);
+
+    private final ProductRepository productRepository;
+    private final DomainMetrics domainMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    // Um refresh por vez: o agendado e o disparado por uma importação podem coincidir
+    private final Object refreshLock = new Object();
+
+    // Imutável: leitores pegam a referência e nunca veem um índice pela metade
+    private volatile Snapshot snapshot;
+    // Mudanças aplicadas durante um refresh, reaplicadas sobre a carga nova (guardado por this)
+    private List<ProductPriceEntry> changesDuringRefresh;
+
+    public CatalogPriceIndex(ProductRepository productRepository, DomainMetrics domainMetrics, PlatformTransactionManager transactionManager,
+                             @Value("${app.catalog.price-index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.domainMetrics = domainMetrics;
+        // Transação própria (o listener roda depois do commit de outra) e sem nome: lê do primário, não da réplica atrasada
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ids da página pedida, na ordem do índice, ou vazio quando o índice não pode responder. Sem ordenação,
+     * só atende faixas de preço (a ordem fica a do preço); com ordenação, só um único critério "price".
+     */
+    public Optional<Page<Long>> findIds(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) 
+    {
+        Sort.Direction direction = priceDirection(pageable.getSort(), minPrice != null || maxPrice != null);
+        if (!enabled || direction == null || pageable.isUnpaged()) 
+        {
+            return Optional.empty();
+        }
+
+        Snapshot current = snapshot;
+        domainMetrics.recordCacheAccess("price-index", current != null);
+        if (current == null) 
+        {
+            return Optional.empty();
+        }
+
+        long minCents;
+        long maxCents;
+        try 
+        {
+            minCents = minPrice == null ? Long.MIN_VALUE : minPrice.setScale(2, RoundingMode.CEILING).movePointRight(2).longValueExact();
+            maxCents = maxPrice == null ? Long.MAX_VALUE : maxPrice.setScale(2, RoundingMode.FLOOR).movePointRight(2).longValueExact();
+        }
+        catch (ArithmeticException e) 
+        {
+            return Optional.empty();
+        }
+
+        PriceArray prices = categoryId == null ? current.all() : current.byCategory().getOrDefault(categoryId, PriceArray.EMPTY);
+        int from = prices.lowerBound(minCents);
+        int to = Math.max(from, prices.upperBound(maxCents));
+        return Optional.of(new PageImpl<>(prices.slice(from, to, pageable.getOffset(), pageable.getPageSize(), direction), pageable, to - from));
+    }
+
+    public boolean isLoaded() 
+    {
+        return snapshot != null;
+    }
+
+    // Também roda na subida (initialDelay 0); cobre mudanças de outras instâncias e feitas fora da aplicação
+    @Scheduled(fixedDelayString = "${app.catalog.price-index.refresh-interval:10m}")
+    public void refresh() 
+    {
+        if (!enabled) 
+        {
+            return;
+        }
+
+        synchronized (refreshLock) 
+        {
+            synchronized (this) 
+            {
+                changesDuringRefresh = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            try 
+            {
+                List<ProductPriceEntry> entries = transactionTemplate.execute(status -> productRepository.findActivePriceEntries());
+                synchronized (this) 
+                {
+                    Snapshot loaded = Snapshot.build(entries);
+                    snapshot = changesDuringRefresh.isEmpty() ? loaded : loaded.apply(changesDuringRefresh);
+                }
+                log.info("Índice de preços carregado: {} produtos em {} ms", entries.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            catch (RuntimeException e) 
+            {
+                // O índice anterior (ou o banco, se nunca carregou) continua atendendo até o próximo refresh
+                log.warn("Falha ao carregar o índice de preços", e);
+            }
+            finally 
+            {
+                synchronized (this) 
+                {
+                    changesDuringRefresh = null;
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) 
+    {
+        if (!enabled || (!event.allProductsChanged() && event.productIds().isEmpty())) 
+        {
+            return;
+        }
+        if (event.allProductsChanged()) 
+        {
+            refresh();
+            return;
+        }
+
+        try 
+        {
+            List<ProductPriceEntry> changes = new ArrayList<>(transactionTemplate.execute(status -> productRepository.findPriceEntriesByProductIdIn(event.productIds())));
+            // Ids que não voltaram da consulta foram removidos da tabela
+            Set<Long> missing = new HashSet<>(event.productIds());
+            changes.forEach(change -> missing.remove(change.productId()));
+            missing.forEach(productId -> changes.add(new ProductPriceEntry(productId, null, null, false, null)));
+            apply(changes);
+        }
+        catch (RuntimeException e) 
+        {
+            log.warn("Falha ao atualizar o índice de preços para os produtos {}; corrigido no próximo refresh", event.productIds(), e);
+        }
+    }
+
+    synchronized void apply(List<ProductPriceEntry> changes) 
+    {
+        if (changesDuringRefresh != null) 
+        {
+            changesDuringRefresh.addAll(changes);
+        }
+        if (snapshot != null) 
+        {
+            snapshot = snapshot.apply(changes);
+        }
+    }
+
+    // null quando a ordenação não é atendida pelo índice
+    private static Sort.Direction priceDirection(Sort sort, boolean hasRange) 
+    {
+        if (sort.isUnsorted()) 
+        {
+            return hasRange ? Sort.Direction.ASC : null;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1 || !"price".equals(orders.get(0).getProperty())) 
+        {
+            return null;
+        }
+        return orders.get(0).getDirection();
+    }
+
+    private static long cents(BigDecimal price) 
+    {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    // Produto removido não volta (o id não é reutilizado): a remoção vence qualquer leitura atrasada
+    private static long versionOf(ProductPriceEntry entry) 
+    {
+        return entry.version() == null ? Long.MAX_VALUE : entry.version();
+    }
+
+    // versions: version indexada por produto, inclusive os que saíram do índice (inativos ou removidos)
+    private record Snapshot(PriceArray all, Map<Long, PriceArray> byCategory, Map<Long, Long> versions) 
+    {
+        static Snapshot build(List<ProductPriceEntry> entries) 
+        {
+            List<ProductPriceEntry> sorted = new ArrayList<>(entries);
+            sorted.sort(BY_PRICE);
+            Map<Long, List<ProductPriceEntry>> grouped = new HashMap<>();
+            for (ProductPriceEntry entry : sorted) 
+            {
+                grouped.computeIfAbsent(entry.categoryId(), categoryId -> new ArrayList<>()).add(entry);
+            }
+            Map<Long, PriceArray> byCategory = new HashMap<>();
+            grouped.forEach((categoryId, categoryEntries) -> byCategory.put(categoryId, PriceArray.of(categoryEntries)));
+            Map<Long, Long> versions = new HashMap<>(entries.size() * 4 / 3 + 1);
+            entries.forEach(entry -> versions.put(entry.productId(), versionOf(entry)));
+            return new Snapshot(PriceArray.of(sorted), Map.copyOf(byCategory), versions);
+        }
+
+        // Uma passada por array afetado: tira todos os ids alterados e intercala as versões ativas
+        Snapshot apply(Collection<ProductPriceEntry> changes) 
+        {
+            // Vale a mudança de maior version de cada produto, e só se não for mais antiga que a indexada
+            Map<Long, ProductPriceEntry> latest = new HashMap<>();
+            for (ProductPriceEntry change : changes) 
+            {
+                ProductPriceEntry previous = latest.get(change.productId());
+                Long indexed = versions.get(change.productId());
+                if ((previous == null || versionOf(change) >= versionOf(previous)) && (indexed == null || versionOf(change) >= indexed)) 
+                {
+                    latest.put(change.productId(), change);
+                }
+            }
+            if (latest.isEmpty()) 
+            {
+                return this;
+            }
+
+            long[] changedIds = latest.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            List<ProductPriceEntry> active = new ArrayList<>();
+            Map<Long, List<ProductPriceEntry>> activeByCategory = new HashMap<>();
+            Map<Long, Long> newVersions = new HashMap<>(versions);
+            for (ProductPriceEntry change : latest.values()) 
+            {
+                newVersions.put(change.productId(), versionOf(change));
+                if (Boolean.TRUE.equals(change.active())) 
+                {
+                    active.add(change);
+                    activeByCategory.computeIfAbsent(change.categoryId(), categoryId -> new ArrayList<>()).add(change);
+                }
+            }
+            active.sort(BY_PRICE);
+            activeByCategory.values().forEach(list -> list.sort(BY_PRICE));
+
+            Map<Long, PriceArray> byCategory = new HashMap<>(this.byCategory);
+            this.byCategory.forEach((categoryId, prices) -> byCategory.put(categoryId,
+                prices.replace(changedIds, activeByCategory.getOrDefault(categoryId, List.of()))));
+            activeByCategory.forEach((categoryId, added) -> byCategory.computeIfAbsent(categoryId, key -> PriceArray.of(added)));
+            byCategory.values().removeIf(prices -> prices.size() == 0);
+            return new Snapshot(all.replace(changedIds, active), Map.copyOf(byCategory), newVersions);
+        }
+    }
+
+    // Arrays paralelos ordenados por (cents, productId); nunca alterados depois de criados
+    static final class PriceArray 
+    {
+        static final PriceArray EMPTY = new PriceArray(new long[0], new long[0]);
+
+        private final long[] cents;
+        private final long[] productIds;
+
+        private PriceArray(long[] cents, long[] productIds) {
+            this.cents = cents;
+            this.productIds = productIds;
+        }
+
+        // entries já ordenadas por BY_PRICE
+        static PriceArray of(List<ProductPriceEntry> entries) 
+        {
+            long[] cents = new long[entries.size()];
+            long[] productIds = new long[entries.size()];
+            for (int i = 0; i < cents.length; i++) 
+            {
+                cents[i] = cents(entries.get(i).price());
+                productIds[i] = entries.get(i).productId();
+            }
+            return new PriceArray(cents, productIds);
+        }
+
+        int size() 
+        {
+            return cents.length;
+        }
+
+        // Primeira posição com preço >= minCents
+        int lowerBound(long minCents) 
+        {
+            int low = 0;
+            int high = cents.length;
+            while (low < high) 
+            {
+                int mid = (low + high) >>> 1;
+                if (cents[mid] < minCents) 
+                {
+                    low = mid + 1;
+                }
+                else 
+                {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Primeira posição com preço > maxCents
+        int upperBound(long maxCents) 
+        {
+            int low = 0;
+            int high = cents.length;
+            while (low < high) 
+            {
+                int mid = (low + high) >>> 1;
+                if (cents[mid] <= maxCents) 
+                {
+                    low = mid + 1;
+                }
+                else 
+                {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Ids da página dentro de [from, to); DESC percorre do fim da faixa
+        List<Long> slice(int from, int to, long offset, int pageSize, Sort.Direction direction) 
+        {
+            if (offset >= to - from) 
+            {
+                return List.of();
+            }
+            int count = (int) Math.min(pageSize, to - from - offset);
+            List<Long> page = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) 
+            {
+                int position = direction.isAscending() ? from + (int) offset + i : to - 1 - (int) offset - i;
+                page.add(productIds[position]);
+            }
+            return page;
+        }
+
+        PriceArray replace(long[] removedIds, List<ProductPriceEntry> added) 
+        {
+            if (added.isEmpty() && !containsAny(removedIds)) 
+            {
+                return this;
+            }
+
+            long[] newCents = new long[cents.length + added.size()];
+            long[] newIds = new long[newCents.length];
+            int size = 0;
+            int next = 0;
+            for (int i = 0; i <= cents.length; i++) 
+            {
+                boolean kept = i < cents.length && Arrays.binarySearch(removedIds, productIds[i]) < 0;
+                // Intercala os adicionados que vêm antes da posição atual (ou todos os restantes no fim)
+                while (next < added.size() && (i == cents.length || (kept && precedes(added.get(next), cents[i], productIds[i])))) 
+                {
+                    newCents[size] = cents(added.get(next).price());
+                    newIds[size++] = added.get(next++).productId();
+                }
+                if (kept) 
+                {
+                    newCents[size] = cents[i];
+                    newIds[size++] = productIds[i];
+                }
+            }
+            return new PriceArray(Arrays.copyOf(newCents, size), Arrays.copyOf(newIds, size));
+        }
+
+        private boolean containsAny(long[] sortedIds) 
+        {
+            for (long productId : productIds) 
+            {
+                if (Arrays.binarySearch(sortedIds, productId) >= 0) 
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean precedes(ProductPriceEntry entry, long cents, long productId) 
+        {
+            long entryCents = cents(entry.price());
+            return entryCents < cents || (entryCents == cents && entry.productId() < productId);
+        }
+    }
+}
@@ -2,29 +2,43 @@ package com.erikm.ecommerce.service;
 
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.erikm.ecommerce.dto.CategoryDTO;
 import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
+import com.erikm.ecommerce.observability.DomainMetrics;
 import com.erikm.ecommerce.repository.CategoryRepository;
 
 import org.modelmapper.ModelMapper;
+import io.micrometer.observation.annotation.Observed;
 
 @Service
+@Observed(name = "app.service")
 public class CategoryService 
 {
     private final CategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Category> categoryLookups;
 
-    public CategoryService(CategoryRepository categoryRepository, ModelMapper modelMapper) {
+    public CategoryService(CategoryRepository categoryRepository, ModelMapper modelMapper, ApplicationEventPublisher eventPublisher,
+                           DomainMetrics domainMetrics, PlatformTransactionManager transactionManager) {
         this.categoryRepository = categoryRepository;
         this.modelMapper = modelMapper;
+        this.eventPublisher = eventPublisher;
+        this.categoryLookups = new SingleFlight<>("categories", domainMetrics, transactionManager, CategoryService.class.getName() + ".findCategoryById");
     }
 
+    @Transactional
     public Category createNewCategory(CategoryDTO categoryDTO) 
     {
         Optional<Category> categoryFromDB = categoryRepository.findByNameAndIsActiveTrue(categoryDTO.name());
@@ -38,26 +52,40 @@ public class CategoryService
         newCategory.setName(categoryDTO.name());
         newCategory.setDescription(categoryDTO.description());
 
-        return categoryRepository.save(newCategory);
+        Category saved = categoryRepository.save(newCategory);
+        eventPublisher.publishEvent(CatalogChangedEvent.category(saved.getCategoryId()));
+        return saved;
     }
 
-    public Page<Category> findAllCategories(Pageable pageable)
+    @Transactional(readOnly = true)
+    public Page<Category> findAllCategories(Pageable pageable) 
     {
         return categoryRepository.findByIsActiveTrue(pageable);
     }
 
+    // Validador de GET /api/categories (ETag/Last-Modified) sem carregar as categorias
+    @Transactional(readOnly = true)
+    public ResourceVersion findCategoriesVersion() 
+    {
+        return categoryRepository.findVersion();
+    }
+
+    // Mesmo esquema de ProductService#findProductById
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Category findCategoryById(Long categoryId) 
     {
-        return categoryRepository.findByCategoryIdAndIsActiveTrue(categoryId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoria não encontrada."));
+        return categoryLookups.load(categoryId, () -> categoryRepository.findByCategoryIdAndIsActiveTrue(categoryId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoria não encontrada.")));
     }
 
+    @Transactional(readOnly = true)
     public Category findCategoryByName(String categoryName) 
     {
         return categoryRepository.findByNameAndIsActiveTrue(categoryName)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoria não encontrada."));
     }
 
+    @Transactional
     public Category editCategory(Long categoryId, CategoryDTO categoryDTO) 
     {
         Category categoryFromDB = categoryRepository.findByCategoryIdAndIsActiveTrue(categoryId)
@@ -65,16 +93,19 @@ public class CategoryService
 
         categoryFromDB.setName(categoryDTO.name());
         categoryFromDB.setDescription(categoryDTO.description());
+        eventPublisher.publishEvent(CatalogChangedEvent.category(categoryId));
             
         return categoryRepository.save(categoryFromDB);
     }
 
+    @Transactional
     public Category deleteCategory(Long categoryId) 
     {
         Category categoryFromDB = categoryRepository.findByCategoryIdAndIsActiveTrue(categoryId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoria não encontrada."));
 
         categoryFromDB.setIsActive(false);
+        eventPublisher.publishEvent(CatalogChangedEvent.category(categoryId));
         return categoryRepository.save(categoryFromDB);
     }
 
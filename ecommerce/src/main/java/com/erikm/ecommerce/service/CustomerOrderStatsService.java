@@ -0,0 +1,155 @@
+package com.erikm.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.model.CustomerOrderStats;
+import com.erikm.ecommerce.repository.CustomerOrderStatsRepository;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Modelo de leitura com o resumo de pedidos de cada cliente (quantidade, cancelados, total gasto e
+ * data do último pedido). As operações de pedido atualizam a linha com incrementos atômicos na mesma
+ * transação; se o cliente ainda não tem linha, ela é calculada a partir de tb_orders sob bloqueio
+ * do cliente. O rebuild agendado recalcula tudo e corrige qualquer divergência, em lotes de clientes
+ * com uma transação curta cada, para não segurar os incrementos do checkout durante o recálculo inteiro.
+ */
+@Service
+@Observed(name = "app.service")
+public class CustomerOrderStatsService 
+{
+    private static final Logger log = LoggerFactory.getLogger(CustomerOrderStatsService.class);
+
+    private final CustomerOrderStatsRepository statsRepository;
+    private final CustomerService customerService;
+    private final ReadYourWritesTracker readYourWrites;
+    private final TransactionTemplate chunkTransaction;
+    private final int rebuildChunkSize;
+
+    public CustomerOrderStatsService(CustomerOrderStatsRepository statsRepository, CustomerService customerService, ReadYourWritesTracker readYourWrites,
+                                     PlatformTransactionManager transactionManager, @Value("${app.customer-stats.rebuild-chunk-size:500}") int rebuildChunkSize) {
+        this.statsRepository = statsRepository;
+        this.customerService = customerService;
+        this.readYourWrites = readYourWrites;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    // Chamado depois de o pedido ser salvo, para que o recálculo de uma linha nova já o inclua
+    @Transactional
+    public void recordOrderPlaced(Long customerId, BigDecimal amount, LocalDateTime orderDate) 
+    {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime placedAt = orderDate == null ? now : orderDate;
+        if (statsRepository.incrementPlaced(customerId, amount, placedAt, now) == 0) 
+        {
+            createRow(customerId, () -> statsRepository.incrementPlaced(customerId, amount, placedAt, now));
+        }
+    }
+
+    // Chamado depois de o status do pedido virar CANCELLED
+    @Transactional
+    public void recordOrderCancelled(Long customerId, BigDecimal amount) 
+    {
+        recordCancellations(Map.of(customerId, new CancelledTotals(1, amount)));
+    }
+
+    @Transactional
+    public void recordCancellations(Map<Long, CancelledTotals> byCustomer) 
+    {
+        LocalDateTime now = LocalDateTime.now();
+        // Em ordem de id, como o rebuild, para que os dois não se bloqueiem em ordens opostas
+        new TreeMap<>(byCustomer).forEach((customerId, totals) -> {
+            if (statsRepository.incrementCancelled(customerId, totals.orders(), totals.amount(), now) == 0) 
+            {
+                createRow(customerId, () -> statsRepository.incrementCancelled(customerId, totals.orders(), totals.amount(), now));
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerOrderStats findByCustomerId(Long customerId) 
+    {
+        readYourWrites.pinIfRecentWrite(customerId);
+        return statsRepository.findById(customerId)
+            .orElseGet(() -> {
+                customerService.findCustomerById(customerId);
+                return statsRepository.aggregateFromOrders(customerId).orElseGet(() -> CustomerOrderStats.empty(customerId));
+            });
+    }
+
+    // Recalcula as linhas a partir de tb_orders, um lote de clientes (em ordem de id) por transação
+    @Scheduled(cron = "${app.customer-stats.rebuild-cron:0 30 3 * * *}")
+    public int rebuild() 
+    {
+        long start = System.nanoTime();
+        int rows = 0;
+        int failedChunks = 0;
+        List<Long> chunk = statsRepository.findCustomerIdsAfter(0L, PageRequest.ofSize(rebuildChunkSize));
+        while (!chunk.isEmpty()) 
+        {
+            List<Long> customerIds = chunk;
+            try 
+            {
+                rows += chunkTransaction.execute(status -> rebuildChunk(customerIds));
+            } 
+            catch (DataAccessException e) 
+            {
+                // Ex.: deadlock com um cancelamento em lote; o lote fica como estava até o próximo rebuild
+                failedChunks++;
+                log.warn("Falha ao recalcular o resumo dos clientes {} a {}: {}", customerIds.get(0), customerIds.get(customerIds.size() - 1), e.getMessage());
+            }
+            chunk = statsRepository.findCustomerIdsAfter(customerIds.get(customerIds.size() - 1), PageRequest.ofSize(rebuildChunkSize));
+        }
+        log.info("Resumo de pedidos por cliente recalculado: {} clientes em {}ms ({} lotes com falha)", rows, (System.nanoTime() - start) / 1_000_000, failedChunks);
+        return rows;
+    }
+
+    /*
+     * Bloqueia os clientes (como createRow) e as linhas do lote antes de ler tb_orders: um checkout que já
+     * incrementou a linha termina antes e entra na agregação; um que chegar depois espera e incrementa
+     * sobre o valor recalculado. Nenhum incremento se perde e os demais clientes não esperam.
+     */
+    private int rebuildChunk(List<Long> customerIds) 
+    {
+        statsRepository.lockCustomers(customerIds);
+        statsRepository.lockStats(customerIds);
+        statsRepository.deleteByCustomerIds(customerIds);
+        return statsRepository.insertFromOrdersIn(customerIds, LocalDateTime.now());
+    }
+
+    // Com o cliente bloqueado, só uma transação cria a linha; quem chegar depois encontra a linha e incrementa
+    private void createRow(Long customerId, IntSupplier increment) 
+    {
+        statsRepository.lockCustomer(customerId);
+        if (increment.getAsInt() == 0) 
+        {
+            statsRepository.insertFromOrders(customerId, LocalDateTime.now());
+        }
+    }
+
+    public record CancelledTotals(long orders, BigDecimal amount) {
+
+        public CancelledTotals add(BigDecimal orderAmount) 
+        {
+            return new CancelledTotals(orders + 1, amount.add(orderAmount));
+        }
+    }
+}
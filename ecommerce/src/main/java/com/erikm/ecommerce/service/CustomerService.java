@@ -18,7 +18,10 @@ import com.erikm.ecommerce.model.Role;
 import com.erikm.ecommerce.repository.CustomerRepository;
 import com.erikm.ecommerce.repository.RoleRepository;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "app.service")
 public class CustomerService 
 {
 
@@ -68,24 +71,28 @@ public class CustomerService
         return customerRepository.save(newCustomer);
     }
 
+    @Transactional(readOnly = true)
     public Page<Customer> listAllCostumers(Pageable pageable) 
     {
         return customerRepository.findByIsActiveTrue(pageable);
 
     }
 
+    @Transactional(readOnly = true)
     public Customer findCustomerById(Long customerId) 
     {
         return customerRepository.findByCustomerIdAndIsActiveTrue(customerId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado."));
     }
 
+    @Transactional(readOnly = true)
     public Customer findCustomerByEmail(String email) 
     {
         return customerRepository.findByEmailAndIsActiveTrue(email)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado."));
     }
 
+    @Transactional
     public Customer editCustomer(Long customerId, CustomerDTO customerDTO) 
     {
         Customer customerFromDB = customerRepository.findByCustomerIdAndIsActiveTrue(customerId)
@@ -101,6 +108,7 @@ public class CustomerService
         return customerRepository.save(customerFromDB);
     }
 
+    @Transactional
     public Customer deleteCustomer(Long customerId) 
     {
         Customer customerFromDB = customerRepository.findByCustomerIdAndIsActiveTrue(customerId)
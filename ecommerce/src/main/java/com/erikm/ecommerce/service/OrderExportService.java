@@ -0,0 +1,229 @@
+package com.erikm.ecommerce.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Exportação de pedidos para o financeiro. Os pedidos são lidos por um cursor JDBC (fetch size)
+ * e escritos linha a linha no OutputStream da resposta, então a memória usada não depende do
+ * tamanho do período exportado.
+ */
+@Service
+public class OrderExportService 
+{
+    static final String[] COLUMNS = { "orderId", "orderDate", "status", "totalAmount", "itemCount", "customerId", "customerEmail", "shippingAddress" };
+
+    // A data do pedido é a coluna created_at herdada de Timestamps
+    private static final String EXPORT_SQL = """
+        select o.order_id, o.created_at, o.status, o.total_amount,
+               (select count(*) from tb_order_items i where i.order_id = o.order_id) as item_count,
+               c.customer_id, c.email, o.shipping_address
+          from tb_orders o
+          join tb_customers c on c.customer_id = o.customer_id
+         where o.created_at >= ? and o.created_at < ?
+         order by o.order_id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DomainMetrics domainMetrics;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public OrderExportService(DataSource dataSource, PlatformTransactionManager transactionManager, DomainMetrics domainMetrics,
+                              @Value("${app.orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // O PostgreSQL só usa cursor (em vez de trazer tudo) com autocommit desligado, daí a transação;
+        // sendo read-only e nomeada no pacote de serviços, ela também é roteada para a réplica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(OrderExportService.class.getName() + ".exportOrders");
+        this.domainMetrics = domainMetrics;
+    }
+
+    public void validatePeriod(LocalDate from, LocalDate to) 
+    {
+        if (from == null || to == null) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Os parâmetros from e to são obrigatórios (formato AAAA-MM-DD).");
+        }
+        if (to.isBefore(from)) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data final não pode ser anterior à data inicial.");
+        }
+    }
+
+    // Período inclusivo: de from 00:00 até o fim do dia to
+    public long exportOrders(LocalDate from, LocalDate to, FileFormat format, OutputStream output) 
+    {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 32 * 1024);
+        RowWriter rowWriter = format == FileFormat.NDJSON ? new NdjsonRowWriter(writer, jsonFactory) : new CsvRowWriter(writer);
+        long[] rows = { 0 };
+
+        try 
+        {
+            rowWriter.begin();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try 
+                {
+                    rowWriter.write(rs);
+                    rows[0]++;
+                } 
+                catch (IOException e) 
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+            rowWriter.end();
+            writer.flush();
+            domainMetrics.recordOrderExport(start, format.name(), DomainMetrics.OUTCOME_SUCCESS, rows[0]);
+            return rows[0];
+        } 
+        catch (IOException | UncheckedIOException e) 
+        {
+            // Normalmente o cliente desistiu do download; a transação e o cursor já foram fechados
+            domainMetrics.recordOrderExport(start, format.name(), DomainMetrics.OUTCOME_REJECTED, rows[0]);
+            throw new UncheckedIOException("Exportação de pedidos interrompida após " + rows[0] + " linhas", e instanceof IOException io ? io : ((UncheckedIOException) e).getCause());
+        }
+    }
+
+    private interface RowWriter 
+    {
+        void begin() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void end() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter 
+    {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException 
+        {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException 
+        {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(rs.getTimestamp(2).toLocalDateTime().toString());
+            writer.write(',');
+            writer.write(rs.getString(3));
+            writer.write(',');
+            writer.write(rs.getBigDecimal(4).toPlainString());
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(5)));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(6)));
+            writer.write(',');
+            writeEscaped(rs.getString(7));
+            writer.write(',');
+            writeEscaped(rs.getString(8));
+            writer.write('\n');
+        }
+
+        @Override
+        public void end() 
+        {
+
+        }
+
+        private void writeEscaped(String value) throws IOException 
+        {
+            if (value == null) 
+            {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) 
+            {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter 
+    {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, JsonFactory jsonFactory) {
+            this.writer = writer;
+            try 
+            {
+                this.generator = jsonFactory.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            } 
+            catch (IOException e) 
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void begin() 
+        {
+
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException 
+        {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+            generator.writeStringField(COLUMNS[1], rs.getTimestamp(2).toLocalDateTime().toString());
+            generator.writeStringField(COLUMNS[2], rs.getString(3));
+            generator.writeNumberField(COLUMNS[3], rs.getBigDecimal(4));
+            generator.writeNumberField(COLUMNS[4], rs.getLong(5));
+            generator.writeNumberField(COLUMNS[5], rs.getLong(6));
+            generator.writeStringField(COLUMNS[6], rs.getString(7));
+            generator.writeStringField(COLUMNS[7], rs.getString(8));
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        public void end() throws IOException 
+        {
+            generator.close();
+        }
+    }
+}
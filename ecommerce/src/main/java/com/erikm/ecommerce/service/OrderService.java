@@ -2,7 +2,9 @@ package com.erikm.ecommerce.service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
@@ -12,6 +14,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.IdempotencyContext;
+import com.erikm.ecommerce.config.OptimisticRetry;
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
 import com.erikm.ecommerce.dto.OrderDTO;
 import com.erikm.ecommerce.dto.OrderItemDTO;
 import com.erikm.ecommerce.model.Customer;
@@ -19,10 +24,18 @@ import com.erikm.ecommerce.model.Order;
 import com.erikm.ecommerce.model.OrderItem;
 import com.erikm.ecommerce.model.Product;
 import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.model.Utils.Money;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
 import com.erikm.ecommerce.repository.OrderItemRepository;
 import com.erikm.ecommerce.repository.OrderRepository;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "app.service")
 public class OrderService {
 
     private final OrderRepository orderRepository;
@@ -30,21 +43,55 @@ public class OrderService {
     private final CustomerService customerService;
     private final ProductService productService;
     private final ModelMapper modelMapper;
+    private final DomainMetrics domainMetrics;
+    private final ObservationRegistry observationRegistry;
+    private final ReadYourWritesTracker readYourWrites;
+    private final OrderStatusHistoryWriter statusHistory;
+    private final CustomerOrderStatsService orderStats;
+    private final OutboxWriter outbox;
+    private final OrderStockRestorer stockRestorer;
 
     public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
                         CustomerService customerService, ProductService productService,
-                        ModelMapper modelMapper) {
+                        ModelMapper modelMapper, DomainMetrics domainMetrics,
+                        ObservationRegistry observationRegistry, ReadYourWritesTracker readYourWrites,
+                        OrderStatusHistoryWriter statusHistory, CustomerOrderStatsService orderStats,
+                        OutboxWriter outbox, OrderStockRestorer stockRestorer) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.customerService = customerService;
         this.productService = productService;
         this.modelMapper = modelMapper;
+        this.domainMetrics = domainMetrics;
+        this.observationRegistry = observationRegistry;
+        this.readYourWrites = readYourWrites;
+        this.statusHistory = statusHistory;
+        this.orderStats = orderStats;
+        this.outbox = outbox;
+        this.stockRestorer = stockRestorer;
     }
 
+    @OptimisticRetry
     @Transactional
     public Order createNewOrder(OrderDTO orderDTO) 
     {
-        
+        long start = System.nanoTime();
+        int cartSize = orderDTO.orderItens() == null ? 0 : orderDTO.orderItens().size();
+        try 
+        {
+            Order order = placeOrder(orderDTO);
+            domainMetrics.recordCheckout(start, order.getStatus().name(), cartSize);
+            return order;
+        } 
+        catch (ResponseStatusException e) 
+        {
+            domainMetrics.recordCheckout(start, DomainMetrics.OUTCOME_REJECTED, cartSize);
+            throw e;
+        }
+    }
+
+    private Order placeOrder(OrderDTO orderDTO) 
+    {
         Customer customer = customerService.findCustomerByEmail(orderDTO.customerEmail());
 
         
@@ -52,6 +99,15 @@ public class OrderService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O pedido deve conter pelo menos um item.");
         }
 
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) 
+        {
+            Set<String> skus = new HashSet<>();
+            orderDTO.orderItens().forEach(item -> skus.add(item.sku()));
+            observation.highCardinalityKeyValue("order.items", String.valueOf(orderDTO.orderItens().size()));
+            observation.highCardinalityKeyValue("order.skus", String.valueOf(skus.size()));
+        }
+
         Order newOrder = new Order();
         newOrder.setCustomer(customer);
         newOrder.setShippingAddress(orderDTO.shippingAddress());
@@ -60,8 +116,11 @@ public class OrderService {
         newOrder = orderRepository.save(newOrder);
 
         List<OrderItem> orderItemsToSave = new ArrayList<>();
-        BigDecimal calculatedTotalAmount = BigDecimal.ZERO;
+        // Em centavos: um BigDecimal só por valor gravado, não por operação. O total fica num long porque
+        // um Money reatribuído a cada volta do loop não é eliminado pela escape analysis (ver MoneyBenchmark)
+        long totalCents = 0;
         boolean hasInsufficientStock = false; 
+        int itemsWithoutStock = 0;
 
         for (OrderItemDTO itemDTO : orderDTO.orderItens())
         {
@@ -70,6 +129,7 @@ public class OrderService {
             if (product.getStockQuantity() < itemDTO.quantity()) 
             {
                 hasInsufficientStock = true; 
+                itemsWithoutStock++;
             }
             
             OrderItem newOrderItem = new OrderItem();
@@ -77,19 +137,27 @@ public class OrderService {
             newOrderItem.setProduct(product);
             newOrderItem.setQuantity(itemDTO.quantity());
             newOrderItem.setUnitPrice(product.getPrice()); 
-            newOrderItem.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(itemDTO.quantity())));
+            Money subtotal = subtotal(product, itemDTO.quantity());
+            newOrderItem.setSubtotal(subtotal.toBigDecimal());
 
             orderItemsToSave.add(newOrderItem);
-            calculatedTotalAmount = calculatedTotalAmount.add(newOrderItem.getSubtotal());
+            totalCents = Math.addExact(totalCents, subtotal.cents());
+        }
+
+        Money calculatedTotalAmount = Money.ofCents(totalCents);
+        if (calculatedTotalAmount.exceeds(Money.COLUMN_MAX)) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O valor total do pedido excede o limite de " + Money.COLUMN_MAX + ".");
         }
 
-        
         orderItemRepository.saveAll(orderItemsToSave);
-        newOrder.setTotalAmount(calculatedTotalAmount); 
+        BigDecimal totalAmount = calculatedTotalAmount.toBigDecimal();
+        newOrder.setTotalAmount(totalAmount); 
 
         if (hasInsufficientStock) 
         {
             newOrder.setStatus(OrderStatus.PENDING); // Pelo menos um item não tinha estoque
+            domainMetrics.recordInsufficientStock(itemsWithoutStock);
         } 
         else 
         {
@@ -100,73 +168,143 @@ public class OrderService {
             }
         }
 
-        return orderRepository.save(newOrder);
+        readYourWrites.recordWrite(customer.getCustomerId());
+        statusHistory.record(newOrder.getOrderId(), null, newOrder.getStatus(), OrderStatusHistoryWriter.SOURCE_CHECKOUT);
+        Order placed = orderRepository.save(newOrder);
+        orderStats.recordOrderPlaced(customer.getCustomerId(), totalAmount, placed.getCreatedAt());
+        IdempotencyContext.markCommitted(placed.getOrderId());
+        recordEvent(placed, OutboxWriter.ORDER_CREATED);
+        recordEvent(placed, OutboxWriter.orderEventFor(placed.getStatus()));
+        return placed;
+    }
+
+    // Subtotais acima da coluna numeric(10, 2) falhariam só no flush; aqui viram 400
+    private static Money subtotal(Product product, int quantity) 
+    {
+        Money subtotal;
+        try 
+        {
+            subtotal = Money.of(product.getPrice()).times(quantity);
+        } 
+        catch (ArithmeticException e) 
+        {
+            subtotal = null;
+        }
+        if (subtotal == null || subtotal.exceeds(Money.COLUMN_MAX)) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O subtotal do item " + product.getSku() + " excede o limite de " + Money.COLUMN_MAX + ".");
+        }
+        return subtotal;
     }
 
+    @Transactional(readOnly = true)
     public Page<Order> listAllOrders(Pageable pageable) {
         return orderRepository.findAll(pageable);
     }
 
+    @OptimisticRetry
     @Transactional
     public OrderStatus editStatusOrder(Long orderId, String statusRequest) 
     {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado."));
-
-        if (order.getStatus() == OrderStatus.DELIVERED || order.getStatus() == OrderStatus.CANCELLED)
+        OrderStatus newStatus = OrderStatus.parse(statusRequest);
+        if (newStatus == null) 
         {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido não pode ser modificado, graças ao status: " + order.getStatus());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O status fornecido é inválido. Status permitidos: " + OrderStatus.ALLOWED_VALUES);
         }
 
-        OrderStatus newStatus;
-        try 
+        Order order = orderRepository.findByIdForUpdate(orderId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado."));
+
+        OrderStatus currentStatus = order.getStatus();
+        if (currentStatus.isFinal()) 
         {
-            newStatus = OrderStatus.valueOf(statusRequest.toUpperCase());
-        } 
-        catch (IllegalArgumentException e) 
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido não pode ser modificado, graças ao status: " + currentStatus);
+        }
+        if (!currentStatus.canTransitionTo(newStatus)) 
         {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O status fornecido é inválido. Status permitidos: " + java.util.Arrays.toString(OrderStatus.values()));
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transição de status inválida: " + currentStatus + " -> " + newStatus + ".");
         }
 
         order.setStatus(newStatus);
         orderRepository.save(order);
+        statusHistory.record(orderId, currentStatus, newStatus, OrderStatusHistoryWriter.SOURCE_API);
+        if (newStatus == OrderStatus.CANCELLED) 
+        {
+            if (holdsStock(currentStatus)) 
+            {
+                stockRestorer.restore(List.of(orderId));
+            }
+            orderStats.recordOrderCancelled(order.getCustomer().getCustomerId(), order.getTotalAmount());
+        }
+        recordEvent(order, OutboxWriter.orderEventFor(newStatus));
+        readYourWrites.recordWrite(order.getCustomer().getCustomerId());
         return newStatus;
     }
 
     
+    @OptimisticRetry
     @Transactional
     public Order deleteOrder(Long orderId)
     {
-        Order order = orderRepository.findById(orderId)
+        long start = System.nanoTime();
+        try 
+        {
+            Order order = cancelOrder(orderId);
+            domainMetrics.recordOrderCancellation(start, DomainMetrics.OUTCOME_SUCCESS);
+            return order;
+        } 
+        catch (ResponseStatusException e) 
+        {
+            domainMetrics.recordOrderCancellation(start, e.getStatusCode() == HttpStatus.NOT_FOUND ? DomainMetrics.OUTCOME_NOT_FOUND : DomainMetrics.OUTCOME_REJECTED);
+            throw e;
+        }
+    }
+
+    private Order cancelOrder(Long orderId)
+    {
+        Order order = orderRepository.findByIdForUpdate(orderId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado."));
 
-        List<OrderItem> orderItems = orderItemRepository.findAllByOrder(order);
-        if (order.getStatus() == OrderStatus.CONFIRMED || order.getStatus() == OrderStatus.CREATED) 
+        if (holdsStock(order.getStatus())) 
         {
-            for (OrderItem item : orderItems) {
-                Product product = item.getProduct();
-                int returnedQuantity = item.getQuantity();
-                
-                //Devolver pro estoque
-                productService.editStock(product.getProductId(), product.getStockQuantity() + returnedQuantity);
-            }
+            //Devolver pro estoque
+            stockRestorer.restore(List.of(orderId));
         } 
-        else if (order.getStatus() == OrderStatus.DELIVERED || order.getStatus() == OrderStatus.CANCELLED) 
+        else if (!order.getStatus().canTransitionTo(OrderStatus.CANCELLED)) 
         {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido não pode ser cancelado, graças ao status: " + order.getStatus());
         } 
 
+        statusHistory.record(orderId, order.getStatus(), OrderStatus.CANCELLED, OrderStatusHistoryWriter.SOURCE_CANCEL);
         order.setStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        readYourWrites.recordWrite(order.getCustomer().getCustomerId());
+        Order cancelled = orderRepository.save(order);
+        orderStats.recordOrderCancelled(order.getCustomer().getCustomerId(), order.getTotalAmount());
+        recordEvent(cancelled, OutboxWriter.ORDER_CANCELLED);
+        return cancelled;
+    }
+
+    // Só pedidos CREATED e CONFIRMED têm estoque reservado; PENDING ainda espera o PendingOrderAllocator
+    private static boolean holdsStock(OrderStatus status) 
+    {
+        return status == OrderStatus.CONFIRMED || status == OrderStatus.CREATED;
+    }
+
+    private void recordEvent(Order order, String eventType) 
+    {
+        outbox.recordOrder(eventType, order.getOrderId(), order.getCustomer().getCustomerId(), order.getStatus(), order.getTotalAmount());
     }
 
+    @Transactional(readOnly = true)
     public Order findOrderById(Long orderId) {
         return orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado."));
     }
 
+    @Transactional(readOnly = true)
     public Page<Order> findOrdersByCustomerId(Long customerId, Pageable pageable) 
     {
+        readYourWrites.pinIfRecentWrite(customerId);
         customerService.findCustomerById(customerId);
         return orderRepository.findByCustomerCustomerId(customerId, pageable);
     }
@@ -0,0 +1,77 @@
+package com.erikm.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+
+/**
+ * Acumula as transições de status registradas durante a transação e grava todas em um único
+ * batch de INSERT antes do commit; se a transação for desfeita, nada é gravado.
+ */
+@Component
+public class OrderStatusHistoryWriter 
+{
+    public static final String SOURCE_CHECKOUT = "CHECKOUT";
+    public static final String SOURCE_API = "API";
+    public static final String SOURCE_CANCEL = "CANCEL";
+    public static final String SOURCE_BULK = "BULK";
+    public static final String SOURCE_ALLOCATION = "ALLOCATION";
+
+    private static final String INSERT_SQL = "insert into tb_order_status_history (order_id, from_status, to_status, source, changed_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStatusHistoryWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Long orderId, OrderStatus from, OrderStatus to, String source) 
+    {
+        Object[] row = { orderId, from == null ? null : from.name(), to.name(), source, Timestamp.valueOf(LocalDateTime.now()) };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) 
+        {
+            jdbcTemplate.update(INSERT_SQL, row);
+            return;
+        }
+        pending().add(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pending() 
+    {
+        List<Object[]> rows = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) 
+        {
+            return rows;
+        }
+
+        List<Object[]> buffer = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, buffer);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) 
+            {
+                if (!buffer.isEmpty()) 
+                {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, buffer);
+                    buffer.clear();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) 
+            {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OrderStatusHistoryWriter.this);
+            }
+        });
+        return buffer;
+    }
+}
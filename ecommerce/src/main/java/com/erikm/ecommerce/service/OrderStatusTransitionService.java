@@ -0,0 +1,208 @@
+package com.erikm.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderStatusTransitionDTO;
+import com.erikm.ecommerce.dto.Responses.OrderStatusTransitionResult;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.service.CustomerOrderStatsService.CancelledTotals;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Transição de status em lote (parceiros de logística). Os pedidos são bloqueados com
+ * SELECT ... FOR UPDATE em ordem de id, cada transição é validada contra a máquina de estados
+ * de OrderStatus na ordem da requisição e o status final de cada pedido é gravado num único
+ * batch de UPDATE; o histórico e os eventos do outbox vão no mesmo commit, também em batch.
+ * Cancelar um pedido CREATED ou CONFIRMED devolve o estoque reservado pelo OrderStockRestorer, o mesmo
+ * usado por OrderService; os produtos são bloqueados em ordem de id depois dos pedidos.
+ */
+@Service
+@Observed(name = "app.service")
+public class OrderStatusTransitionService 
+{
+    private static final int LOOKUP_SLICE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final OrderStatusHistoryWriter statusHistory;
+    private final CustomerOrderStatsService orderStats;
+    private final ReadYourWritesTracker readYourWrites;
+    private final OutboxWriter outbox;
+    private final OrderStockRestorer stockRestorer;
+    private final DomainMetrics domainMetrics;
+    private final int maxBatchSize;
+
+    public OrderStatusTransitionService(NamedParameterJdbcTemplate jdbcTemplate, OrderStatusHistoryWriter statusHistory,
+                                        CustomerOrderStatsService orderStats, ReadYourWritesTracker readYourWrites, OutboxWriter outbox,
+                                        OrderStockRestorer stockRestorer, DomainMetrics domainMetrics,
+                                        @Value("${app.orders.status.max-batch-size:10000}") int maxBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statusHistory = statusHistory;
+        this.orderStats = orderStats;
+        this.readYourWrites = readYourWrites;
+        this.outbox = outbox;
+        this.stockRestorer = stockRestorer;
+        this.domainMetrics = domainMetrics;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional
+    public List<OrderStatusTransitionResult> transitionStatuses(List<OrderStatusTransitionDTO> transitions) 
+    {
+        long start = System.nanoTime();
+        if (transitions == null || transitions.isEmpty()) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe pelo menos uma transição de status.");
+        }
+        if (transitions.size() > maxBatchSize) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Máximo de " + maxBatchSize + " transições por requisição.");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OrderStatusTransitionDTO transition : transitions) 
+        {
+            if (transition != null && transition.orderId() != null) 
+            {
+                ids.add(transition.orderId());
+            }
+        }
+        Map<Long, OrderRow> orders = lockOrders(ids);
+
+        List<OrderStatusTransitionResult> results = new ArrayList<>(transitions.size());
+        Map<Long, CancelledTotals> cancellations = new HashMap<>();
+        List<Long> stockToRestore = new ArrayList<>();
+        int applied = 0;
+        for (int i = 0; i < transitions.size(); i++) 
+        {
+            OrderStatusTransitionDTO transition = transitions.get(i);
+            if (transition == null || transition.orderId() == null) 
+            {
+                results.add(new OrderStatusTransitionResult(i, null, OrderStatusTransitionResult.REJECTED, null, null, "O orderId é obrigatório."));
+                continue;
+            }
+
+            OrderStatus target = OrderStatus.parse(transition.status());
+            if (target == null) 
+            {
+                results.add(new OrderStatusTransitionResult(i, transition.orderId(), OrderStatusTransitionResult.REJECTED, null, null, "O status fornecido é inválido. Status permitidos: " + OrderStatus.ALLOWED_VALUES));
+                continue;
+            }
+
+            OrderRow row = orders.get(transition.orderId());
+            if (row == null) 
+            {
+                results.add(new OrderStatusTransitionResult(i, transition.orderId(), OrderStatusTransitionResult.NOT_FOUND, null, target, "Pedido não encontrado."));
+                continue;
+            }
+            if (!row.status.canTransitionTo(target)) 
+            {
+                results.add(new OrderStatusTransitionResult(i, row.orderId, OrderStatusTransitionResult.REJECTED, row.status, target, "Transição de status inválida: " + row.status + " -> " + target + "."));
+                continue;
+            }
+
+            OrderStatus from = row.status;
+            statusHistory.record(row.orderId, from, target, OrderStatusHistoryWriter.SOURCE_BULK);
+            outbox.recordOrder(OutboxWriter.orderEventFor(target), row.orderId, row.customerId, target, row.totalAmount);
+            results.add(new OrderStatusTransitionResult(i, row.orderId, OrderStatusTransitionResult.APPLIED, from, target, null));
+            row.status = target;
+            row.changed = true;
+            applied++;
+            if (target == OrderStatus.CANCELLED) 
+            {
+                cancellations.merge(row.customerId, new CancelledTotals(1, row.totalAmount), (current, added) -> current.add(added.amount()));
+                if (from == OrderStatus.CONFIRMED || from == OrderStatus.CREATED) 
+                {
+                    stockToRestore.add(row.orderId);
+                }
+            }
+        }
+
+        writeChanges(orders.values());
+        stockRestorer.restore(stockToRestore);
+        if (!cancellations.isEmpty()) 
+        {
+            orderStats.recordCancellations(cancellations);
+        }
+        domainMetrics.recordOrderStatusBatch(start, applied, transitions.size() - applied);
+        return results;
+    }
+
+    private Map<Long, OrderRow> lockOrders(Set<Long> ids) 
+    {
+        Map<Long, OrderRow> rows = new HashMap<>();
+        List<Long> idList = new ArrayList<>(ids);
+        idList.sort(null);
+        for (int from = 0; from < idList.size(); from += LOOKUP_SLICE) 
+        {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", idList.subList(from, Math.min(from + LOOKUP_SLICE, idList.size())));
+            // Ordem fixa de bloqueio (global, não só dentro de cada fatia) evita deadlock entre dois lotes concorrentes
+            jdbcTemplate.query("select order_id, customer_id, status, total_amount from tb_orders where order_id in (:ids) order by order_id for update",
+                parameters, rs -> {
+                    OrderRow row = new OrderRow(rs.getLong("order_id"), rs.getLong("customer_id"), OrderStatus.valueOf(rs.getString("status")), rs.getBigDecimal("total_amount"));
+                    rows.put(row.orderId, row);
+                });
+        }
+        return rows;
+    }
+
+    private void writeChanges(Iterable<OrderRow> rows) 
+    {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        Set<Long> customers = new HashSet<>();
+        for (OrderRow row : rows) 
+        {
+            if (row.changed) 
+            {
+                updates.add(new MapSqlParameterSource()
+                    .addValue("status", row.status.name())
+                    .addValue("updatedAt", now)
+                    .addValue("orderId", row.orderId));
+                customers.add(row.customerId);
+            }
+        }
+        customers.forEach(readYourWrites::recordWrite);
+        if (!updates.isEmpty()) 
+        {
+            jdbcTemplate.batchUpdate("update tb_orders set status = :status, updated_at = :updatedAt, version = version + 1 where order_id = :orderId",
+                updates.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    private static final class OrderRow 
+    {
+        private final long orderId;
+        private final long customerId;
+        private final BigDecimal totalAmount;
+        private OrderStatus status;
+        private boolean changed;
+
+        OrderRow(long orderId, long customerId, OrderStatus status, BigDecimal totalAmount) {
+            this.orderId = orderId;
+            this.customerId = customerId;
+            this.status = status;
+            this.totalAmount = totalAmount;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.erikm.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.erikm.ecommerce.outbox.OutboxWriter;
+
+/**
+ * Devolve ao estoque os itens de pedidos cancelados que tinham estoque reservado (CREATED ou CONFIRMED).
+ * Usado pelo cancelamento de um pedido e pela transição em lote: quem chama já bloqueou os pedidos,
+ * então os itens não mudam; os produtos são bloqueados em ordem de id, como no PendingOrderAllocator,
+ * e atualizados em batch.
+ */
+@Component
+public class OrderStockRestorer 
+{
+    private static final int LOOKUP_SLICE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final OutboxWriter outbox;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderStockRestorer(NamedParameterJdbcTemplate jdbcTemplate, OutboxWriter outbox, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void restore(List<Long> orderIds) 
+    {
+        if (orderIds.isEmpty()) 
+        {
+            return;
+        }
+
+        Map<Long, Long> returned = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += LOOKUP_SLICE) 
+        {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", orderIds.subList(from, Math.min(from + LOOKUP_SLICE, orderIds.size())));
+            jdbcTemplate.query("select product_id, sum(quantity) as quantity from tb_order_items where order_id in (:ids) group by product_id",
+                parameters, rs -> {
+                    returned.merge(rs.getLong("product_id"), rs.getLong("quantity"), Long::sum);
+                });
+        }
+
+        List<Long> productIds = new ArrayList<>(returned.keySet());
+        productIds.sort(null);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        Set<String> replenished = new HashSet<>();
+        for (int from = 0; from < productIds.size(); from += LOOKUP_SLICE) 
+        {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", productIds.subList(from, Math.min(from + LOOKUP_SLICE, productIds.size())));
+            // Mesma ordem de bloqueio do StockAdjustmentService: pedidos primeiro, depois produtos por id
+            jdbcTemplate.query("select product_id, sku, stock_quantity from tb_products where product_id in (:ids) order by product_id for update",
+                parameters, rs -> {
+                    long productId = rs.getLong("product_id");
+                    int previousStock = rs.getInt("stock_quantity");
+                    int stock = Math.toIntExact(previousStock + returned.get(productId));
+                    outbox.recordStockChanged(productId, rs.getString("sku"), previousStock, stock);
+                    if (stock > previousStock) 
+                    {
+                        replenished.add(rs.getString("sku"));
+                    }
+                    updates.add(new MapSqlParameterSource()
+                        .addValue("stock", stock)
+                        .addValue("updatedAt", now)
+                        .addValue("productId", productId));
+                });
+        }
+
+        if (!updates.isEmpty()) 
+        {
+            jdbcTemplate.batchUpdate("update tb_products set stock_quantity = :stock, updated_at = :updatedAt, version = version + 1 where product_id = :productId",
+                updates.toArray(MapSqlParameterSource[]::new));
+            eventPublisher.publishEvent(CatalogChangedEvent.products(productIds));
+        }
+        if (!replenished.isEmpty()) 
+        {
+            eventPublisher.publishEvent(new StockReplenishedEvent(replenished));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.erikm.ecommerce.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.dto.Responses.PageResponseWriter;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Páginas grandes de listagem escritas em streaming: a página é lida de um cursor numa transação
+ * read-only curta, com cada entidade desanexada do contexto de persistência, e só depois do commit é
+ * serializada direto na resposta. Assim um cliente lento não segura conexão do pool nem cursor
+ * aberto, e o JSON completo nunca fica no heap. O JSON é o mesmo de PageResponse.
+ */
+@Service
+public class PageStreamingService 
+{
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int minPageSize;
+
+    public PageStreamingService(ProductRepository productRepository, OrderRepository orderRepository, EntityManager entityManager,
+                                ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                @Value("${app.http.streaming.min-page-size:200}") int minPageSize) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // Contagem e cursor na mesma transação read-only; o nome no pacote de serviços a roteia para a réplica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(PageStreamingService.class.getName() + ".writePage");
+        this.minPageSize = minPageSize;
+    }
+
+    // Páginas pequenas continuam no caminho normal (PageResponse)
+    public boolean shouldStream(Pageable pageable) 
+    {
+        return minPageSize > 0 && pageable.isPaged() && pageable.getPageSize() >= minPageSize;
+    }
+
+    public int writeActiveProducts(Pageable pageable, OutputStream output) 
+    {
+        return writePage(pageable, output, productRepository::countByIsActiveTrue, () -> productRepository.streamByIsActiveTrue(pageable),
+            entityManager::detach);
+    }
+
+    public int writeOrders(Pageable pageable, OutputStream output) 
+    {
+        return writePage(pageable, output, orderRepository::count, () -> orderRepository.streamAll(pageable), order -> {
+            entityManager.detach(order);
+            entityManager.detach(order.getCustomer());
+        });
+    }
+
+    private <T> int writePage(Pageable pageable, OutputStream output, LongSupplier count, Supplier<Stream<T>> query, Consumer<T> release) 
+    {
+        List<T> content = new ArrayList<>(pageable.getPageSize());
+        Long totalElements = transactionTemplate.execute(status -> {
+            long total = count.getAsLong();
+            try (Stream<T> rows = query.get()) 
+            {
+                rows.forEach(row -> {
+                    release.accept(row);
+                    content.add(row);
+                });
+            }
+            return total;
+        });
+
+        // A escrita no cliente acontece fora da transação: a conexão já voltou para o pool
+        try 
+        {
+            return PageResponseWriter.write(objectMapper, output, pageable, totalElements == null ? 0 : totalElements, content.stream(), row -> {});
+        }
+        catch (IOException e) 
+        {
+            // Normalmente o cliente desistiu da resposta
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.erikm.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+/**
+ * Fila de SKUs com estoque reposto aguardando alocação. Os eventos só marcam o SKU; o trabalho
+ * acontece no ciclo agendado, dividido em shards por hash do SKU: shards diferentes rodam em paralelo
+ * e um mesmo SKU é sempre processado por um único shard, sem disputar os próprios bloqueios.
+ * Uma varredura periódica recoloca na fila SKUs com pedidos pendentes e estoque disponível, cobrindo
+ * eventos perdidos (restart, alterações feitas fora da aplicação).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.orders.allocation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PendingOrderAllocationWorker implements DisposableBean 
+{
+    private static final Logger log = LoggerFactory.getLogger(PendingOrderAllocationWorker.class);
+
+    private final PendingOrderAllocator allocator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int shards;
+    private final ExecutorService executor;
+    private final Set<String> dirtySkus = ConcurrentHashMap.newKeySet();
+    private final AtomicLong backlog = new AtomicLong();
+
+    public PendingOrderAllocationWorker(PendingOrderAllocator allocator, NamedParameterJdbcTemplate jdbcTemplate, DomainMetrics domainMetrics,
+                                        @Value("${app.orders.allocation.shards:4}") int shards) {
+        this.allocator = allocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = Math.max(1, shards);
+        this.executor = Executors.newFixedThreadPool(this.shards, runnable -> {
+            Thread thread = new Thread(runnable, "order-allocation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        domainMetrics.registerAllocationBacklog(backlog, dirtySkus);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockReplenished(StockReplenishedEvent event) 
+    {
+        dirtySkus.addAll(event.skus());
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.allocation.interval:5s}")
+    public void allocatePending() throws InterruptedException 
+    {
+        if (dirtySkus.isEmpty()) 
+        {
+            return;
+        }
+
+        List<List<String>> byShard = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) 
+        {
+            byShard.add(new ArrayList<>());
+        }
+        for (String sku : dirtySkus) 
+        {
+            // Remover antes de processar: uma reposição durante o ciclo marca o SKU de novo
+            if (dirtySkus.remove(sku)) 
+            {
+                byShard.get(Math.floorMod(sku.hashCode(), shards)).add(sku);
+            }
+        }
+
+        List<Future<Integer>> results = new ArrayList<>(shards);
+        for (List<String> skus : byShard) 
+        {
+            if (!skus.isEmpty()) 
+            {
+                results.add(executor.submit(() -> allocateShard(skus)));
+            }
+        }
+
+        int confirmed = 0;
+        for (Future<Integer> result : results) 
+        {
+            try 
+            {
+                confirmed += result.get();
+            }
+            catch (ExecutionException e) 
+            {
+                log.error("Falha no ciclo de alocação de pedidos pendentes", e.getCause());
+            }
+        }
+        if (confirmed > 0) 
+        {
+            log.info("{} pedidos pendentes confirmados após reposição de estoque", confirmed);
+            refreshBacklog();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.allocation.sweep-interval:5m}", initialDelayString = "${app.orders.allocation.sweep-interval:5m}")
+    public void sweep() 
+    {
+        dirtySkus.addAll(jdbcTemplate.queryForList(
+            "select distinct p.sku from tb_orders o join tb_order_items i on i.order_id = o.order_id join tb_products p on p.product_id = i.product_id "
+                + "where o.status = :pending and p.is_active = true and p.stock_quantity >= i.quantity",
+            new MapSqlParameterSource("pending", OrderStatus.PENDING.name()), String.class));
+        refreshBacklog();
+    }
+
+    public int pendingSkus() 
+    {
+        return dirtySkus.size();
+    }
+
+    private int allocateShard(List<String> skus) 
+    {
+        int confirmed = 0;
+        for (String sku : skus) 
+        {
+            try 
+            {
+                confirmed += allocator.allocate(sku);
+            }
+            catch (RuntimeException e) 
+            {
+                // Tenta de novo no próximo ciclo
+                dirtySkus.add(sku);
+                log.warn("Falha ao alocar pedidos pendentes do SKU {}: {}", sku, e.getMessage());
+            }
+        }
+        return confirmed;
+    }
+
+    private void refreshBacklog() 
+    {
+        Long pending = jdbcTemplate.queryForObject("select count(*) from tb_orders where status = :pending",
+            new MapSqlParameterSource("pending", OrderStatus.PENDING.name()), Long.class);
+        backlog.set(pending == null ? 0 : pending);
+    }
+
+    @Override
+    public void destroy() 
+    {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,244 @@
+package com.erikm.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+
+/**
+ * Confirma pedidos PENDING de um SKU em ordem de chegada (FIFO por order_id). Cada lote roda em uma
+ * transação: os pedidos candidatos e todos os produtos que eles usam são bloqueados com
+ * SELECT ... FOR UPDATE, o estoque é reservado em memória e gravado em batch junto com a mudança
+ * de status. Um pedido só é confirmado se todos os seus itens tiverem estoque; se faltar justamente
+ * o SKU da fila, a fila para ali para não furar a ordem dos pedidos mais antigos.
+ * O estoque faz parte do JSON dos produtos, então os produtos alterados são purgados da CDN após o commit.
+ */
+@Service
+public class PendingOrderAllocator 
+{
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderStatusHistoryWriter statusHistory;
+    private final ReadYourWritesTracker readYourWrites;
+    private final OutboxWriter outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainMetrics domainMetrics;
+    private final int batchSize;
+
+    public PendingOrderAllocator(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 OrderStatusHistoryWriter statusHistory, ReadYourWritesTracker readYourWrites, OutboxWriter outbox,
+                                 ApplicationEventPublisher eventPublisher, DomainMetrics domainMetrics,
+                                 @Value("${app.orders.allocation.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("PendingOrderAllocator.allocate");
+        this.statusHistory = statusHistory;
+        this.readYourWrites = readYourWrites;
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+        this.domainMetrics = domainMetrics;
+        this.batchSize = batchSize;
+    }
+
+    // Retorna quantos pedidos foram confirmados
+    public int allocate(String sku) 
+    {
+        int confirmed = 0;
+        long afterOrderId = 0;
+        while (true) 
+        {
+            long cursor = afterOrderId;
+            BatchResult result = transactionTemplate.execute(status -> allocateBatch(sku, cursor));
+            confirmed += result.confirmed();
+            if (result.lastOrderId() == null) 
+            {
+                return confirmed;
+            }
+            afterOrderId = result.lastOrderId();
+        }
+    }
+
+    // lastOrderId nulo encerra a fila; senão o próximo lote continua a partir dele (pedidos pulados não são revisitados)
+    private BatchResult allocateBatch(String sku, long afterOrderId) 
+    {
+        List<Long> queue = jdbcTemplate.queryForList(
+            "select distinct o.order_id from tb_orders o join tb_order_items i on i.order_id = o.order_id join tb_products p on p.product_id = i.product_id "
+                + "where p.sku = :sku and o.status = :pending and o.order_id > :after order by o.order_id limit :limit",
+            new MapSqlParameterSource("sku", sku).addValue("pending", OrderStatus.PENDING.name()).addValue("after", afterOrderId).addValue("limit", batchSize), Long.class);
+        if (queue.isEmpty()) 
+        {
+            return new BatchResult(0, null);
+        }
+        Long next = queue.size() == batchSize ? queue.get(queue.size() - 1) : null;
+
+        // Bloqueio sempre em ordem de id (pedidos, depois produtos), igual às demais operações em lote
+        Map<Long, PendingOrder> orders = new LinkedHashMap<>();
+        jdbcTemplate.query("select order_id, customer_id, total_amount, created_at from tb_orders where order_id in (:ids) and status = :pending order by order_id for update",
+            new MapSqlParameterSource("ids", queue).addValue("pending", OrderStatus.PENDING.name()), rs -> {
+                orders.put(rs.getLong("order_id"), new PendingOrder(rs.getLong("order_id"), rs.getLong("customer_id"), rs.getBigDecimal("total_amount"), rs.getTimestamp("created_at").toLocalDateTime()));
+            });
+        if (orders.isEmpty()) 
+        {
+            return new BatchResult(0, next);
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        jdbcTemplate.query("select order_id, product_id, quantity from tb_order_items where order_id in (:ids)",
+            new MapSqlParameterSource("ids", orders.keySet()), rs -> {
+                long productId = rs.getLong("product_id");
+                orders.get(rs.getLong("order_id")).needs.merge(productId, rs.getInt("quantity"), Integer::sum);
+                productIds.add(productId);
+            });
+
+        Map<Long, StockRow> stock = new HashMap<>();
+        Long[] queueProduct = new Long[1];
+        jdbcTemplate.query("select product_id, sku, stock_quantity from tb_products where product_id in (:ids) and is_active = true order by product_id for update",
+            new MapSqlParameterSource("ids", productIds), rs -> {
+                StockRow row = new StockRow(rs.getLong("product_id"), rs.getString("sku"), rs.getInt("stock_quantity"));
+                stock.put(row.productId, row);
+                if (sku.equals(rs.getString("sku"))) 
+                {
+                    queueProduct[0] = row.productId;
+                }
+            });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingOrder> allocated = new ArrayList<>();
+        boolean blocked = false;
+        for (PendingOrder order : orders.values()) 
+        {
+            Long missing = firstMissing(order, stock);
+            if (missing == null) 
+            {
+                order.needs.forEach((productId, quantity) -> {
+                    StockRow row = stock.get(productId);
+                    row.stock -= quantity;
+                    row.changed = true;
+                });
+                allocated.add(order);
+            }
+            else if (missing.equals(queueProduct[0]) || queueProduct[0] == null) 
+            {
+                blocked = true;
+                break;
+            }
+            // Falta outro SKU: o pedido espera na fila daquele SKU e não bloqueia esta
+        }
+
+        write(allocated, stock.values(), now);
+        return new BatchResult(allocated.size(), blocked ? null : next);
+    }
+
+    private static Long firstMissing(PendingOrder order, Map<Long, StockRow> stock) 
+    {
+        for (Map.Entry<Long, Integer> need : order.needs.entrySet()) 
+        {
+            StockRow row = stock.get(need.getKey());
+            if (row == null || row.stock < need.getValue()) 
+            {
+                return need.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void write(List<PendingOrder> allocated, Iterable<StockRow> rows, LocalDateTime now) 
+    {
+        if (allocated.isEmpty()) 
+        {
+            return;
+        }
+
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<MapSqlParameterSource> stockUpdates = new ArrayList<>();
+        List<Long> changedProducts = new ArrayList<>();
+        for (StockRow row : rows) 
+        {
+            if (row.changed) 
+            {
+                outbox.recordStockChanged(row.productId, row.sku, row.originalStock, row.stock);
+                changedProducts.add(row.productId);
+                stockUpdates.add(new MapSqlParameterSource()
+                    .addValue("stock", row.stock)
+                    .addValue("updatedAt", updatedAt)
+                    .addValue("productId", row.productId));
+            }
+        }
+        jdbcTemplate.batchUpdate("update tb_products set stock_quantity = :stock, updated_at = :updatedAt, version = version + 1 where product_id = :productId",
+            stockUpdates.toArray(MapSqlParameterSource[]::new));
+        eventPublisher.publishEvent(CatalogChangedEvent.products(changedProducts));
+
+        List<MapSqlParameterSource> orderUpdates = new ArrayList<>(allocated.size());
+        Set<Long> customers = new HashSet<>();
+        for (PendingOrder order : allocated) 
+        {
+            orderUpdates.add(new MapSqlParameterSource()
+                .addValue("status", OrderStatus.CONFIRMED.name())
+                .addValue("updatedAt", updatedAt)
+                .addValue("orderId", order.orderId));
+            statusHistory.record(order.orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatusHistoryWriter.SOURCE_ALLOCATION);
+            outbox.recordOrder(OutboxWriter.ORDER_CONFIRMED, order.orderId, order.customerId, OrderStatus.CONFIRMED, order.totalAmount);
+            customers.add(order.customerId);
+            domainMetrics.recordPendingOrderAllocated(Duration.between(order.createdAt, now));
+        }
+        jdbcTemplate.batchUpdate("update tb_orders set status = :status, updated_at = :updatedAt, version = version + 1 where order_id = :orderId",
+            orderUpdates.toArray(MapSqlParameterSource[]::new));
+        customers.forEach(readYourWrites::recordWrite);
+    }
+
+    private record BatchResult(int confirmed, Long lastOrderId) {
+
+    }
+
+    private static final class PendingOrder 
+    {
+        private final long orderId;
+        private final long customerId;
+        private final BigDecimal totalAmount;
+        private final LocalDateTime createdAt;
+        private final Map<Long, Integer> needs = new LinkedHashMap<>();
+
+        PendingOrder(long orderId, long customerId, BigDecimal totalAmount, LocalDateTime createdAt) {
+            this.orderId = orderId;
+            this.customerId = customerId;
+            this.totalAmount = totalAmount;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class StockRow 
+    {
+        private final long productId;
+        private final String sku;
+        private final int originalStock;
+        private int stock;
+        private boolean changed;
+
+        StockRow(long productId, String sku, int stock) {
+            this.productId = productId;
+            this.sku = sku;
+            this.originalStock = stock;
+            this.stock = stock;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.erikm.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.ProductDTO;
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Lê o arquivo de importação registro a registro, sem materializá-lo em memória. Erros de
+ * formato de uma linha viram um Row com error preenchido; só um cabeçalho CSV inválido
+ * interrompe a leitura.
+ */
+public final class ProductImportParser 
+{
+    public record Row(long line, ProductDTO product, String error) {
+
+    }
+
+    static final List<String> CSV_COLUMNS = List.of("sku", "name", "description", "price", "stockquantity", "category");
+
+    private ProductImportParser() 
+    {
+
+    }
+
+    public static void parse(BufferedReader reader, FileFormat format, ObjectMapper objectMapper, Consumer<Row> consumer) throws IOException 
+    {
+        if (format == FileFormat.NDJSON) 
+        {
+            parseNdjson(reader, objectMapper, consumer);
+        } 
+        else 
+        {
+            parseCsv(reader, consumer);
+        }
+    }
+
+    private static void parseNdjson(BufferedReader reader, ObjectMapper objectMapper, Consumer<Row> consumer) throws IOException 
+    {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) 
+        {
+            lineNumber++;
+            if (line.isBlank()) 
+            {
+                continue;
+            }
+            try 
+            {
+                consumer.accept(new Row(lineNumber, objectMapper.readValue(line, ProductDTO.class), null));
+            } 
+            catch (JsonProcessingException e) 
+            {
+                consumer.accept(new Row(lineNumber, null, "JSON inválido: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private static void parseCsv(BufferedReader reader, Consumer<Row> consumer) throws IOException 
+    {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) 
+        {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) 
+        {
+            String name = header.get(i).strip().replace("_", "").toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) 
+            {
+                name = name.substring(1);
+            }
+            columns.put(name, i);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column) && !"description".equals(column)).toList();
+        if (!missing.isEmpty()) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cabeçalho CSV inválido. Colunas obrigatórias ausentes: " + missing);
+        }
+
+        List<String> record;
+        while (true) 
+        {
+            long lineNumber = csv.line;
+            record = csv.next();
+            if (record == null) 
+            {
+                return;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) 
+            {
+                continue;
+            }
+            consumer.accept(toRow(lineNumber, record, columns));
+        }
+    }
+
+    private static Row toRow(long lineNumber, List<String> record, Map<String, Integer> columns) 
+    {
+        String sku = field(record, columns, "sku");
+        BigDecimal price;
+        Integer stockQuantity;
+        try 
+        {
+            String rawPrice = field(record, columns, "price");
+            price = rawPrice == null ? null : new BigDecimal(rawPrice);
+        } 
+        catch (NumberFormatException e) 
+        {
+            return new Row(lineNumber, new ProductDTO(null, null, null, null, null, sku), "Preço inválido: " + field(record, columns, "price"));
+        }
+        try 
+        {
+            String rawStock = field(record, columns, "stockquantity");
+            stockQuantity = rawStock == null ? null : Integer.valueOf(rawStock);
+        } 
+        catch (NumberFormatException e) 
+        {
+            return new Row(lineNumber, new ProductDTO(null, null, null, null, null, sku), "Quantidade em estoque inválida: " + field(record, columns, "stockquantity"));
+        }
+
+        ProductDTO product = new ProductDTO(field(record, columns, "name"), field(record, columns, "description"),
+            price, stockQuantity, field(record, columns, "category"), sku);
+        return new Row(lineNumber, product, null);
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) 
+    {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) 
+        {
+            return null;
+        }
+        String value = record.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180: campos entre aspas podem conter vírgulas, quebras de linha e aspas duplicadas ("")
+    static final class CsvReader 
+    {
+        private final BufferedReader reader;
+        long line = 1;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException 
+        {
+            int c = reader.read();
+            if (c == -1) 
+            {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) 
+            {
+                if (quoted) 
+                {
+                    if (c == '"') 
+                    {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') 
+                        {
+                            field.append('"');
+                        } 
+                        else 
+                        {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } 
+                    else 
+                    {
+                        if (c == '\n') 
+                        {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } 
+                else if (c == '"' && field.isEmpty()) 
+                {
+                    quoted = true;
+                } 
+                else if (c == ',') 
+                {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } 
+                else if (c == '\r' || c == '\n') 
+                {
+                    if (c == '\r') 
+                    {
+                        reader.mark(1);
+                        if (reader.read() != '\n') 
+                        {
+                            reader.reset();
+                        }
+                    }
+                    line++;
+                    break;
+                } 
+                else 
+                {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
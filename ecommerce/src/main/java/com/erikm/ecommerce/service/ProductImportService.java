@@ -0,0 +1,327 @@
+package com.erikm.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.ProductDTO;
+import com.erikm.ecommerce.dto.Responses.ProductImportError;
+import com.erikm.ecommerce.dto.Responses.ProductImportReport;
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Importação em massa de produtos. O arquivo é lido em streaming e processado em lotes:
+ * cada lote é validado, tem seus SKUs existentes buscados (e bloqueados) numa única consulta e é gravado
+ * com INSERT/UPDATE em batch JDBC dentro da sua própria transação, junto com os eventos StockChanged
+ * do outbox para os produtos atualizados cujo estoque mudou. Um lote com falha de
+ * banco não desfaz os anteriores; suas linhas entram no relatório de erros.
+ */
+@Service
+@Observed(name = "app.service")
+public class ProductImportService 
+{
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_SQL = "insert into tb_products (name, description, price, stock_quantity, category_id, sku, is_active, created_at, updated_at, version) values (?, ?, ?, ?, ?, ?, true, ?, ?, 0)";
+    // is_active fica como está: importar um SKU desativado atualiza os dados sem reativá-lo
+    private static final String UPDATE_SQL = "update tb_products set name = ?, description = ?, price = ?, stock_quantity = ?, category_id = ?, updated_at = ?, version = version + 1 where sku = ?";
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DomainMetrics domainMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outbox;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, DomainMetrics domainMetrics, ApplicationEventPublisher eventPublisher, OutboxWriter outbox,
+                                @Value("${app.products.import.chunk-size:1000}") int chunkSize,
+                                @Value("${app.products.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.domainMetrics = domainMetrics;
+        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public FileFormat resolveFormat(String format, String filename) 
+    {
+        if (format != null && !format.isBlank()) 
+        {
+            try 
+            {
+                return FileFormat.valueOf(format.strip().toUpperCase(Locale.ROOT));
+            } 
+            catch (IllegalArgumentException e) 
+            {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de importação inválido. Formatos permitidos: " + java.util.Arrays.toString(FileFormat.values()));
+            }
+        }
+
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) 
+        {
+            return FileFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) 
+        {
+            return FileFormat.NDJSON;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Não foi possível identificar o formato do arquivo. Informe format=CSV ou format=NDJSON.");
+    }
+
+    public ProductImportReport importProducts(InputStream input, FileFormat format) 
+    {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress(maxReportedErrors);
+        Map<String, Long> categories = loadCategories();
+        List<ProductImportParser.Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024)) 
+        {
+            ProductImportParser.parse(reader, format, objectMapper, row -> {
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) 
+                {
+                    writeChunk(chunk, categories, progress);
+                    chunk.clear();
+                }
+            });
+            writeChunk(chunk, categories, progress);
+        } 
+        catch (IOException e) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falha ao ler o arquivo de importação: " + e.getMessage());
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        domainMetrics.recordProductImport(start, progress.inserted, progress.updated, progress.failed);
+        log.info("Importação de produtos: {} linhas, {} inseridos, {} atualizados, {} com erro em {}ms",
+            progress.totalRows, progress.inserted, progress.updated, progress.failed, elapsedMs);
+
+        return new ProductImportReport(progress.totalRows, progress.inserted, progress.updated, progress.failed,
+            progress.errors, progress.failed > progress.errors.size(), elapsedMs);
+    }
+
+    private Map<String, Long> loadCategories() 
+    {
+        Map<String, Long> categories = new HashMap<>();
+        jdbcTemplate.getJdbcTemplate().query("select category_id, name from tb_categories where is_active = true",
+            rs -> { categories.put(rs.getString("name").toLowerCase(Locale.ROOT), rs.getLong("category_id")); });
+        return categories;
+    }
+
+    private void writeChunk(List<ProductImportParser.Row> chunk, Map<String, Long> categories, ImportProgress progress) 
+    {
+        if (chunk.isEmpty()) 
+        {
+            return;
+        }
+
+        // Dentro do mesmo lote, a última ocorrência de um SKU vence (igual ao que acontece entre lotes);
+        // as anteriores contam como atualizações sobrescritas
+        Map<String, PendingRow> pending = new LinkedHashMap<>();
+        for (ProductImportParser.Row row : chunk) 
+        {
+            progress.totalRows++;
+            String error = row.error() != null ? row.error() : validate(row.product(), categories);
+            if (error != null) 
+            {
+                progress.fail(row.line(), row.product() == null ? null : row.product().sku(), error);
+                continue;
+            }
+            PendingRow replaced = pending.get(row.product().sku());
+            pending.put(row.product().sku(), new PendingRow(row.line(), row.product(),
+                categories.get(row.product().category().toLowerCase(Locale.ROOT)), replaced == null ? 1 : replaced.occurrences() + 1));
+        }
+        if (pending.isEmpty()) 
+        {
+            return;
+        }
+
+        try 
+        {
+            long[] written = transactionTemplate.execute(status -> upsert(pending));
+            progress.inserted += written[0];
+            progress.updated += written[1];
+        } 
+        catch (DataAccessException e) 
+        {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Lote de importação descartado ({} linhas): {}", pending.size(), cause);
+            pending.values().forEach(row -> progress.fail(row.line(), row.product().sku(), "Falha ao gravar o lote: " + cause, row.occurrences()));
+        }
+    }
+
+    private long[] upsert(Map<String, PendingRow> pending) 
+    {
+        // Bloqueados em ordem de id, como nos ajustes de estoque: o estoque lido aqui é o anterior publicado no outbox
+        Map<String, ExistingProduct> existing = new HashMap<>();
+        jdbcTemplate.query("select product_id, sku, stock_quantity from tb_products where sku in (:skus) order by product_id for update",
+            Map.of("skus", pending.keySet()), rs -> {
+                existing.put(rs.getString("sku"), new ExistingProduct(rs.getLong("product_id"), rs.getInt("stock_quantity")));
+            });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>(pending.size() - existing.size());
+        List<Object[]> updates = new ArrayList<>(existing.size());
+        Set<String> replenished = new HashSet<>();
+        long overwritten = 0;
+        for (PendingRow row : pending.values()) 
+        {
+            ProductDTO product = row.product();
+            overwritten += row.occurrences() - 1;
+            ExistingProduct current = existing.get(product.sku());
+            if (current != null) 
+            {
+                updates.add(new Object[] { product.name(), product.description(), product.price(), product.stockQuantity(), row.categoryId(), now, product.sku() });
+                outbox.recordStockChanged(current.productId(), product.sku(), current.stockQuantity(), product.stockQuantity());
+                if (product.stockQuantity() > current.stockQuantity()) 
+                {
+                    replenished.add(product.sku());
+                }
+            } 
+            else 
+            {
+                inserts.add(new Object[] { product.name(), product.description(), product.price(), product.stockQuantity(), row.categoryId(), product.sku(), now, now });
+            }
+        }
+
+        if (!inserts.isEmpty()) 
+        {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, inserts);
+        }
+        if (!updates.isEmpty()) 
+        {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_SQL, updates);
+        }
+        if (!replenished.isEmpty()) 
+        {
+            eventPublisher.publishEvent(new StockReplenishedEvent(replenished));
+        }
+        if (!inserts.isEmpty() || !updates.isEmpty()) 
+        {
+            eventPublisher.publishEvent(CatalogChangedEvent.allProducts());
+        }
+        return new long[] { inserts.size(), updates.size() + overwritten };
+    }
+
+    // Mesmas regras das anotações de validação de Product, sem instanciar a entidade
+    static String validate(ProductDTO product, Map<String, Long> categories) 
+    {
+        if (product.sku() == null || product.sku().length() < 3 || product.sku().length() > 50) 
+        {
+            return "O SKU deve ter entre 3 e 50 caracteres.";
+        }
+        if (product.name() == null || product.name().isBlank()) 
+        {
+            return "O nome do produto é obrigatório e não pode estar em branco.";
+        }
+        if (product.name().length() < 3 || product.name().length() > 100) 
+        {
+            return "O nome do produto deve ter entre 3 e 100 caracteres.";
+        }
+        if (product.description() != null && product.description().length() > 500) 
+        {
+            return "A descrição do produto não pode exceder 500 caracteres.";
+        }
+        if (product.price() == null) 
+        {
+            return "O preço do produto é obrigatório.";
+        }
+        if (product.price().compareTo(new BigDecimal("0.01")) < 0) 
+        {
+            return "O preço do produto deve ser maior que zero.";
+        }
+        if (product.price().scale() > 2 || product.price().compareTo(MAX_PRICE) > 0) 
+        {
+            return "O preço do produto deve ter no máximo 8 dígitos inteiros e 2 casas decimais.";
+        }
+        if (product.stockQuantity() == null) 
+        {
+            return "A quantidade em estoque é obrigatória.";
+        }
+        if (product.stockQuantity() < 0) 
+        {
+            return "A quantidade em estoque não pode ser negativa.";
+        }
+        if (product.category() == null || !categories.containsKey(product.category().toLowerCase(Locale.ROOT))) 
+        {
+            return "Categoria não encontrada: " + product.category();
+        }
+        return null;
+    }
+
+    private record PendingRow(long line, ProductDTO product, Long categoryId, int occurrences) {
+
+    }
+
+    private record ExistingProduct(long productId, int stockQuantity) {
+
+    }
+
+    private static final class ImportProgress 
+    {
+        private final int maxReportedErrors;
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long inserted;
+        private long updated;
+        private long failed;
+
+        ImportProgress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void fail(long line, String sku, String message) 
+        {
+            fail(line, sku, message, 1);
+        }
+
+        void fail(long line, String sku, String message, int rows) 
+        {
+            failed += rows;
+            if (errors.size() < maxReportedErrors) 
+            {
+                errors.add(new ProductImportError(line, sku, message));
+            }
+        }
+    }
+}
@@ -1,34 +1,64 @@
 package com.erikm.ecommerce.service;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.erikm.ecommerce.config.OptimisticRetry;
 import com.erikm.ecommerce.dto.ProductDTO;
 import com.erikm.ecommerce.model.Category;
 import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
 import com.erikm.ecommerce.repository.ProductRepository;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "app.service")
 public class ProductService 
 {
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
     private final ModelMapper modelMapper;
+    private final DomainMetrics domainMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outbox;
+    private final SingleFlight<Long, Product> productLookups;
+    private final CatalogPriceIndex priceIndex;
     
     public ProductService(ProductRepository productRepository, CategoryService categoryService,
-            ModelMapper modelMapper) {
+            ModelMapper modelMapper, DomainMetrics domainMetrics, ApplicationEventPublisher eventPublisher,
+            OutboxWriter outbox, PlatformTransactionManager transactionManager, CatalogPriceIndex priceIndex) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
         this.modelMapper = modelMapper;
+        this.domainMetrics = domainMetrics;
+        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.productLookups = new SingleFlight<>("products", domainMetrics, transactionManager, ProductService.class.getName() + ".findProductById");
+        this.priceIndex = priceIndex;
     }
 
+    @Transactional
     public Product createNewProduct(ProductDTO productDTO) 
     {
         Optional<Product> productFromDB = productRepository.findBySkuAndIsActiveTrue(productDTO.sku());
@@ -48,90 +78,187 @@ public class ProductService
         newProduct.setCategory(categoryFromDB);
         newProduct.setSku(productDTO.sku());
 
-        return productRepository.save(newProduct);
+        Product saved = productRepository.save(newProduct);
+        catalogChanged(saved.getProductId());
+        return saved;
     }
 
+    // SUPPORTS: sem transação do chamador, só a consulta do single-flight abre uma (e pega conexão)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Product findProductById(Long productId) 
     {
-        return productRepository.findByProductIdAndIsActiveTrue(productId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado."));
+        return productLookups.load(productId, () -> productRepository.findByProductIdAndIsActiveTrue(productId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado.")));
     }
 
+    @Transactional(readOnly = true)
     public Product findProductBySku(String productSku) 
     {
         return productRepository.findBySkuAndIsActiveTrue(productSku)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto de SKU Nº: " + productSku + " não encontrado no sistema."));
     }
 
+    // Validador das listagens de produtos: o JSON de cada produto inclui a categoria, então as duas tabelas contam
+    @Transactional(readOnly = true)
+    public List<ResourceVersion> findProductsVersion() 
+    {
+        return List.of(productRepository.findVersion(), categoryService.findCategoriesVersion());
+    }
+
+    @Transactional(readOnly = true)
     public Page<Product> findAllProducts(Pageable pageable) 
     {
-        return productRepository.findByIsActiveTrue(pageable);
+        return fromPriceIndex(null, null, null, pageable)
+            .orElseGet(() -> productRepository.findByIsActiveTrue(pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<Product> findProductsByCategory(String categoryName, Pageable pageable) 
     {
         return productRepository.findByCategoryNameContainingIgnoreCaseAndIsActiveTrue(categoryName, pageable);
     }
 
 
+    @OptimisticRetry
+    @Transactional
     public Product editProduct(Long productId, ProductDTO productDTO) 
     {
         Product productFromDB = productRepository.findByProductIdAndIsActiveTrue(productId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado."));
 
         Category categoryFromDB = categoryService.findCategoryByName(productDTO.category());
+        int previousStock = productFromDB.getStockQuantity();
 
         productFromDB.setName(productDTO.name());
         productFromDB.setDescription(productDTO.description());
         productFromDB.setPrice(productDTO.price());
         productFromDB.setStockQuantity(productDTO.stockQuantity());
         productFromDB.setCategory(categoryFromDB);
+        stockChanged(productFromDB, previousStock);
+        catalogChanged(productId);
             
         return productRepository.save(productFromDB);
     }
 
+    @OptimisticRetry
+    @Transactional
     public Product editStock(Long productId, Integer stockQuantity) 
+    {
+        long start = System.nanoTime();
+        try 
+        {
+            Product product = updateStock(productId, stockQuantity);
+            domainMetrics.recordStockEdit(start, DomainMetrics.OUTCOME_SUCCESS);
+            return product;
+        } 
+        catch (ResponseStatusException e) 
+        {
+            domainMetrics.recordStockEdit(start, e.getStatusCode() == HttpStatus.NOT_FOUND ? DomainMetrics.OUTCOME_NOT_FOUND : DomainMetrics.OUTCOME_REJECTED);
+            throw e;
+        }
+    }
+
+    private Product updateStock(Long productId, Integer stockQuantity) 
     {
         Product product =  productRepository.findByProductIdAndIsActiveTrue(productId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado."));
 
-        if (stockQuantity < 0)
+        if (stockQuantity < 0) 
         {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estoque não pode ser negativo.");
         }
 
+        int previousStock = product.getStockQuantity();
         product.setStockQuantity(stockQuantity);
+        stockChanged(product, previousStock);
+        catalogChanged(productId);
         return productRepository.save(product);
     }
 
+    // StockChanged vai para o outbox; numa reposição, os pedidos PENDING do SKU são reavaliados
+    // pelo PendingOrderAllocationWorker depois do commit
+    private void stockChanged(Product product, int previousStock) 
+    {
+        if (product.getStockQuantity() == null) 
+        {
+            return;
+        }
+        outbox.recordStockChanged(product.getProductId(), product.getSku(), previousStock, product.getStockQuantity());
+        if (product.getStockQuantity() > previousStock) 
+        {
+            eventPublisher.publishEvent(new StockReplenishedEvent(Set.of(product.getSku())));
+        }
+    }
+
+    @Transactional
     public Product deleteProduct(Long productId) 
     {
         Product productFromDB = productRepository.findByProductIdAndIsActiveTrue(productId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado."));
 
         productFromDB.setIsActive(false);
+        catalogChanged(productId);
         return productRepository.save(productFromDB);
     }
 
+    // As respostas em cache na CDN são purgadas pelo CdnPurgeListener depois do commit
+    private void catalogChanged(Long productId) 
+    {
+        eventPublisher.publishEvent(CatalogChangedEvent.products(List.of(productId)));
+    }
+
     
+    @Transactional(readOnly = true)
     public Page<Product> findProductsByName(String name, Pageable pageable) 
     {
         return productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(name, pageable);
     }
 
     
+    @Transactional(readOnly = true)
     public Page<Product> findProductsByCategory(Long categoryId, Pageable pageable) 
     {
-        return productRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId, pageable);
+        return fromPriceIndex(categoryId, null, null, pageable)
+            .orElseGet(() -> productRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId, pageable));
     }
 
    
+    @Transactional(readOnly = true)
     public Page<Product> findProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) 
     {
-        return productRepository.findByPriceBetweenAndIsActiveTrue(minPrice, maxPrice, pageable);
+        return fromPriceIndex(null, minPrice, maxPrice, pageable)
+            .orElseGet(() -> productRepository.findByPriceBetweenAndIsActiveTrue(minPrice, maxPrice, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Product> findProductsByCategoryAndPriceRange(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) 
+    {
+        return fromPriceIndex(categoryId, minPrice, maxPrice, pageable)
+            .orElseGet(() -> productRepository.findByCategoryCategoryIdAndPriceBetweenAndIsActiveTrue(categoryId, minPrice, maxPrice, pageable));
+    }
+
+    // O índice devolve só os ids da página; uma consulta por chave primária traz as entidades e a ordem é refeita aqui.
+    // Um produto desativado depois da última atualização do índice sai da página em vez de aparecer inativo
+    private Optional<Page<Product>> fromPriceIndex(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) 
+    {
+        return priceIndex.findIds(categoryId, minPrice, maxPrice, pageable).map(ids -> {
+            if (ids.getContent().isEmpty()) 
+            {
+                return new PageImpl<>(List.<Product>of(), pageable, ids.getTotalElements());
+            }
+            Map<Long, Product> byId = productRepository.findWithCategoryByProductIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+            List<Product> content = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                .toList();
+            return new PageImpl<>(content, pageable, ids.getTotalElements());
+        });
     }
 
     
+    @Transactional(readOnly = true)
     public Page<Product> findProductsByNameAndCategory(String name, Long categoryId, Pageable pageable) 
     {
         return productRepository.findByNameContainingIgnoreCaseAndCategoryCategoryIdAndIsActiveTrue(name, categoryId, pageable);
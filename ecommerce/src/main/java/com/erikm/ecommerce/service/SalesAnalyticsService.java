@@ -0,0 +1,119 @@
+package com.erikm.ecommerce.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.Responses.SalesSummary;
+import com.erikm.ecommerce.model.Enums.SalesDimension;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Consultas de vendas respondidas só a partir de tb_sales_rollups (nunca de tb_orders): o custo
+ * depende do número de dias e categorias/produtos no período, não do número de pedidos. Os dados
+ * ficam atrasados em relação aos pedidos no máximo um ciclo do SalesRollupService.
+ */
+@Service
+@Observed(name = "app.service")
+public class SalesAnalyticsService 
+{
+    private static final String SUMS = "sum(r.orders) as orders, sum(r.units) as units, sum(r.revenue) as revenue";
+    private static final String PERIOD = "r.dimension = :dimension and r.sales_date >= :from and r.sales_date <= :to";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxTopSellers;
+
+    public SalesAnalyticsService(NamedParameterJdbcTemplate jdbcTemplate, @Value("${app.analytics.max-top-sellers:100}") int maxTopSellers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxTopSellers = maxTopSellers;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesSummary> findSales(LocalDate from, LocalDate to, String groupBy) 
+    {
+        validatePeriod(from, to);
+        SalesDimension dimension = parseDimension(groupBy);
+        MapSqlParameterSource parameters = period(from, to, dimension);
+        return switch (dimension) 
+        {
+            case DAY -> jdbcTemplate.query(
+                "select r.sales_date, " + SUMS + " from tb_sales_rollups r where " + PERIOD + " group by r.sales_date order by r.sales_date",
+                parameters, (rs, rowNum) -> summary(rs, rs.getObject("sales_date", LocalDate.class), null, null));
+            case CATEGORY -> jdbcTemplate.query(
+                "select r.dimension_id, c.name, " + SUMS + " from tb_sales_rollups r left join tb_categories c on c.category_id = r.dimension_id "
+                    + "where " + PERIOD + " group by r.dimension_id, c.name order by revenue desc, r.dimension_id",
+                parameters, (rs, rowNum) -> summary(rs, null, rs.getLong("dimension_id"), rs.getString("name")));
+            case PRODUCT -> topProducts(parameters, "revenue", Integer.MAX_VALUE);
+        };
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesSummary> findTopSellers(LocalDate from, LocalDate to, String metric, int limit) 
+    {
+        validatePeriod(from, to);
+        String orderBy = metric == null ? "revenue" : metric.toLowerCase(Locale.ROOT);
+        if (!orderBy.equals("revenue") && !orderBy.equals("units") && !orderBy.equals("orders")) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Métrica inválida. Métricas permitidas: revenue, units, orders.");
+        }
+        if (limit < 1 || limit > maxTopSellers) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O limite deve estar entre 1 e " + maxTopSellers + ".");
+        }
+        return topProducts(period(from, to, SalesDimension.PRODUCT), orderBy, limit);
+    }
+
+    private List<SalesSummary> topProducts(MapSqlParameterSource parameters, String orderBy, int limit) 
+    {
+        // orderBy vem de uma lista fechada (revenue, units, orders), nunca do texto da requisição
+        return jdbcTemplate.query(
+            "select r.dimension_id, p.name, " + SUMS + " from tb_sales_rollups r left join tb_products p on p.product_id = r.dimension_id "
+                + "where " + PERIOD + " group by r.dimension_id, p.name order by " + orderBy + " desc, r.dimension_id limit :limit",
+            parameters.addValue("limit", limit), (rs, rowNum) -> summary(rs, null, rs.getLong("dimension_id"), rs.getString("name")));
+    }
+
+    private static void validatePeriod(LocalDate from, LocalDate to) 
+    {
+        if (from == null || to == null) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Os parâmetros from e to são obrigatórios (formato AAAA-MM-DD).");
+        }
+        if (to.isBefore(from)) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data final não pode ser anterior à data inicial.");
+        }
+    }
+
+    private static SalesDimension parseDimension(String groupBy) 
+    {
+        for (SalesDimension dimension : SalesDimension.values()) 
+        {
+            if (dimension.name().equalsIgnoreCase(groupBy)) 
+            {
+                return dimension;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Agrupamento inválido. Agrupamentos permitidos: day, category, product.");
+    }
+
+    private static MapSqlParameterSource period(LocalDate from, LocalDate to, SalesDimension dimension) 
+    {
+        return new MapSqlParameterSource("dimension", dimension.name()).addValue("from", from).addValue("to", to);
+    }
+
+    private static SalesSummary summary(ResultSet rs, LocalDate date, Long id, String name) throws SQLException 
+    {
+        return new SalesSummary(date, id, name, rs.getLong("orders"), rs.getLong("units"), rs.getBigDecimal("revenue"));
+    }
+}
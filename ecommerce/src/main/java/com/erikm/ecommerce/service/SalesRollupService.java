@@ -0,0 +1,157 @@
+package com.erikm.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.Responses.SalesBackfillReport;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.model.Enums.SalesDimension;
+
+/**
+ * Mantém tb_sales_rollups (vendas por dia, por categoria e por produto). O job incremental procura
+ * os dias com pedidos alterados desde o último watermark (updated_at) e recalcula esses dias
+ * inteiros com INSERT ... SELECT, então reprocessar um dia é sempre seguro. O watermark fica
+ * um pouco atrás do início da execução para pegar transações que ainda não tinham commitado.
+ * Só contam como venda pedidos CONFIRMED e DELIVERED; um cancelamento posterior tira o pedido do dia.
+ */
+@Service
+public class SalesRollupService 
+{
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    static final String WATERMARK = "sales";
+    static final List<String> SALE_STATUSES = List.of(OrderStatus.CONFIRMED.name(), OrderStatus.DELIVERED.name());
+
+    private static final String INSERT_ROLLUP = """
+        insert into tb_sales_rollups (sales_date, dimension, dimension_id, orders, units, revenue, refreshed_at)
+        select cast(o.created_at as date), :dimension, %1$s, count(distinct o.order_id), sum(i.quantity), sum(i.subtotal), :now
+          from tb_orders o
+          join tb_order_items i on i.order_id = o.order_id
+          %2$s
+         where o.created_at >= :start and o.created_at < :end and o.status in (:statuses)
+         group by cast(o.created_at as date)%3$s
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration safetyLag;
+    private final int backfillChunkDays;
+
+    public SalesRollupService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${app.analytics.rollup.safety-lag:2m}") Duration safetyLag,
+                              @Value("${app.analytics.rollup.backfill-chunk-days:31}") int backfillChunkDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(SalesRollupService.class.getName() + ".refresh");
+        this.safetyLag = safetyLag;
+        this.backfillChunkDays = Math.max(1, backfillChunkDays);
+    }
+
+    // Retorna quantos dias foram recalculados
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.interval:1m}", initialDelayString = "${app.analytics.rollup.interval:1m}")
+    public int refresh() 
+    {
+        long start = System.nanoTime();
+        Integer days = transactionTemplate.execute(status -> {
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDateTime watermark = lockWatermark();
+            List<LocalDate> changed = jdbcTemplate.queryForList(
+                "select distinct cast(created_at as date) from tb_orders where updated_at > :watermark",
+                new MapSqlParameterSource("watermark", Timestamp.valueOf(watermark)), LocalDate.class);
+            for (LocalDate day : changed) 
+            {
+                recompute(day, day.plusDays(1));
+            }
+
+            LocalDateTime next = startedAt.minus(safetyLag);
+            if (next.isAfter(watermark)) 
+            {
+                jdbcTemplate.update("update tb_rollup_watermarks set watermark = :watermark where name = :name",
+                    new MapSqlParameterSource("watermark", Timestamp.valueOf(next)).addValue("name", WATERMARK));
+            }
+            return changed.size();
+        });
+        if (days != null && days > 0) 
+        {
+            log.info("Rollups de vendas atualizados: {} dias em {}ms", days, (System.nanoTime() - start) / 1_000_000);
+        }
+        return days == null ? 0 : days;
+    }
+
+    // Recalcula um período histórico em blocos de dias, cada bloco na sua transação; não mexe no watermark
+    public SalesBackfillReport backfill(LocalDate from, LocalDate to) 
+    {
+        if (from == null || to == null) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Os parâmetros from e to são obrigatórios (formato AAAA-MM-DD).");
+        }
+        if (to.isBefore(from)) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data final não pode ser anterior à data inicial.");
+        }
+
+        long start = System.nanoTime();
+        int rows = 0;
+        LocalDate end = to.plusDays(1);
+        for (LocalDate chunk = from; chunk.isBefore(end); chunk = chunk.plusDays(backfillChunkDays)) 
+        {
+            LocalDate chunkStart = chunk;
+            LocalDate chunkEnd = chunk.plusDays(backfillChunkDays).isBefore(end) ? chunk.plusDays(backfillChunkDays) : end;
+            rows += transactionTemplate.execute(status -> {
+                lockWatermark();
+                return recompute(chunkStart, chunkEnd);
+            });
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Backfill dos rollups de vendas de {} a {}: {} linhas em {}ms", from, to, rows, elapsedMs);
+        return new SalesBackfillReport(from, to, (int) (end.toEpochDay() - from.toEpochDay()), rows, elapsedMs);
+    }
+
+    // O SELECT ... FOR UPDATE serializa job incremental e backfill (inclusive entre instâncias)
+    private LocalDateTime lockWatermark() 
+    {
+        MapSqlParameterSource name = new MapSqlParameterSource("name", WATERMARK);
+        List<Timestamp> current = jdbcTemplate.queryForList("select watermark from tb_rollup_watermarks where name = :name for update", name, Timestamp.class);
+        if (!current.isEmpty()) 
+        {
+            return current.get(0).toLocalDateTime();
+        }
+        // Primeira execução: tudo é considerado alterado
+        LocalDateTime initial = LocalDateTime.of(1970, 1, 1, 0, 0);
+        jdbcTemplate.update("insert into tb_rollup_watermarks (name, watermark) values (:name, :watermark)", name.addValue("watermark", Timestamp.valueOf(initial)));
+        return initial;
+    }
+
+    private int recompute(LocalDate from, LocalDate toExclusive) 
+    {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("from", from)
+            .addValue("to", toExclusive)
+            .addValue("start", Timestamp.valueOf(from.atStartOfDay()))
+            .addValue("end", Timestamp.valueOf(toExclusive.atStartOfDay()))
+            .addValue("statuses", SALE_STATUSES)
+            .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+
+        jdbcTemplate.update("delete from tb_sales_rollups where sales_date >= :from and sales_date < :to", parameters);
+        int rows = jdbcTemplate.update(INSERT_ROLLUP.formatted("0", "", ""), parameters.addValue("dimension", SalesDimension.DAY.name()));
+        rows += jdbcTemplate.update(INSERT_ROLLUP.formatted("coalesce(p.category_id, 0)", "join tb_products p on p.product_id = i.product_id", ", coalesce(p.category_id, 0)"),
+            parameters.addValue("dimension", SalesDimension.CATEGORY.name()));
+        rows += jdbcTemplate.update(INSERT_ROLLUP.formatted("i.product_id", "", ", i.product_id"), parameters.addValue("dimension", SalesDimension.PRODUCT.name()));
+        return rows;
+    }
+}
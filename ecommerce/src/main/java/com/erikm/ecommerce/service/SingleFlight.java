@@ -0,0 +1,124 @@
+package com.erikm.ecommerce.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+/**
+ * Single-flight de leituras por chave: chamadas concorrentes para a mesma chave esperam a consulta
+ * já em andamento e recebem o mesmo resultado (ou a mesma exceção), em vez de irem cada uma ao banco.
+ * A consulta roda numa transação read-only própria, aberta só pela chamada que a executa; quem espera
+ * não segura conexão do pool. O resultado é compartilhado entre threads e deve ser tratado como somente leitura.
+ */
+final class SingleFlight<K, V> 
+{
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final DomainMetrics domainMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    SingleFlight(String name, DomainMetrics domainMetrics, PlatformTransactionManager transactionManager, String transactionName) {
+        this.name = name;
+        this.domainMetrics = domainMetrics;
+        // Nome no pacote de serviços: com réplica configurada, a consulta compartilhada vai para ela
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(transactionName);
+    }
+
+    V load(K key, Supplier<V> loader) 
+    {
+        // Dentro da transação do chamador a consulta roda nela: entidade gerenciada e leitura das próprias escritas
+        if (TransactionSynchronizationManager.isActualTransactionActive()) 
+        {
+            return loader.get();
+        }
+
+        Flight<V> own = new Flight<>();
+        // compute trava a entrada: um seguidor nunca se junta a um voo já removido, então a contagem é exata
+        Flight<V> flight = inFlight.compute(key, (k, running) -> {
+            if (running == null) 
+            {
+                return own;
+            }
+            running.followers++;
+            return running;
+        });
+
+        if (flight != own) 
+        {
+            return await(flight);
+        }
+
+        try 
+        {
+            V value = transactionTemplate.execute(status -> loader.get());
+            complete(key, own).complete(value);
+            return value;
+        }
+        catch (RuntimeException | Error e) 
+        {
+            complete(key, own).completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Chamadas esperando a consulta em andamento para a chave (0 sem consulta em andamento)
+    int waiting(K key) 
+    {
+        Flight<V> flight = inFlight.get(key);
+        return flight == null ? 0 : flight.followers;
+    }
+
+    private CompletableFuture<V> complete(K key, Flight<V> flight) 
+    {
+        inFlight.remove(key, flight);
+        // Depois do remove ninguém mais entra no voo
+        int followers = flight.followers;
+        domainMetrics.recordSingleFlight(name, followers);
+        if (followers > 0 && log.isDebugEnabled()) 
+        {
+            log.debug("single-flight {} chave={} consultas economizadas={}", name, key, followers);
+        }
+        return flight.result;
+    }
+
+    private V await(Flight<V> flight) 
+    {
+        try 
+        {
+            return flight.result.join();
+        }
+        catch (CompletionException e) 
+        {
+            if (e.getCause() instanceof RuntimeException cause) 
+            {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) 
+            {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight<V> 
+    {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        // Só alterado dentro do compute da entrada; volatile para a leitura em waiting
+        private volatile int followers;
+    }
+}
@@ -0,0 +1,248 @@
+package com.erikm.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.StockAdjustmentDTO;
+import com.erikm.ecommerce.dto.Responses.StockAdjustmentResult;
+import com.erikm.ecommerce.model.Enums.StockAdjustmentType;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Ajuste de estoque em lote (sincronização com o WMS). Os produtos envolvidos são bloqueados
+ * com SELECT ... FOR UPDATE em ordem crescente de id no lote inteiro, os ajustes são aplicados
+ * em memória na ordem da requisição e o estoque final de cada produto é gravado num único batch
+ * de UPDATE.
+ * Um item inválido é rejeitado sozinho; os demais seguem na mesma transação.
+ */
+@Service
+@Observed(name = "app.service")
+public class StockAdjustmentService 
+{
+    private static final int LOOKUP_SLICE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DomainMetrics domainMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outbox;
+    private final int maxBatchSize;
+
+    public StockAdjustmentService(NamedParameterJdbcTemplate jdbcTemplate, DomainMetrics domainMetrics, ApplicationEventPublisher eventPublisher, OutboxWriter outbox,
+                                  @Value("${app.products.stock.max-batch-size:10000}") int maxBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.domainMetrics = domainMetrics;
+        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional
+    public List<StockAdjustmentResult> adjustStock(List<StockAdjustmentDTO> adjustments) 
+    {
+        long start = System.nanoTime();
+        if (adjustments == null || adjustments.isEmpty()) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe pelo menos um ajuste de estoque.");
+        }
+        if (adjustments.size() > maxBatchSize) 
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Máximo de " + maxBatchSize + " ajustes por requisição.");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> skus = new LinkedHashSet<>();
+        for (StockAdjustmentDTO adjustment : adjustments) 
+        {
+            if (adjustment == null) 
+            {
+                continue;
+            }
+            if (adjustment.productId() != null) 
+            {
+                ids.add(adjustment.productId());
+            } 
+            else if (adjustment.sku() != null) 
+            {
+                skus.add(adjustment.sku());
+            }
+        }
+        Map<Long, StockRow> byId = lockProducts(ids, skus);
+        Map<String, StockRow> bySku = new HashMap<>();
+        byId.values().forEach(row -> bySku.put(row.sku, row));
+
+        List<StockAdjustmentResult> results = new ArrayList<>(adjustments.size());
+        int applied = 0;
+        for (int i = 0; i < adjustments.size(); i++) 
+        {
+            StockAdjustmentDTO adjustment = adjustments.get(i);
+            String invalid = validate(adjustment);
+            if (invalid != null) 
+            {
+                results.add(new StockAdjustmentResult(i, adjustment == null ? null : adjustment.productId(), adjustment == null ? null : adjustment.sku(), StockAdjustmentResult.REJECTED, null, invalid));
+                continue;
+            }
+
+            StockRow row = adjustment.productId() != null ? byId.get(adjustment.productId()) : bySku.get(adjustment.sku());
+            if (row == null) 
+            {
+                results.add(new StockAdjustmentResult(i, adjustment.productId(), adjustment.sku(), StockAdjustmentResult.NOT_FOUND, null, "Produto não encontrado."));
+                continue;
+            }
+
+            long target = adjustment.type() == StockAdjustmentType.ABSOLUTE ? adjustment.quantity() : (long) row.stock + adjustment.quantity();
+            if (target < 0) 
+            {
+                results.add(new StockAdjustmentResult(i, row.productId, row.sku, StockAdjustmentResult.REJECTED, row.stock, "Estoque não pode ser negativo."));
+                continue;
+            }
+            if (target > Integer.MAX_VALUE) 
+            {
+                results.add(new StockAdjustmentResult(i, row.productId, row.sku, StockAdjustmentResult.REJECTED, row.stock, "Quantidade em estoque acima do limite."));
+                continue;
+            }
+
+            row.stock = (int) target;
+            row.changed = true;
+            applied++;
+            results.add(new StockAdjustmentResult(i, row.productId, row.sku, StockAdjustmentResult.APPLIED, row.stock, null));
+        }
+
+        writeChanges(byId.values());
+        domainMetrics.recordStockBatch(start, applied, adjustments.size() - applied);
+        return results;
+    }
+
+    private Map<Long, StockRow> lockProducts(Set<Long> ids, Set<String> skus) 
+    {
+        Map<Long, StockRow> rows = new HashMap<>();
+        if (ids.size() + skus.size() <= LOOKUP_SLICE) 
+        {
+            // Uma consulta só: o order by já é a ordem global de bloqueio
+            lockSlice("product_id in (:ids) or sku in (:skus)", new MapSqlParameterSource()
+                .addValue("ids", ids.isEmpty() ? List.of(-1L) : ids)
+                .addValue("skus", skus.isEmpty() ? List.of("") : skus), rows);
+            return rows;
+        }
+
+        // Em vários lotes, ordenar só dentro de cada um deixaria duas sincronizações bloquearem as mesmas
+        // linhas em ordens opostas: os SKUs viram ids sem bloqueio e os lotes seguem a ordem crescente global
+        TreeSet<Long> sortedIds = new TreeSet<>(ids);
+        List<String> skuList = new ArrayList<>(skus);
+        for (int from = 0; from < skuList.size(); from += LOOKUP_SLICE) 
+        {
+            sortedIds.addAll(jdbcTemplate.queryForList("select product_id from tb_products where is_active = true and sku in (:skus)",
+                Map.of("skus", skuList.subList(from, Math.min(from + LOOKUP_SLICE, skuList.size()))), Long.class));
+        }
+        List<Long> idList = new ArrayList<>(sortedIds);
+        for (int from = 0; from < idList.size(); from += LOOKUP_SLICE) 
+        {
+            lockSlice("product_id in (:ids)", new MapSqlParameterSource("ids", idList.subList(from, Math.min(from + LOOKUP_SLICE, idList.size()))), rows);
+        }
+        return rows;
+    }
+
+    // Ordem fixa de bloqueio evita deadlock entre duas sincronizações concorrentes
+    private void lockSlice(String condition, MapSqlParameterSource parameters, Map<Long, StockRow> rows) 
+    {
+        jdbcTemplate.query("select product_id, sku, stock_quantity from tb_products where is_active = true and (" + condition + ") order by product_id for update",
+            parameters, rs -> {
+                StockRow row = new StockRow(rs.getLong("product_id"), rs.getString("sku"), rs.getInt("stock_quantity"));
+                rows.put(row.productId, row);
+            });
+    }
+
+    private void writeChanges(Iterable<StockRow> rows) 
+    {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        Set<String> replenished = new HashSet<>();
+        List<Long> changedProducts = new ArrayList<>();
+        for (StockRow row : rows) 
+        {
+            if (row.stock > row.originalStock) 
+            {
+                replenished.add(row.sku);
+            }
+            if (row.changed) 
+            {
+                outbox.recordStockChanged(row.productId, row.sku, row.originalStock, row.stock);
+                changedProducts.add(row.productId);
+                updates.add(new MapSqlParameterSource()
+                    .addValue("stock", row.stock)
+                    .addValue("updatedAt", now)
+                    .addValue("productId", row.productId));
+            }
+        }
+        if (!updates.isEmpty()) 
+        {
+            jdbcTemplate.batchUpdate("update tb_products set stock_quantity = :stock, updated_at = :updatedAt, version = version + 1 where product_id = :productId",
+                updates.toArray(MapSqlParameterSource[]::new));
+            eventPublisher.publishEvent(CatalogChangedEvent.products(changedProducts));
+        }
+        if (!replenished.isEmpty()) 
+        {
+            eventPublisher.publishEvent(new StockReplenishedEvent(replenished));
+        }
+    }
+
+    private static String validate(StockAdjustmentDTO adjustment) 
+    {
+        if (adjustment == null) 
+        {
+            return "Ajuste vazio.";
+        }
+        if ((adjustment.productId() == null) == (adjustment.sku() == null)) 
+        {
+            return "Informe productId ou sku (apenas um).";
+        }
+        if (adjustment.type() == null) 
+        {
+            return "O tipo do ajuste é obrigatório (ABSOLUTE ou RELATIVE).";
+        }
+        if (adjustment.quantity() == null) 
+        {
+            return "A quantidade é obrigatória.";
+        }
+        if (adjustment.type() == StockAdjustmentType.ABSOLUTE && adjustment.quantity() < 0) 
+        {
+            return "Estoque não pode ser negativo.";
+        }
+        return null;
+    }
+
+    private static final class StockRow 
+    {
+        private final long productId;
+        private final String sku;
+        private final int originalStock;
+        private int stock;
+        private boolean changed;
+
+        StockRow(long productId, String sku, int stock) {
+            this.productId = productId;
+            this.sku = sku;
+            this.originalStock = stock;
+            this.stock = stock;
+        }
+    }
+}
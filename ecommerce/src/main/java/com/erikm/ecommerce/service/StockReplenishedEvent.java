@@ -0,0 +1,9 @@
+package com.erikm.ecommerce.service;
+
+import java.util.Set;
+
+// Publicado quando o estoque de um ou mais SKUs aumenta; pedidos PENDING desses SKUs voltam para a fila de alocação
+public record StockReplenishedEvent(Set<String> skus) 
+{
+
+}
@@ -12,43 +12,60 @@ import com.erikm.ecommerce.dto.Responses.LoginRequest;
 import com.erikm.ecommerce.dto.Responses.LoginResponse;
 import com.erikm.ecommerce.model.Customer;
 import com.erikm.ecommerce.model.Role;
+import com.erikm.ecommerce.observability.DomainMetrics;
 import com.erikm.ecommerce.repository.CustomerRepository;
 
+import io.micrometer.observation.annotation.Observed;
+
 
 import java.time.Instant;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "app.service")
 public class TokenService {
 
     private final JwtEncoder jwtEncoder;
     private final CustomerRepository customerRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final DomainMetrics domainMetrics;
 
     public TokenService(JwtEncoder jwtEncoder, CustomerRepository customerRepository,
-            BCryptPasswordEncoder passwordEncoder) {
+            BCryptPasswordEncoder passwordEncoder, DomainMetrics domainMetrics) {
         this.jwtEncoder = jwtEncoder;
         this.customerRepository = customerRepository;
         this.passwordEncoder = passwordEncoder;
+        this.domainMetrics = domainMetrics;
     }
 
     public LoginResponse authenticate(LoginRequest loginRequest) 
     {
+        long start = System.nanoTime();
         Optional<Customer> customer = customerRepository.findByEmailAndIsActiveTrue(loginRequest.email());
 
         if (customer.isEmpty() || !customer.get().isLoginCorrect(loginRequest, passwordEncoder)) {
+            domainMetrics.recordAuthentication(start, "login", DomainMetrics.OUTCOME_REJECTED);
             throw new BadCredentialsException("email ou senha inválida");
         }
 
-        return generateTokens(customer.get());
+        LoginResponse response = generateTokens(customer.get());
+        domainMetrics.recordAuthentication(start, "login", DomainMetrics.OUTCOME_SUCCESS);
+        return response;
     }
 
     public LoginResponse refreshToken(JwtAuthenticationToken refreshToken) {
-        Customer customer = customerRepository.findById(Long.valueOf(refreshToken.getName()))
-                .orElseThrow(() -> new BadCredentialsException("Usuário não encontrado"));
+        long start = System.nanoTime();
+        Optional<Customer> customer = customerRepository.findById(Long.valueOf(refreshToken.getName()));
+
+        if (customer.isEmpty()) {
+            domainMetrics.recordAuthentication(start, "refresh", DomainMetrics.OUTCOME_REJECTED);
+            throw new BadCredentialsException("Usuário não encontrado");
+        }
 
-        return generateTokens(customer);
+        LoginResponse response = generateTokens(customer.get());
+        domainMetrics.recordAuthentication(start, "refresh", DomainMetrics.OUTCOME_SUCCESS);
+        return response;
     }
 
     private LoginResponse generateTokens(Customer customer) {
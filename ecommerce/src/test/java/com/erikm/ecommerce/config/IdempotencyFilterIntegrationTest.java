@@ -0,0 +1,323 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("IdempotencyFilter against H2")
+class IdempotencyFilterIntegrationTest {
+
+    private static final String ORDER_BODY = "{\"customerId\":1,\"items\":[{\"productId\":1,\"quantity\":2}]}";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyProperties properties;
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("delete from tb_idempotency_keys");
+        properties = new IdempotencyProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        DomainMetrics domainMetrics = new DomainMetrics(meterRegistry);
+        store = new IdempotencyStore(jdbcTemplate, properties, domainMetrics);
+        filter = new IdempotencyFilter(store, properties, domainMetrics, new ObjectMapper().findAndRegisterModules());
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tb_idempotency_keys");
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response without running the controller again")
+    void shouldReplayStoredResponse() throws Exception {
+        MockHttpServletResponse first = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        MockHttpServletResponse second = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(second.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/orders/1");
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1\"");
+    }
+
+    @Test
+    @DisplayName("Should replay from the table when the in-memory cache is cold")
+    void shouldReplayFromTableAfterRestart() throws Exception {
+        post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        // Nova instância do store = LRU vazio, como após um restart ou em outra réplica
+        IdempotencyStore coldStore = new IdempotencyStore(jdbcTemplate, properties, new DomainMetrics(meterRegistry));
+        filter = new IdempotencyFilter(coldStore, properties, new DomainMetrics(meterRegistry), new ObjectMapper());
+        MockHttpServletResponse replayed = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed.getStatus()).isEqualTo(201);
+        assertThat(replayed.getContentAsString()).contains("\"id\":1");
+    }
+
+    @Test
+    @DisplayName("Should reject a reused key with a different body with 422")
+    void shouldRejectKeyReuseWithDifferentBody() throws Exception {
+        post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        MockHttpServletResponse response = post("key-1", ORDER_BODY.replace("\"quantity\":2", "\"quantity\":3"), createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(meterRegistry.counter("idempotency.requests", "result", "mismatch").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should pass requests without the header straight through")
+    void shouldIgnoreRequestsWithoutKey() throws Exception {
+        post(null, ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        post(null, ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_idempotency_keys", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent duplicates into a single execution")
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        int clients = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            createOrder(HttpServletResponse.SC_CREATED).doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> post("key-1", ORDER_BODY, slowChain)));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < clients; i++) {
+                responses.add(executor.submit(() -> post("key-1", ORDER_BODY, slowChain)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.counter("idempotency.requests", "result", "executed").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should release the key after a 5xx so the client can retry")
+    void shouldNotStoreServerErrors() throws Exception {
+        MockHttpServletResponse failed = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_SERVICE_UNAVAILABLE));
+        MockHttpServletResponse retried = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(failed.getStatus()).isEqualTo(503);
+        assertThat(retried.getStatus()).isEqualTo(201);
+        assertThat(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 while another instance holds the reservation")
+    void shouldRejectWhileReservedElsewhere() throws Exception {
+        post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        jdbcTemplate.update("update tb_idempotency_keys set status_code = null");
+        filter = new IdempotencyFilter(new IdempotencyStore(jdbcTemplate, properties, new DomainMetrics(meterRegistry)), properties,
+            new DomainMetrics(meterRegistry), new ObjectMapper().findAndRegisterModules());
+
+        MockHttpServletResponse response = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should purge expired keys and execute again once the TTL has passed")
+    void shouldExpireAfterTtl() throws Exception {
+        properties.setTtl(Duration.ofMillis(50));
+        post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        Thread.sleep(100);
+
+        store.purgeExpired();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_idempotency_keys", Integer.class)).isZero();
+
+        MockHttpServletResponse response = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+        assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not run again when the process dies between the order commit and storing the response")
+    void shouldKeepCommittedReservationAfterCrash() throws Exception {
+        properties.setLockTimeout(Duration.ZERO);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        FilterChain committedThenCrashed = (request, response) -> {
+            executions.incrementAndGet();
+            transaction.executeWithoutResult(status -> IdempotencyContext.markCommitted(42));
+            throw new IllegalStateException("processo caiu antes de guardar a resposta");
+        };
+
+        assertThatThrownBy(() -> post("key-1", ORDER_BODY, committedThenCrashed)).isInstanceOf(IllegalStateException.class);
+        MockHttpServletResponse retried = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(1);
+        assertThat(retried.getStatus()).isEqualTo(303);
+        assertThat(retried.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/orders/42");
+    }
+
+    @Test
+    @DisplayName("Should drop the commit marker together with a rolled-back transaction")
+    void shouldNotKeepMarkerOfRolledBackTransaction() throws Exception {
+        properties.setLockTimeout(Duration.ZERO);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        FilterChain rolledBackThenCrashed = (request, response) -> {
+            executions.incrementAndGet();
+            transaction.executeWithoutResult(status -> {
+                IdempotencyContext.markCommitted(42);
+                status.setRollbackOnly();
+            });
+            throw new IllegalStateException("processo caiu");
+        };
+
+        assertThatThrownBy(() -> post("key-1", ORDER_BODY, rolledBackThenCrashed)).isInstanceOf(IllegalStateException.class);
+        MockHttpServletResponse retried = post("key-1", ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(executions).hasValue(2);
+        assertThat(retried.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should serve the buffered body to async readers")
+    void shouldNotifyReadListener() throws Exception {
+        AtomicInteger readBytes = new AtomicInteger();
+        CountDownLatch allRead = new CountDownLatch(1);
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        readBytes.addAndGet(input.readAllBytes().length);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.countDown();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+            });
+            createOrder(HttpServletResponse.SC_CREATED).doFilter(request, response);
+        };
+
+        MockHttpServletResponse response = post("key-1", ORDER_BODY, asyncReader);
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(allRead.getCount()).isZero();
+        assertThat(readBytes).hasValue(ORDER_BODY.length());
+    }
+
+    @Test
+    @DisplayName("Should reject keys longer than 255 characters")
+    void shouldRejectOversizedKey() throws Exception {
+        MockHttpServletResponse response = post("k".repeat(256), ORDER_BODY, createOrder(HttpServletResponse.SC_CREATED));
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(executions).hasValue(0);
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.setServletPath("/api/orders");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    // Simula o controller: lê o corpo e devolve um pedido com id sequencial
+    private FilterChain createOrder(int status) {
+        return (request, response) -> {
+            request.getInputStream().readAllBytes();
+            int id = executions.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(status);
+            httpResponse.setHeader(HttpHeaders.LOCATION, "/api/orders/" + id);
+            httpResponse.setHeader(HttpHeaders.ETAG, "\"" + id + "\"");
+            httpResponse.setContentType("application/json");
+            httpResponse.setCharacterEncoding("UTF-8");
+            httpResponse.getWriter().write("{\"success\":true,\"data\":{\"id\":" + id + ",\"status\":\"CREATED\"}}");
+        };
+    }
+}
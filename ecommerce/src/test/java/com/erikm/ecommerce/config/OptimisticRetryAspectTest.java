@@ -0,0 +1,110 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("OptimisticRetryAspect")
+class OptimisticRetryAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FlakyService flakyService;
+    private FlakyService proxy;
+
+    @BeforeEach
+    void setUp() {
+        OptimisticRetryProperties properties = new OptimisticRetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        meterRegistry = new SimpleMeterRegistry();
+
+        flakyService = new FlakyService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(flakyService);
+        factory.addAspect(new OptimisticRetryAspect(properties, new DomainMetrics(meterRegistry)));
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Should retry until the conflicting write goes through")
+    void shouldRetryOnConflict() {
+        flakyService.conflicts.set(2);
+
+        assertThat(proxy.update()).isEqualTo(3);
+        assertThat(meterRegistry.counter("optimistic.lock.conflicts", "operation", "FlakyService.update").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.summary("optimistic.lock.attempts", "operation", "FlakyService.update", "outcome", DomainMetrics.OUTCOME_SUCCESS).totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should give up with 409 after the configured attempts")
+    void shouldGiveUpAfterMaxAttempts() {
+        flakyService.conflicts.set(10);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, proxy::update);
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(flakyService.calls).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should honour maxAttempts declared on the annotation")
+    void shouldHonourAnnotationOverride() {
+        flakyService.conflicts.set(10);
+
+        assertThrows(ResponseStatusException.class, proxy::updateOnce);
+
+        assertThat(flakyService.calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not retry inside an active transaction")
+    void shouldNotRetryInsideTransaction() {
+        flakyService.conflicts.set(1);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(OptimisticLockingFailureException.class, proxy::update);
+
+        assertThat(flakyService.calls).hasValue(1);
+    }
+
+    static class FlakyService {
+
+        final AtomicInteger conflicts = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @OptimisticRetry
+        public int update() {
+            int call = calls.incrementAndGet();
+            if (conflicts.getAndDecrement() > 0) {
+                throw new OptimisticLockingFailureException("versão desatualizada");
+            }
+            return call;
+        }
+
+        @OptimisticRetry(maxAttempts = 1)
+        public int updateOnce() {
+            return update();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("PageRequestGuard")
+class PageRequestGuardTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private PageRequestGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        PageableHandlerMethodArgumentResolver resolver = new PageableHandlerMethodArgumentResolver();
+        resolver.setMaxPageSize(500);
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new PageRequestGuard(resolver, new PaginationProperties(), objectMapper, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should let small pages sorted by an allowed field through")
+    void shouldAllowCheapPage() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean allowed = guard.preHandle(get("page", "2", "size", "50", "sort", "price,desc"), response, handler("products"));
+
+        assertThat(allowed).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should reject sorting by a field outside @PageLimits")
+    void shouldRejectUnindexedSort() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean allowed = guard.preHandle(get("sort", "description"), response, handler("products"));
+
+        assertThat(allowed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(400);
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("error").get("details").asText()).contains("'description'").contains("price");
+        assertThat(meterRegistry.counter("http.pagination.rejections", "reason", "sort").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should accept only the default order on endpoints without @PageLimits")
+    void shouldRejectSortWithoutLimits() throws Exception {
+        assertThat(guard.preHandle(get("size", "20"), new MockHttpServletResponse(), handler("plain"))).isTrue();
+        assertThat(guard.preHandle(get("sort", "name"), new MockHttpServletResponse(), handler("plain"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should clamp the size and reject pages deeper than the maximum offset")
+    void shouldRejectDeepOffset() throws Exception {
+        // size=100000 vira 500 pelo resolver; a página 20 começa no registro 10000, a 21 passa do limite
+        assertThat(guard.preHandle(get("page", "20", "size", "100000"), new MockHttpServletResponse(), handler("products"))).isTrue();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(guard.preHandle(get("page", "21", "size", "100000"), response, handler("products"))).isFalse();
+        assertThat(meterRegistry.counter("http.pagination.rejections", "reason", "offset").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject pages whose estimated cost exceeds the budget")
+    void shouldRejectExpensivePage() throws Exception {
+        // rowCost 3: 500 linhas custam 1500, o limite; qualquer offset passa do orçamento
+        assertThat(guard.preHandle(get("size", "500"), new MockHttpServletResponse(), handler("customers"))).isTrue();
+        assertThat(guard.preHandle(get("page", "1", "size", "500"), new MockHttpServletResponse(), handler("customers"))).isFalse();
+        assertThat(guard.preHandle(get("page", "1", "size", "400"), new MockHttpServletResponse(), handler("customers"))).isTrue();
+        assertThat(meterRegistry.counter("http.pagination.rejections", "reason", "cost").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore handlers without a Pageable parameter")
+    void shouldIgnoreHandlersWithoutPageable() throws Exception {
+        assertThat(guard.preHandle(get("sort", "anything"), new MockHttpServletResponse(), handler("single"))).isTrue();
+    }
+
+    private static MockHttpServletRequest get(String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        Class<?>[] types = "single".equals(name) ? new Class<?>[] { Long.class } : new Class<?>[] { Pageable.class };
+        return new HandlerMethod(new TestController(), TestController.class.getDeclaredMethod(name, types));
+    }
+
+    static class TestController {
+
+        @PageLimits(sortable = { "productId", "name", "price" })
+        void products(Pageable pageable) {
+        }
+
+        @PageLimits(sortable = { "customerId" }, rowCost = 3)
+        void customers(Pageable pageable) {
+        }
+
+        void plain(Pageable pageable) {
+        }
+
+        void single(Long id) {
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.controller.DatabaseUnavailableHandler;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Simula o pool saturado: todas as conexões presas e uma rajada de requisições concorrentes
+class PoolFailFastLoadTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_REQUESTS = 50;
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // Como no Spring Boot: pool criado sem iniciar, o post-processor ajusta antes da primeira conexão
+        dataSource = new HikariDataSource();
+        dataSource.setPoolName("load-test");
+        dataSource.setJdbcUrl("jdbc:h2:mem:pool-load;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(POOL_SIZE);
+        dataSource.setMinimumIdle(POOL_SIZE);
+        dataSource.setConnectionTimeout(30_000);
+        dataSource.setValidationTimeout(250);
+
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.datasource.pool.fail-fast", "true")
+            .withProperty("app.datasource.pool.max-wait", "300ms");
+        new DataSourcePoolConfig.HikariPoolPostProcessor(environment).postProcessAfterInitialization(dataSource, "dataSource");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void saturatedPoolShouldRejectQuicklyAndRecoverAfterRelease() throws Exception {
+        assertThat(dataSource.getConnectionTimeout()).isEqualTo(300);
+
+        List<Connection> held = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            held.add(dataSource.getConnection());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Callable<Long>> burst = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                burst.add(() -> {
+                    long start = System.nanoTime();
+                    try (Connection ignored = dataSource.getConnection()) {
+                        return -1L;
+                    } catch (SQLTransientConnectionException e) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                });
+            }
+
+            long burstStart = System.nanoTime();
+            List<Future<Long>> results = executor.invokeAll(burst, 10, TimeUnit.SECONDS);
+            long burstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - burstStart);
+
+            for (Future<Long> result : results) {
+                long waited = result.get();
+                assertThat(waited).as("toda requisição deve falhar por timeout").isGreaterThanOrEqualTo(0);
+                assertThat(waited).isLessThan(2_000);
+            }
+            // Espera limitada a max-wait, não ao connection-timeout original de 30s
+            assertThat(burstMillis).isLessThan(5_000);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Connection connection : held) {
+            connection.close();
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection()).isZero();
+    }
+
+    @Test
+    void failFastShouldAlsoClampValidationTimeout() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:pool-clamp");
+        pool.setValidationTimeout(5_000);
+
+        MockEnvironment environment = new MockEnvironment().withProperty("app.datasource.pool.max-wait", "1s");
+        new DataSourcePoolConfig.HikariPoolPostProcessor(environment).postProcessAfterInitialization(pool, "replicaDataSource");
+
+        assertThat(pool.getConnectionTimeout()).isEqualTo(1_000);
+        assertThat(pool.getValidationTimeout()).isEqualTo(500);
+        pool.close();
+    }
+
+    @Test
+    void handlerShouldAnswer503WithRetryAfter() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties();
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DatabaseUnavailableHandler handler = new DatabaseUnavailableHandler(properties, registry);
+
+        ResponseEntity<ApiResponser<?>> response = handler.handleDatabaseUnavailable(
+            new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                new SQLTransientConnectionException("load-test - Connection is not available, request timed out after 300ms.")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getBody().isSuccess()).isFalse();
+        assertThat(registry.counter("db.pool.rejections").count()).isEqualTo(1.0);
+
+        // Banco fora do ar não é esgotamento do pool: 503, mas fora da métrica
+        ResponseEntity<ApiResponser<?>> databaseDown = handler.handleDatabaseUnavailable(
+            new DataAccessResourceFailureException("Unable to acquire JDBC Connection", new SQLNonTransientConnectionException("Connection refused")));
+
+        assertThat(databaseDown.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(registry.counter("db.pool.rejections").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void handlerShouldCountPoolTimeoutsBehindLazyConnectionProxy() throws Exception {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DatabaseUnavailableHandler handler = new DatabaseUnavailableHandler(properties, registry);
+        // Como em ReadReplicaDataSourceConfig: a transação abre sem conexão, pedida só no primeiro comando
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(lazy));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(lazy);
+        // O proxy lê autocommit e isolamento padrão na primeira conexão; depois disso a transação abre sem pedir uma
+        Integer warmUp = transaction.execute(status -> jdbcTemplate.queryForObject("select 1", Integer.class));
+        assertThat(warmUp).isEqualTo(1);
+
+        List<Connection> held = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            held.add(dataSource.getConnection());
+        }
+        try {
+            TransientDataAccessResourceException exhausted = assertThrows(TransientDataAccessResourceException.class,
+                () -> transaction.execute(status -> jdbcTemplate.queryForObject("select 1", Integer.class)));
+
+            assertThat(handler.handleDatabaseUnavailable(exhausted).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(registry.counter("db.pool.rejections").count()).isEqualTo(1.0);
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    @Test
+    void validatorShouldRejectInconsistentPool() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("invalid");
+        config.setMaximumPoolSize(5);
+        config.setMinimumIdle(10);
+        config.setConnectionTimeout(1_000);
+        config.setValidationTimeout(1_000);
+        config.setIdleTimeout(30_000);
+        config.setMaxLifetime(60_000);
+        config.setLeakDetectionThreshold(120_000);
+
+        List<String> problems = HikariPoolValidator.validate(config, new DataSourcePoolProperties());
+
+        assertThat(problems).hasSize(3);
+        assertThat(String.join("\n", problems))
+            .contains("minimum-idle")
+            .contains("validation-timeout")
+            .contains("leak-detection-threshold");
+    }
+
+    @Test
+    void postProcessorShouldFailStartupOnInvalidPool() {
+        HikariDataSource invalid = new HikariDataSource();
+        invalid.setJdbcUrl("jdbc:h2:mem:pool-invalid");
+        invalid.setMaximumPoolSize(2);
+        invalid.setMinimumIdle(4);
+
+        MockEnvironment environment = new MockEnvironment().withProperty("app.datasource.pool.max-wait", "1s");
+
+        assertThrows(BeanInitializationException.class, () ->
+            new DataSourcePoolConfig.HikariPoolPostProcessor(environment).postProcessAfterInitialization(invalid, "dataSource"));
+        invalid.close();
+    }
+}
@@ -0,0 +1,200 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("RateLimitFilter")
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route login = new RateLimitProperties.Route();
+        login.setName("login");
+        login.setMethod("POST");
+        login.setPath("/token/login");
+        login.setLimit(3);
+        login.setPeriod(Duration.ofMinutes(1));
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(login));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new InMemoryRateLimitStore(1_000), properties, new DomainMetrics(meterRegistry), new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once the client exhausts the burst")
+    void shouldRejectAfterBurst() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(call("POST", "/token/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = call("POST", "/token/login", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(1L, 20L);
+        assertThat(rejected.getContentAsString()).contains("Muitas requisições.");
+        assertThat(meterRegistry.counter("http.rate_limit.requests", "route", "login", "result", "allowed").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("http.rate_limit.requests", "route", "login", "result", "rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.rate_limit.keys").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client and skip unmatched routes")
+    void shouldIsolateClientsAndRoutes() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            call("POST", "/token/login", "10.0.0.1");
+        }
+
+        assertThat(call("POST", "/token/login", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(call("GET", "/token/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(call("GET", "/api/products", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        // Autenticado, a chave é o subject e não o IP já esgotado
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("42", null, AuthorityUtils.NO_AUTHORITIES));
+        assertThat(call("POST", "/token/login", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should ignore unauthenticated API key headers when keying the client")
+    void shouldNotKeyByUnauthenticatedHeader() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/token/login");
+            request.setRemoteAddr("10.0.0.1");
+            request.addHeader("X-Api-Key", "random-" + i);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        MockHttpServletRequest forged = new MockHttpServletRequest("POST", "/token/login");
+        forged.setRemoteAddr("10.0.0.1");
+        forged.addHeader("X-Api-Key", "yet-another");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(forged, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get("http.rate_limit.keys").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Full in-memory store should share the overflow bucket until the sweep frees idle keys")
+    void inMemoryStoreShouldCapKeys() throws Exception {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(2);
+        long interval = TimeUnit.HOURS.toNanos(1);
+        assertThat(store.acquire("a", interval, 0)).isZero();
+        assertThat(store.acquire("b", 1, 0)).isZero();
+
+        // Chaves novas não entram no mapa cheio e disputam o mesmo balde
+        assertThat(store.acquire("c", interval, 0)).isZero();
+        assertThat(store.acquire("d", interval, 0)).isPositive();
+        assertThat(store.size()).isEqualTo(2);
+
+        // "b" já está ociosa; "a" ainda tem requisição pendente na janela
+        TimeUnit.MILLISECONDS.sleep(1);
+        store.evictIdle();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.acquire("d", interval, 0)).isZero();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Full shared store should route new clients to the overflow key")
+    void sharedStoreShouldCapKeys() {
+        AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+        ConcurrentHashMap<String, Long> buckets = new ConcurrentHashMap<>();
+        SharedRateLimitStore store = new SharedRateLimitStore(buckets, clock::get, 1);
+        long interval = TimeUnit.HOURS.toNanos(1);
+
+        assertThat(store.acquire("a", interval, 0)).isZero();
+        assertThat(store.acquire("b", interval, 0)).isZero();
+        assertThat(store.acquire("c", interval, 0)).isPositive();
+        assertThat(buckets).containsOnlyKeys("a", SharedRateLimitStore.OVERFLOW_KEY);
+
+        clock.addAndGet(interval);
+        store.evictIdle();
+        assertThat(buckets).isEmpty();
+    }
+
+    @Test
+    @DisplayName("In-memory store should admit exactly the burst under contention")
+    void inMemoryStoreShouldBeExactUnderContention() throws Exception {
+        assertThat(admittedUnderContention(new InMemoryRateLimitStore(1_000))).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Shared store should admit exactly the burst under contention and refill with its clock")
+    void sharedStoreShouldBeExactUnderContention() throws Exception {
+        AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+        SharedRateLimitStore store = new SharedRateLimitStore(new ConcurrentHashMap<>(), clock::get, 1_000);
+
+        assertThat(admittedUnderContention(store)).isEqualTo(100);
+
+        long interval = TimeUnit.HOURS.toNanos(1);
+        assertThat(store.acquire("hot", interval, 99 * interval)).isEqualTo(interval);
+        clock.addAndGet(interval);
+        assertThat(store.acquire("hot", interval, 99 * interval)).isZero();
+    }
+
+    // 8 threads disputam uma chave com burst 100 e reposição de 1 por hora
+    private static int admittedUnderContention(RateLimitStore store) throws InterruptedException {
+        long interval = TimeUnit.HOURS.toNanos(1);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (store.acquire("hot", interval, 99 * interval) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        return admitted.get();
+    }
+
+    private MockHttpServletResponse call(String method, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
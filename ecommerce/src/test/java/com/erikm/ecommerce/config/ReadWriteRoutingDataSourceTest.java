@@ -0,0 +1,158 @@
+package com.erikm.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Dois bancos H2 independentes fazem o papel de primário e réplica; cada um responde com o próprio nome
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadYourWritesTracker readYourWrites;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("primary");
+        replica = pool("replica");
+        readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5));
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primary, replica, List.of("com.erikm.ecommerce.service."), readYourWrites));
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyServiceTransactionShouldUseReplica() {
+        assertThat(inTransaction("com.erikm.ecommerce.service.ProductService.findAllProducts", true)).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionShouldUsePrimary() {
+        assertThat(inTransaction("com.erikm.ecommerce.service.OrderService.createNewOrder", false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionOutsideServicesShouldStayOnPrimary() {
+        assertThat(inTransaction("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsWithoutTransactionShouldUsePrimary() {
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsForCustomerWithRecentOrderShouldStayOnPrimaryUntilWindowEnds() {
+        TransactionTemplate write = template("com.erikm.ecommerce.service.OrderService.createNewOrder", false);
+        write.executeWithoutResult(status -> readYourWrites.recordWrite(42L));
+
+        TransactionTemplate read = template("com.erikm.ecommerce.service.OrderService.findOrdersByCustomerId", true);
+        String pinned = read.execute(status -> {
+            readYourWrites.pinIfRecentWrite(42L);
+            return jdbcTemplate.queryForObject("select name from node", String.class);
+        });
+        assertThat(pinned).isEqualTo("primary");
+
+        // Outro cliente não é afetado, e o pino não vaza para a próxima transação da thread
+        String otherCustomer = read.execute(status -> {
+            readYourWrites.pinIfRecentWrite(7L);
+            return jdbcTemplate.queryForObject("select name from node", String.class);
+        });
+        assertThat(otherCustomer).isEqualTo("replica");
+    }
+
+    @Test
+    void pinOutsideTransactionShouldNotLeakToNextTransaction() {
+        template("com.erikm.ecommerce.service.OrderService.createNewOrder", false)
+            .executeWithoutResult(status -> readYourWrites.recordWrite(42L));
+
+        // Sem transação ninguém limparia o pino da thread
+        readYourWrites.pinIfRecentWrite(42L);
+
+        assertThat(readYourWrites.requiresPrimary()).isFalse();
+        assertThat(inTransaction("com.erikm.ecommerce.service.ProductService.findAllProducts", true)).isEqualTo("replica");
+    }
+
+    @Test
+    void authenticatedCustomerShouldReadOwnWritesFromPrimary() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("42").build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        assertThat(inTransaction("com.erikm.ecommerce.service.ProductService.findAllProducts", true)).isEqualTo("replica");
+
+        template("com.erikm.ecommerce.service.OrderService.createNewOrder", false)
+            .executeWithoutResult(status -> readYourWrites.recordWrite(42L));
+
+        assertThat(inTransaction("com.erikm.ecommerce.service.ProductService.findAllProducts", true)).isEqualTo("primary");
+    }
+
+    @Test
+    void rolledBackWriteShouldNotOpenWindow() {
+        template("com.erikm.ecommerce.service.OrderService.createNewOrder", false).executeWithoutResult(status -> {
+            readYourWrites.recordWrite(42L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(readYourWrites.isWithinWindow(42L)).isFalse();
+    }
+
+    @Test
+    void windowShouldExpire() throws InterruptedException {
+        ReadYourWritesTracker shortWindow = new ReadYourWritesTracker(Duration.ofMillis(50));
+        shortWindow.recordWrite(42L);
+        assertThat(shortWindow.isWithinWindow(42L)).isTrue();
+
+        Thread.sleep(80);
+        assertThat(shortWindow.isWithinWindow(42L)).isFalse();
+    }
+
+    private String inTransaction(String name, boolean readOnly) {
+        return template(name, readOnly).execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private TransactionTemplate template(String name, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(name);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("routing-" + name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists node (name varchar(20))");
+        jdbc.update("delete from node");
+        jdbc.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
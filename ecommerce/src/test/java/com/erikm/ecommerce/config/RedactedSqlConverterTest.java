@@ -0,0 +1,33 @@
+package com.erikm.ecommerce.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedactedSqlConverterTest {
+
+    @Test
+    @DisplayName("Should replace string and numeric literals inside the logged SQL")
+    void redact_ReplacesLiterals() {
+        String message = "Slow query took 742 milliseconds [select p1_0.product_id from tb_products p1_0 where p1_0.sku='SKU-01' and p1_0.price between 10.50 and 99 fetch first 20 rows only]";
+
+        String redacted = RedactedSqlConverter.redact(message);
+
+        assertEquals("Slow query took 742 milliseconds [select p1_0.product_id from tb_products p1_0 where p1_0.sku=? and p1_0.price between ? and ? fetch first ? rows only]", redacted);
+    }
+
+    @Test
+    @DisplayName("Should handle escaped quotes inside string literals")
+    void redact_EscapedQuotes() {
+        String message = "Slow query took 10 milliseconds [select * from tb_customers where last_name='D''Avila']";
+
+        assertEquals("Slow query took 10 milliseconds [select * from tb_customers where last_name=?]", RedactedSqlConverter.redact(message));
+    }
+
+    @Test
+    @DisplayName("Should keep messages without SQL untouched")
+    void redact_NoSql() {
+        assertEquals("sem sql 123", RedactedSqlConverter.redact("sem sql 123"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.erikm.ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.erikm.ecommerce.config.HttpCacheProperties;
+import com.erikm.ecommerce.dto.Responses.ApiResponser;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
+import com.erikm.ecommerce.service.CatalogChangedEvent;
+
+@DisplayName("Cacheable catalog responses")
+class CacheableResponsesTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 3, 10, 15, 30, 123_000_000);
+    private static final List<String> PRODUCT_KEYS = List.of(CatalogChangedEvent.productKey(1L), CatalogChangedEvent.ALL_PRODUCTS);
+
+    private HttpCacheProperties properties;
+    private CacheableResponses cacheableResponses;
+
+    @BeforeEach
+    void setUp() {
+        HttpCacheProperties.Policy policy = new HttpCacheProperties.Policy();
+        policy.setSharedMaxAge(Duration.ofMinutes(5));
+        policy.setStaleWhileRevalidate(Duration.ofSeconds(30));
+        policy.setStaleIfError(Duration.ofDays(1));
+        properties = new HttpCacheProperties();
+        properties.getPolicies().put(CacheableResponses.PRODUCT, policy);
+        cacheableResponses = new CacheableResponses(properties);
+    }
+
+    @Test
+    @DisplayName("Should send validators on the first request and answer 304 when the ETag matches")
+    void shouldAnswerNotModifiedForMatchingEtag() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        boolean notModified = cacheableResponses.checkNotModified(get(first), CacheableResponses.PRODUCT, PRODUCT_KEYS, UPDATED_AT, 1L, 0L, UPDATED_AT);
+
+        assertThat(notModified).isFalse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"").endsWith("\"");
+        assertThat(first.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        ServletWebRequest revalidation = get(second);
+        ((MockHttpServletRequest) revalidation.getRequest()).addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        assertThat(cacheableResponses.checkNotModified(revalidation, CacheableResponses.PRODUCT, PRODUCT_KEYS, UPDATED_AT, 1L, 0L, UPDATED_AT)).isTrue();
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(first.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should send the endpoint policy as Cache-Control and the surrogate keys")
+    void shouldSendPolicyAndSurrogateKeys() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cacheableResponses.checkNotModified(get(response), CacheableResponses.PRODUCT, PRODUCT_KEYS, UPDATED_AT, 1L);
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+            .isEqualTo("max-age=0, public, s-maxage=300, stale-if-error=86400, stale-while-revalidate=30");
+        assertThat(response.getHeader("Surrogate-Key")).isEqualTo("product-1 product-all");
+    }
+
+    @Test
+    @DisplayName("Should fall back to no-cache for endpoints without a policy")
+    void shouldFallBackToNoCache() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cacheableResponses.checkNotModified(get(response), CacheableResponses.CATEGORY_LIST, List.of(), List.of(new ResourceVersion(0, null)));
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(response.getHeader("Surrogate-Key")).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should answer 200 when the version behind the ETag changed")
+    void shouldAnswerOkWhenVersionChanged() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        cacheableResponses.checkNotModified(get(first), CacheableResponses.PRODUCT_LIST, List.of(),
+            List.of(new ResourceVersion(4, UPDATED_AT), new ResourceVersion(2, UPDATED_AT.minusDays(1))));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        ServletWebRequest revalidation = get(second);
+        ((MockHttpServletRequest) revalidation.getRequest()).addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+
+        // Um produto removido muda só a contagem
+        boolean notModified = cacheableResponses.checkNotModified(revalidation, CacheableResponses.PRODUCT_LIST, List.of(),
+            List.of(new ResourceVersion(3, UPDATED_AT), new ResourceVersion(2, UPDATED_AT.minusDays(1))));
+
+        assertThat(notModified).isFalse();
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isNotEqualTo(first.getHeader(HttpHeaders.ETAG));
+        assertThat(second.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(first.getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("Should omit the envelope timestamp only when the deterministic envelope is enabled")
+    void shouldBuildDeterministicEnvelope() {
+        ApiResponser<String> deterministic = cacheableResponses.body("data", "ok");
+
+        assertThat(deterministic.isSuccess()).isTrue();
+        assertThat(deterministic.getTimestamp()).isNull();
+
+        properties.setDeterministicEnvelope(false);
+        assertThat(cacheableResponses.body("data", "ok").getTimestamp()).isNotNull();
+    }
+
+    private static ServletWebRequest get(MockHttpServletResponse response) {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/products"), response);
+    }
+}
@@ -0,0 +1,53 @@
+package com.erikm.ecommerce.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.erikm.ecommerce.model.Utils.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DisplayName("Money in cents")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should convert to and from BigDecimal exactly")
+    void shouldConvertExactly() {
+        assertThat(Money.of(new BigDecimal("19.90")).cents()).isEqualTo(1990);
+        assertThat(Money.of(new BigDecimal("7")).cents()).isEqualTo(700);
+        assertThat(Money.of(new BigDecimal("0.500")).cents()).isEqualTo(50);
+        assertThat(Money.ofCents(1990).toBigDecimal()).isEqualTo(new BigDecimal("19.90"));
+        assertThat(Money.ofCents(-5).toString()).isEqualTo("-0.05");
+
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.005"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e30"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should match BigDecimal arithmetic and fail on overflow instead of wrapping")
+    void shouldComputeLikeBigDecimal() {
+        BigDecimal expected = new BigDecimal("19.90").multiply(BigDecimal.valueOf(3)).add(new BigDecimal("0.05"));
+
+        Money total = Money.of(new BigDecimal("19.90")).times(3).plus(Money.ofCents(5));
+
+        assertThat(total.toBigDecimal()).isEqualTo(expected);
+        assertThat(Money.COLUMN_MAX.toBigDecimal()).isEqualTo(new BigDecimal("99999999.99"));
+        assertThat(Money.COLUMN_MAX.plus(Money.ofCents(1)).exceeds(Money.COLUMN_MAX)).isTrue();
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE / 2).times(3)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should serialize as the same JSON number as a BigDecimal with scale 2")
+    void shouldSerializeAsDecimal() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThat(objectMapper.writeValueAsString(Money.ofCents(1990))).isEqualTo(objectMapper.writeValueAsString(new BigDecimal("19.90")));
+        assertThat(objectMapper.readValue("19.9", Money.class)).isEqualTo(Money.ofCents(1990));
+        assertThatThrownBy(() -> objectMapper.readValue("19.999", Money.class)).hasRootCauseInstanceOf(ArithmeticException.class);
+    }
+}
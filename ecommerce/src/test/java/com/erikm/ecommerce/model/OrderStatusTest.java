@@ -0,0 +1,50 @@
+package com.erikm.ecommerce.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+
+@DisplayName("OrderStatus state machine")
+class OrderStatusTest {
+
+    @Test
+    @DisplayName("Should allow only the transitions in the table")
+    void shouldFollowTransitionTable() {
+        assertThat(OrderStatus.CREATED.canTransitionTo(OrderStatus.PENDING)).isTrue();
+        assertThat(OrderStatus.CREATED.canTransitionTo(OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStatus.CREATED.canTransitionTo(OrderStatus.DELIVERED)).isFalse();
+        // PENDING só é confirmado pelo PendingOrderAllocator, que reserva o estoque
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED)).isFalse();
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.CANCELLED)).isTrue();
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.DELIVERED)).isFalse();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.DELIVERED)).isTrue();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.PENDING)).isFalse();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.CONFIRMED)).isFalse();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should treat DELIVERED and CANCELLED as final")
+    void shouldTreatDeliveredAndCancelledAsFinal() {
+        for (OrderStatus target : OrderStatus.values()) {
+            assertThat(OrderStatus.DELIVERED.canTransitionTo(target)).isFalse();
+            assertThat(OrderStatus.CANCELLED.canTransitionTo(target)).isFalse();
+        }
+        assertThat(OrderStatus.DELIVERED.isFinal()).isTrue();
+        assertThat(OrderStatus.CANCELLED.isFinal()).isTrue();
+        assertThat(OrderStatus.CREATED.isFinal()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should parse statuses ignoring case and return null for unknown values")
+    void shouldParseIgnoringCase() {
+        assertThat(OrderStatus.parse("delivered")).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(OrderStatus.parse("Cancelled")).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(OrderStatus.parse("SHIPPED")).isNull();
+        assertThat(OrderStatus.parse(null)).isNull();
+        assertThat(OrderStatus.ALLOWED_VALUES).isEqualTo("[CREATED, PENDING, CONFIRMED, DELIVERED, CANCELLED]");
+    }
+}
@@ -0,0 +1,128 @@
+package com.erikm.ecommerce.observability;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderDTO;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.service.CustomerOrderStatsService;
+import com.erikm.ecommerce.service.CustomerService;
+import com.erikm.ecommerce.service.OrderService;
+import com.erikm.ecommerce.service.OrderStatusHistoryWriter;
+import com.erikm.ecommerce.service.OrderStockRestorer;
+import com.erikm.ecommerce.service.ProductService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DomainMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DomainMetrics domainMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        domainMetrics = new DomainMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should time checkouts and count created orders by outcome and cart size bucket")
+    void recordCheckout_TagsOutcomeAndCartSize() {
+        domainMetrics.recordCheckout(System.nanoTime(), "CONFIRMED", 1);
+        domainMetrics.recordCheckout(System.nanoTime(), "CONFIRMED", 3);
+        domainMetrics.recordCheckout(System.nanoTime(), "PENDING", 30);
+        domainMetrics.recordInsufficientStock(2);
+
+        assertEquals(1, meterRegistry.get("orders.checkout").tags("outcome", "CONFIRMED", "cart.size", "1").timer().count());
+        assertEquals(1, meterRegistry.get("orders.checkout").tags("outcome", "CONFIRMED", "cart.size", "2-5").timer().count());
+        assertEquals(1.0, meterRegistry.get("orders.created").tags("outcome", "PENDING", "cart.size", "21+").counter().count());
+        assertEquals(2.0, meterRegistry.get("orders.items.insufficient_stock").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record after completion inside a transaction and report rollbacks as ROLLED_BACK")
+    void recordInsideTransaction_WaitsForCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        domainMetrics.recordCheckout(System.nanoTime(), "CONFIRMED", 2);
+        domainMetrics.recordOrderCancellation(System.nanoTime(), DomainMetrics.OUTCOME_SUCCESS);
+        domainMetrics.recordStockEdit(System.nanoTime(), DomainMetrics.OUTCOME_SUCCESS);
+        domainMetrics.recordStockEdit(System.nanoTime(), DomainMetrics.OUTCOME_NOT_FOUND);
+
+        assertNull(meterRegistry.find("orders.checkout").timer());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(1, meterRegistry.get("orders.checkout").tags("outcome", DomainMetrics.OUTCOME_ROLLED_BACK, "cart.size", "2-5").timer().count());
+        assertEquals(1, meterRegistry.get("orders.cancel").tag("outcome", DomainMetrics.OUTCOME_ROLLED_BACK).timer().count());
+        assertEquals(1, meterRegistry.get("products.stock.edit").tag("outcome", DomainMetrics.OUTCOME_ROLLED_BACK).timer().count());
+        // Falhas de negócio sempre desfazem a transação e mantêm o próprio resultado
+        assertEquals(1, meterRegistry.get("products.stock.edit").tag("outcome", DomainMetrics.OUTCOME_NOT_FOUND).timer().count());
+    }
+
+    @Test
+    @DisplayName("Should keep REJECTED for a checkout whose transaction rolls back")
+    void rejectedCheckout_KeepsOutcomeAfterRollback() {
+        Customer customer = new Customer("Ana", "Souza", "ana@example.com", null, "12345678901", true);
+        CustomerRepository customerRepository = mock(CustomerRepository.class);
+        when(customerRepository.findByEmailAndIsActiveTrue("ana@example.com")).thenReturn(Optional.of(customer));
+        OrderService orderService = new OrderService(mock(OrderRepository.class), mock(OrderItemRepository.class),
+                new CustomerService(customerRepository, null, null, null), mock(ProductService.class), null, domainMetrics,
+                ObservationRegistry.NOOP, mock(ReadYourWritesTracker.class), mock(OrderStatusHistoryWriter.class),
+                mock(CustomerOrderStatsService.class), mock(OutboxWriter.class), mock(OrderStockRestorer.class));
+        TransactionTemplate transaction = new TransactionTemplate(
+                new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:mem:domain-metrics;DB_CLOSE_DELAY=-1")));
+
+        // Pedido sem itens: ResponseStatusException dentro da transação, que termina em rollback
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> transaction.execute(status -> orderService.createNewOrder(new OrderDTO("ana@example.com", "Rua A, 10", List.of()))));
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertEquals(1, meterRegistry.get("orders.checkout").tags("outcome", DomainMetrics.OUTCOME_REJECTED, "cart.size", "1").timer().count());
+        assertNull(meterRegistry.find("orders.checkout").tag("outcome", DomainMetrics.OUTCOME_ROLLED_BACK).timer());
+    }
+
+    @Test
+    @DisplayName("Should tag token issuance by operation and cache accesses by cache and result")
+    void recordAuthenticationAndCache_Tags() {
+        domainMetrics.recordAuthentication(System.nanoTime(), "login", DomainMetrics.OUTCOME_SUCCESS);
+        domainMetrics.recordAuthentication(System.nanoTime(), "refresh", DomainMetrics.OUTCOME_REJECTED);
+        domainMetrics.recordCacheAccess("products", true);
+        domainMetrics.recordCacheAccess("products", true);
+        domainMetrics.recordCacheAccess("products", false);
+
+        assertEquals(1, meterRegistry.get("auth.tokens").tags("operation", "login", "outcome", DomainMetrics.OUTCOME_SUCCESS).timer().count());
+        assertEquals(1, meterRegistry.get("auth.tokens").tags("operation", "refresh", "outcome", DomainMetrics.OUTCOME_REJECTED).timer().count());
+        assertEquals(2.0, meterRegistry.get("cache.requests").tags("cache", "products", "result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.requests").tags("cache", "products", "result", "miss").counter().count());
+    }
+}
@@ -0,0 +1,71 @@
+package com.erikm.ecommerce.observability;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryStatsProperties properties;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new QueryStatsProperties();
+        properties.getBudgets().put("/api/orders", 2);
+
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:h2:mem:querystats;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource = ProxyDataSourceBuilder.create(target).listener(new QueryStatsListener()).build();
+    }
+
+    @Test
+    @DisplayName("Should record statement count per route and flag requests over budget")
+    void doFilter_RecordsStatementsPerRoute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        QueryStatsFilter filter = new QueryStatsFilter(meterRegistry, properties);
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/orders");
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+                statement.execute("SELECT 2");
+                statement.execute("SELECT 3");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(3, QueryStatsHolder.current().getStatementCount());
+        });
+
+        assertNull(QueryStatsHolder.current());
+        assertEquals(3.0, meterRegistry.get("db.request.statements").tag("uri", "/api/orders").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("db.request.budget.exceeded").tag("uri", "/api/orders").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should ignore queries executed outside an HTTP request")
+    void listener_NoRequestInProgress() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+
+        assertNull(QueryStatsHolder.current());
+        assertTrue(meterRegistry.find("db.request.statements").meters().isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+package com.erikm.ecommerce.observability;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderDTO;
+import com.erikm.ecommerce.dto.OrderItemDTO;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.service.CustomerOrderStatsService;
+import com.erikm.ecommerce.service.CustomerService;
+import com.erikm.ecommerce.service.OrderService;
+import com.erikm.ecommerce.service.OrderStatusHistoryWriter;
+import com.erikm.ecommerce.service.OrderStockRestorer;
+import com.erikm.ecommerce.service.ProductService;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.test.simple.SimpleSpan;
+import io.micrometer.tracing.test.simple.SimpleTracer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TracingSpanStructureTest {
+
+    // SimpleTracer faz o papel de exportador em memória: guarda todos os spans finalizados
+    private SimpleTracer tracer;
+    private ObservationRegistry observationRegistry;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new SimpleTracer();
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+    }
+
+    @Test
+    @DisplayName("Should nest customer lookup and repository spans under the checkout span")
+    void createNewOrder_SpanStructure() {
+        Customer customer = new Customer("Ana", "Souza", "ana@example.com", null, "12345678901", true);
+        customer.setCustomerId(1L);
+        Product product = new Product("Notebook", null, BigDecimal.valueOf(3500), 10, null, "NOTE-01", true);
+        product.setProductId(7L);
+
+        CustomerRepository customerRepository = mock(CustomerRepository.class);
+        when(customerRepository.findByEmailAndIsActiveTrue("ana@example.com")).thenReturn(Optional.of(customer));
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ProductService productService = mock(ProductService.class);
+        when(productService.findProductBySku("NOTE-01")).thenReturn(product);
+
+        CustomerService customerService = observedService(new CustomerService(observedRepository(customerRepository), null, null, null));
+        OrderService orderService = observedService(new OrderService(observedRepository(orderRepository),
+                observedRepository(mock(OrderItemRepository.class)), customerService, productService, null,
+                mock(DomainMetrics.class), observationRegistry, mock(ReadYourWritesTracker.class), mock(OrderStatusHistoryWriter.class),
+                mock(CustomerOrderStatsService.class), mock(OutboxWriter.class), mock(OrderStockRestorer.class)));
+
+        orderService.createNewOrder(new OrderDTO("ana@example.com", "Rua A, 10",
+                List.of(new OrderItemDTO("NOTE-01", 1), new OrderItemDTO("NOTE-01", 2))));
+
+        // O handler de tracing converte o nome contextual para kebab-case (máx. 50 caracteres)
+        Map<String, SimpleSpan> spans = tracer.getSpans().stream()
+                .collect(Collectors.toMap(SimpleSpan::getName, Function.identity(), (first, second) -> first));
+
+        SimpleSpan checkout = spans.get("order-service#create-new-order");
+        assertNotNull(checkout);
+        assertTrue(checkout.getParentId() == null || checkout.getParentId().isEmpty());
+        assertEquals("2", checkout.getTags().get("order.items"));
+        assertEquals("1", checkout.getTags().get("order.skus"));
+
+        SimpleSpan customerLookup = spans.get("customer-service#find-customer-by-email");
+        assertEquals(checkout.getSpanId(), customerLookup.getParentId());
+        assertEquals(customerLookup.getSpanId(), spans.get("customer-repository#find-by-email-and-is-active-tr").getParentId());
+
+        SimpleSpan orderInsert = spans.get("order-repository#save");
+        assertEquals(checkout.getSpanId(), orderInsert.getParentId());
+        assertEquals("OrderRepository", orderInsert.getTags().get("repository"));
+        assertEquals(checkout.getSpanId(), spans.get("order-item-repository#save-all").getParentId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T observedService(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ObservedAspect(observationRegistry));
+        return (T) factory.getProxy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T observedRepository(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new RepositoryObservationAspect(observationRegistry));
+        return (T) factory.getProxy();
+    }
+}
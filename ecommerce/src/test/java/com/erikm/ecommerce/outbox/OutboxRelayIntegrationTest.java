@@ -0,0 +1,188 @@
+package com.erikm.ecommerce.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Outbox writer and relay against H2")
+class OutboxRelayIntegrationTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private OutboxWriter writer;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tearDown();
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new OutboxWriter(jdbcTemplate, objectMapper);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new OutboxProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tb_outbox_events");
+    }
+
+    @Test
+    @DisplayName("Should only store events of committed transactions and publish them in event order")
+    void shouldPublishCommittedEventsInOrder() {
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.recordOrder(OutboxWriter.ORDER_CREATED, 10L, 1L, OrderStatus.CONFIRMED, new BigDecimal("99.90"));
+            writer.recordOrder(OutboxWriter.ORDER_CONFIRMED, 10L, 1L, OrderStatus.CONFIRMED, new BigDecimal("99.90"));
+            writer.recordStockChanged(5L, "SMARTPHX001", 8, 7);
+            // Estoque igual não gera evento
+            writer.recordStockChanged(6L, "EARBUDS001", 3, 3);
+            assertThat(count()).isZero();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.recordOrder(OutboxWriter.ORDER_CANCELLED, 10L, 1L, OrderStatus.CANCELLED, new BigDecimal("99.90"));
+            status.setRollbackOnly();
+        });
+
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(100);
+        int published = relay(sink).relay();
+
+        assertThat(published).isEqualTo(3);
+        assertThat(sink.messages()).extracting(OutboxMessage::eventType)
+            .containsExactly(OutboxWriter.ORDER_CREATED, OutboxWriter.ORDER_CONFIRMED, OutboxWriter.STOCK_CHANGED);
+        assertThat(sink.messages()).extracting(OutboxMessage::eventId).isSorted();
+        assertThat(sink.messages().get(0).aggregateId()).isEqualTo("10");
+        assertThat(sink.messages().get(2).payload()).contains("\"previousStock\":8", "\"stockQuantity\":7");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_outbox_events where published_at is null", Long.class)).isZero();
+        assertThat(meterRegistry.get("outbox.publish.latency").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("outbox.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should redeliver the same batch after a sink failure without skipping ahead")
+    void shouldRedeliverAfterFailure() {
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            writer.recordOrder(OutboxWriter.ORDER_CREATED, orderId, 1L, OrderStatus.PENDING, BigDecimal.TEN);
+        }
+        InMemoryOutboxSink delivered = new InMemoryOutboxSink(100);
+        AtomicBoolean down = new AtomicBoolean(true);
+        OutboxRelay relay = relay(messages -> {
+            if (down.get()) {
+                throw new IOException("sink fora do ar");
+            }
+            delivered.publish(messages);
+        });
+
+        assertThat(relay.relay()).isZero();
+        assertThat(delivered.messages()).isEmpty();
+        assertThat(meterRegistry.get("outbox.publish.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.lag").gauge().value()).isGreaterThanOrEqualTo(0);
+
+        down.set(false);
+        assertThat(relay.relay()).isEqualTo(3);
+        assertThat(delivered.messages()).extracting(OutboxMessage::aggregateId).containsExactly("1", "2", "3");
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drain a backlog in several batches within one cycle")
+    void shouldDrainInBatches() {
+        for (long productId = 1; productId <= 5; productId++) {
+            writer.recordStockChanged(productId, "SKU" + productId, 0, 1);
+        }
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerRun(2);
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(100);
+        OutboxRelay relay = relay(sink);
+
+        assertThat(relay.relay()).isEqualTo(4);
+        assertThat(meterRegistry.get("outbox.pending").gauge().value()).isEqualTo(1);
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(sink.messages()).extracting(OutboxMessage::aggregateId).containsExactly("1", "2", "3", "4", "5");
+    }
+
+    @Test
+    @DisplayName("Should append one JSON line per event to the file sink")
+    void shouldWriteNdjson(@TempDir Path directory) throws IOException {
+        writer.recordOrder(OutboxWriter.ORDER_CREATED, 42L, 7L, OrderStatus.CREATED, new BigDecimal("15.50"));
+        writer.recordStockChanged(3L, "NOVEL001", 2, 9);
+        Path file = directory.resolve("events/outbox.ndjson");
+
+        relay(new FileOutboxSink(file, objectMapper)).relay();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("eventType").asText()).isEqualTo(OutboxWriter.ORDER_CREATED);
+        assertThat(first.get("aggregateType").asText()).isEqualTo(OutboxWriter.AGGREGATE_ORDER);
+        assertThat(first.get("payload").get("customerId").asLong()).isEqualTo(7L);
+        assertThat(first.get("payload").get("totalAmount").decimalValue()).isEqualByComparingTo("15.50");
+        assertThat(objectMapper.readTree(lines.get(1)).get("payload").get("stockQuantity").asInt()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should purge only published events older than the retention")
+    void shouldPurgeOldPublishedEvents() {
+        writer.recordStockChanged(1L, "SKU1", 0, 1);
+        writer.recordStockChanged(2L, "SKU2", 0, 1);
+        writer.recordStockChanged(3L, "SKU3", 0, 1);
+        jdbcTemplate.update("update tb_outbox_events set published_at = ? where aggregate_id = '1'", Timestamp.valueOf(LocalDateTime.now().minusDays(10)));
+        jdbcTemplate.update("update tb_outbox_events set published_at = ? where aggregate_id = '2'", Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        properties.setRetention(Duration.ofDays(7));
+
+        assertThat(relay(new InMemoryOutboxSink(10)).purge()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select aggregate_id from tb_outbox_events order by event_id", String.class)).containsExactly("2", "3");
+    }
+
+    private OutboxRelay relay(OutboxSink sink) {
+        return new OutboxRelay(new NamedParameterJdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource), sink,
+            new DomainMetrics(meterRegistry), properties);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from tb_outbox_events", Long.class);
+    }
+}
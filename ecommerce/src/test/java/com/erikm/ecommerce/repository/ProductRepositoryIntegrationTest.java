@@ -2,6 +2,7 @@ package com.erikm.ecommerce.repository;
 
 import com.erikm.ecommerce.model.Category;
 import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Utils.ResourceVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -233,4 +234,19 @@ class ProductRepositoryIntegrationTest {
         Iterable<Product> products = productRepository.findAll();
         assertThat(products).hasSize(4); // All products (active and inactive)
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should change the list validator when a product is deactivated")
+    void shouldChangeVersionWhenProductIsDeactivated() {
+        ResourceVersion before = productRepository.findVersion();
+        assertThat(before.count()).isEqualTo(4); // Inativos também contam
+        assertThat(before.lastModified()).isNotNull();
+
+        product2.setIsActive(false);
+        productRepository.saveAndFlush(product2);
+
+        ResourceVersion after = productRepository.findVersion();
+        assertThat(after.count()).isEqualTo(4);
+        assertThat(after.lastModified()).isAfter(before.lastModified());
+    }
+}
@@ -0,0 +1,125 @@
+package com.erikm.ecommerce.repository;
+
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Listagem de produtos com e sem transação read-only: flush manual e entidades sem snapshot de dirty checking
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Read-only transactions: flush mode, read-only entities and dirty-checking snapshots")
+class ReadOnlyTransactionAllocationTest {
+
+    private static final int PRODUCTS = 400;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product("Product " + i, "Description " + i, new BigDecimal("10.00").add(BigDecimal.valueOf(i)), 10, category, "SKU-" + i, true));
+        }
+        productRepository.saveAll(products);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Read-only transaction should use manual flush and load entities without snapshots")
+    void readOnlyTransactionShouldSkipDirtyChecking() {
+        TransactionTemplate readOnly = template(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Page<Product> page = productRepository.findByIsActiveTrue(PageRequest.of(0, 50));
+
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            assertThat(page.getContent()).allMatch(session::isReadOnly);
+
+            // Alterações em entidades read-only não são detectadas nem gravadas
+            page.getContent().get(0).setStockQuantity(999);
+        });
+
+        assertThat(productRepository.findAll()).noneMatch(product -> product.getStockQuantity() == 999);
+
+        template(false).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Page<Product> page = productRepository.findByIsActiveTrue(PageRequest.of(0, 50));
+            assertThat(page.getContent()).noneMatch(session::isReadOnly);
+        });
+    }
+
+    @Test
+    @DisplayName("Read-only transaction should not keep the loaded-state snapshots used for dirty checking")
+    void readOnlyListingShouldNotKeepSnapshots() {
+        // O snapshot (loadedState) é a cópia de cada entidade que a transação read-write aloca para o dirty checking
+        Integer readOnlySnapshots = template(true).execute(status -> snapshots(productRepository.findByIsActiveTrue(PageRequest.of(0, PRODUCTS))));
+        Integer readWriteSnapshots = template(false).execute(status -> snapshots(productRepository.findByIsActiveTrue(PageRequest.of(0, PRODUCTS))));
+
+        assertThat(readOnlySnapshots).isZero();
+        assertThat(readWriteSnapshots).isEqualTo(PRODUCTS);
+    }
+
+    private int snapshots(Page<Product> page) {
+        assertThat(page.getNumberOfElements()).isEqualTo(PRODUCTS);
+        PersistenceContext persistenceContext = entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+        int snapshots = 0;
+        for (Product product : page.getContent()) {
+            EntityEntry entry = persistenceContext.getEntry(product);
+            if (entry.getLoadedState() != null) {
+                snapshots++;
+            }
+        }
+        return snapshots;
+    }
+
+    private TransactionTemplate template(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+}
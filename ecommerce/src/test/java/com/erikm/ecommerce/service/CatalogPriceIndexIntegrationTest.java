@@ -0,0 +1,189 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Utils.ProductPriceEntry;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("CatalogPriceIndex against H2")
+class CatalogPriceIndexIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogPriceIndex priceIndex;
+    private Category books;
+    private Category games;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        meterRegistry = new SimpleMeterRegistry();
+        priceIndex = new CatalogPriceIndex(productRepository, new DomainMetrics(meterRegistry), transactionManager, true);
+        books = categoryRepository.save(new Category("Books", "Livros", true));
+        games = categoryRepository.save(new Category("Games", "Jogos", true));
+        // Preços repetidos de propósito: o desempate é pelo id
+        for (int i = 1; i <= 30; i++) {
+            save("P" + i, new BigDecimal((i % 10) + 1 + ".50"), i % 3 == 0 ? games : books, true);
+        }
+        save("Inativo", new BigDecimal("5.50"), books, false);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Price ranges should match the database query, per category and for the whole catalog")
+    void shouldMatchDatabaseRanges() {
+        priceIndex.refresh();
+
+        Pageable ascending = PageRequest.of(1, 4, Sort.by("price"));
+        assertSameIds(priceIndex.findIds(null, new BigDecimal("3.00"), new BigDecimal("7.50"), ascending),
+            productRepository.findByPriceBetweenAndIsActiveTrue(new BigDecimal("3.00"), new BigDecimal("7.50"), withIdTieBreak(ascending)));
+
+        Pageable descending = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "price"));
+        assertSameIds(priceIndex.findIds(games.getCategoryId(), new BigDecimal("2.01"), new BigDecimal("9.99"), descending),
+            productRepository.findByCategoryCategoryIdAndPriceBetweenAndIsActiveTrue(games.getCategoryId(), new BigDecimal("2.01"), new BigDecimal("9.99"),
+                withIdTieBreak(descending)));
+
+        Pageable byCategory = PageRequest.of(0, 50, Sort.by("price"));
+        assertSameIds(priceIndex.findIds(books.getCategoryId(), null, null, byCategory),
+            productRepository.findByCategoryCategoryIdAndIsActiveTrue(books.getCategoryId(), withIdTieBreak(byCategory)));
+
+        assertThat(meterRegistry.counter("cache.requests", "cache", "price-index", "result", "hit").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database before loading or for orders other than price")
+    void shouldDeclineUnsupportedQueries() {
+        assertThat(priceIndex.findIds(null, BigDecimal.ONE, BigDecimal.TEN, PageRequest.of(0, 10))).isEmpty();
+        assertThat(meterRegistry.counter("cache.requests", "cache", "price-index", "result", "miss").count()).isEqualTo(1);
+
+        priceIndex.refresh();
+
+        assertThat(priceIndex.findIds(null, BigDecimal.ONE, BigDecimal.TEN, PageRequest.of(0, 10))).isPresent();
+        assertThat(priceIndex.findIds(null, BigDecimal.ONE, BigDecimal.TEN, PageRequest.of(0, 10, Sort.by("name")))).isEmpty();
+        assertThat(priceIndex.findIds(books.getCategoryId(), null, null, PageRequest.of(0, 10))).isEmpty();
+        assertThat(new CatalogPriceIndex(productRepository, new DomainMetrics(meterRegistry), transactionManager, false)
+            .findIds(null, BigDecimal.ONE, BigDecimal.TEN, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Product writes should be reflected after commit: price change, category move, deactivation and creation")
+    void shouldApplyProductChanges() {
+        priceIndex.refresh();
+        List<Product> products = productRepository.findAll(Sort.by("productId"));
+
+        Product repriced = products.get(0);
+        repriced.setPrice(new BigDecimal("99.90"));
+        Product moved = products.get(1);
+        moved.setCategory(games);
+        Product deactivated = products.get(2);
+        deactivated.setIsActive(false);
+        productRepository.saveAll(List.of(repriced, moved, deactivated));
+        Product created = save("Novo", new BigDecimal("0.10"), games, true);
+
+        priceIndex.onCatalogChanged(CatalogChangedEvent.products(List.of(repriced.getProductId(), moved.getProductId(),
+            deactivated.getProductId(), created.getProductId())));
+
+        Pageable all = PageRequest.of(0, 100, Sort.by("price"));
+        assertSameIds(priceIndex.findIds(null, null, new BigDecimal("1000"), all),
+            productRepository.findByPriceBetweenAndIsActiveTrue(BigDecimal.ZERO, new BigDecimal("1000"), withIdTieBreak(all)));
+        assertSameIds(priceIndex.findIds(games.getCategoryId(), null, null, all),
+            productRepository.findByCategoryCategoryIdAndIsActiveTrue(games.getCategoryId(), withIdTieBreak(all)));
+        assertSameIds(priceIndex.findIds(books.getCategoryId(), null, null, all),
+            productRepository.findByCategoryCategoryIdAndIsActiveTrue(books.getCategoryId(), withIdTieBreak(all)));
+
+        Page<Long> expensive = priceIndex.findIds(null, new BigDecimal("50"), null, PageRequest.of(0, 10)).orElseThrow();
+        assertThat(expensive.getContent()).containsExactly(repriced.getProductId());
+        assertThat(priceIndex.findIds(games.getCategoryId(), null, BigDecimal.ONE, PageRequest.of(0, 10)).orElseThrow().getContent())
+            .containsExactly(created.getProductId());
+    }
+
+    @Test
+    @DisplayName("Re-reads applied out of order should not bring back an older price or a removed product")
+    void shouldIgnoreOlderVersions() {
+        priceIndex.refresh();
+        List<Product> products = productRepository.findAll(Sort.by("productId"));
+        Product edited = products.get(0);
+
+        edited.setPrice(new BigDecimal("70.00"));
+        edited = productRepository.save(edited);
+        List<ProductPriceEntry> first = productRepository.findPriceEntriesByProductIdIn(List.of(edited.getProductId()));
+        edited.setPrice(new BigDecimal("80.00"));
+        edited = productRepository.save(edited);
+        List<ProductPriceEntry> second = productRepository.findPriceEntriesByProductIdIn(List.of(edited.getProductId()));
+
+        // A segunda edição chega antes da primeira
+        priceIndex.apply(second);
+        priceIndex.apply(first);
+
+        assertThat(priceIndex.findIds(null, new BigDecimal("75"), null, PageRequest.of(0, 10)).orElseThrow().getContent())
+            .containsExactly(edited.getProductId());
+        assertThat(priceIndex.findIds(null, new BigDecimal("60"), new BigDecimal("75"), PageRequest.of(0, 10)).orElseThrow().getContent()).isEmpty();
+
+        // Remoção aplicada antes de uma leitura atrasada do produto ainda ativo
+        Product removed = products.get(1);
+        List<ProductPriceEntry> beforeRemoval = productRepository.findPriceEntriesByProductIdIn(List.of(removed.getProductId()));
+        productRepository.delete(removed);
+        priceIndex.onCatalogChanged(CatalogChangedEvent.products(List.of(removed.getProductId())));
+        priceIndex.apply(beforeRemoval);
+
+        assertThat(priceIndex.findIds(null, null, new BigDecimal("1000"), PageRequest.of(0, 100)).orElseThrow().getContent())
+            .doesNotContain(removed.getProductId());
+    }
+
+    private Product save(String name, BigDecimal price, Category category, boolean active) {
+        return productRepository.save(new Product(name, "Descrição de " + name, price, 10, category, "SKU-" + name, active));
+    }
+
+    // A ordem do índice é (preço, id); o banco precisa do mesmo desempate para a comparação
+    private static Pageable withIdTieBreak(Pageable pageable) {
+        Sort.Direction direction = pageable.getSort().getOrderFor("price").getDirection();
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(direction, "price", "productId"));
+    }
+
+    private static void assertSameIds(Optional<Page<Long>> indexed, Page<Product> fromDatabase) {
+        assertThat(indexed).isPresent();
+        assertThat(indexed.get().getContent()).isEqualTo(fromDatabase.map(Product::getProductId).getContent());
+        assertThat(indexed.get().getTotalElements()).isEqualTo(fromDatabase.getTotalElements());
+    }
+}
@@ -2,6 +2,7 @@ package com.erikm.ecommerce.service;
 
 import com.erikm.ecommerce.dto.CategoryDTO;
 import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.observability.DomainMetrics;
 import com.erikm.ecommerce.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,11 +12,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
@@ -34,6 +37,15 @@ class CategoryServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DomainMetrics domainMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -219,6 +231,7 @@ class CategoryServiceTest {
         assertFalse(deletedCategory.getIsActive());
         verify(categoryRepository, times(1)).findByCategoryIdAndIsActiveTrue(categoryId);
         verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.category(categoryId));
     }
 
     @Test
@@ -233,6 +246,7 @@ class CategoryServiceTest {
         assertEquals("Categoria não encontrada.", exception.getReason());
         verify(categoryRepository, times(1)).findByCategoryIdAndIsActiveTrue(categoryId);
         verify(categoryRepository, never()).save(any(Category.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     // --- convertToDto Tests ---
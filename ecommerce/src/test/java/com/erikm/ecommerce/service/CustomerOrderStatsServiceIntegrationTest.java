@@ -0,0 +1,170 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.CustomerOrderStats;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.repository.CustomerOrderStatsRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("CustomerOrderStatsService against H2")
+class CustomerOrderStatsServiceIntegrationTest {
+
+    @Autowired
+    private CustomerOrderStatsRepository statsRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerOrderStatsService statsService;
+    private CustomerService customerService;
+    private TransactionTemplate transactionTemplate;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        tearDown();
+        customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+        customerService = mock(CustomerService.class);
+        statsService = new CustomerOrderStatsService(statsRepository, customerService, new ReadYourWritesTracker(Duration.ofSeconds(5)), transactionManager, 1);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statsRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should seed a missing row from existing orders and increment it afterwards")
+    void shouldSeedFromOrdersThenIncrement() {
+        order(OrderStatus.DELIVERED, "100.00");
+        order(OrderStatus.CANCELLED, "40.00");
+        Order placed = order(OrderStatus.CONFIRMED, "25.50");
+
+        // Primeiro pedido após o deploy: a linha nasce do histórico, já incluindo o pedido recém-salvo
+        place(placed);
+        CustomerOrderStats seeded = statsRepository.findById(customer.getCustomerId()).orElseThrow();
+        assertThat(seeded.getOrderCount()).isEqualTo(3);
+        assertThat(seeded.getCancelledCount()).isEqualTo(1);
+        assertThat(seeded.getTotalSpent()).isEqualByComparingTo("125.50");
+
+        Order next = order(OrderStatus.PENDING, "10.00");
+        place(next);
+        CustomerOrderStats incremented = statsRepository.findById(customer.getCustomerId()).orElseThrow();
+        assertThat(incremented.getOrderCount()).isEqualTo(4);
+        assertThat(incremented.getTotalSpent()).isEqualByComparingTo("135.50");
+        assertThat(incremented.getLastOrderDate()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should subtract cancelled orders from the total spent")
+    void shouldApplyCancellations() {
+        place(order(OrderStatus.CONFIRMED, "100.00"));
+        place(order(OrderStatus.CONFIRMED, "30.00"));
+
+        transactionTemplate.executeWithoutResult(status -> statsService.recordOrderCancelled(customer.getCustomerId(), new BigDecimal("30.00")));
+        transactionTemplate.executeWithoutResult(status -> statsService.recordCancellations(
+            Map.of(customer.getCustomerId(), new CustomerOrderStatsService.CancelledTotals(1, new BigDecimal("100.00")))));
+
+        CustomerOrderStats stats = statsRepository.findById(customer.getCustomerId()).orElseThrow();
+        assertThat(stats.getOrderCount()).isEqualTo(2);
+        assertThat(stats.getCancelledCount()).isEqualTo(2);
+        assertThat(stats.getTotalSpent()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Should rebuild every row from tb_orders, fixing drift")
+    void shouldRebuildFromOrders() {
+        place(order(OrderStatus.CONFIRMED, "80.00"));
+        order(OrderStatus.DELIVERED, "20.00");
+
+        // Um cliente sem pedidos com uma linha divergente: o rebuild remove a linha
+        Customer withoutOrders = customerRepository.save(new Customer("Maria", "Souza", "maria.souza@example.com", "(11) 91234-5678", "222.222.222-22", true));
+        statsRepository.save(new CustomerOrderStats(withoutOrders.getCustomerId(), 3L, 0L, new BigDecimal("30.00"), LocalDateTime.now(), LocalDateTime.now()));
+
+        // Lotes de um cliente cada: duas transações
+        int rows = statsService.rebuild();
+
+        assertThat(rows).isEqualTo(1);
+        CustomerOrderStats stats = statsRepository.findById(customer.getCustomerId()).orElseThrow();
+        assertThat(stats.getOrderCount()).isEqualTo(2);
+        assertThat(stats.getTotalSpent()).isEqualByComparingTo("100.00");
+        assertThat(statsRepository.existsById(withoutOrders.getCustomerId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should compute stats on read while the customer has no row yet")
+    void shouldFallBackToAggregateOnRead() {
+        order(OrderStatus.CONFIRMED, "12.00");
+        order(OrderStatus.CANCELLED, "8.00");
+
+        CustomerOrderStats stats = transactionTemplate.execute(status -> statsService.findByCustomerId(customer.getCustomerId()));
+
+        assertThat(stats.getOrderCount()).isEqualTo(2);
+        assertThat(stats.getCancelledCount()).isEqualTo(1);
+        assertThat(stats.getTotalSpent()).isEqualByComparingTo("12.00");
+        assertThat(statsRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should return empty stats for a customer without orders and 404 for an unknown one")
+    void shouldHandleCustomersWithoutOrders() {
+        CustomerOrderStats empty = transactionTemplate.execute(status -> statsService.findByCustomerId(customer.getCustomerId()));
+        assertThat(empty.getOrderCount()).isZero();
+        assertThat(empty.getTotalSpent()).isEqualByComparingTo(BigDecimal.ZERO);
+
+        when(customerService.findCustomerById(999L)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado."));
+        assertThrows(ResponseStatusException.class, () -> statsService.findByCustomerId(999L));
+    }
+
+    private void place(Order order) {
+        transactionTemplate.executeWithoutResult(status -> statsService.recordOrderPlaced(customer.getCustomerId(), order.getTotalAmount(), LocalDateTime.now()));
+    }
+
+    private Order order(OrderStatus status, String amount) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal(amount));
+        order.setShippingAddress("Rua A, 123");
+        return orderRepository.save(order);
+    }
+}
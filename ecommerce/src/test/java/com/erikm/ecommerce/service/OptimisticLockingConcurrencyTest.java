@@ -0,0 +1,228 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.erikm.ecommerce.config.ApplicationConfig;
+import com.erikm.ecommerce.config.OptimisticRetryConfig;
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderDTO;
+import com.erikm.ecommerce.dto.OrderItemDTO;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.CustomerOrderStats;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.CustomerOrderStatsRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+@DataJpaTest(properties = {
+    "spring.jpa.show-sql=false",
+    "app.optimistic-retry.max-attempts=50",
+    "app.optimistic-retry.max-backoff=20ms"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({ AopAutoConfiguration.class, JacksonAutoConfiguration.class })
+@Import({ OrderService.class, OrderStatusHistoryWriter.class, OrderStockRestorer.class, OutboxWriter.class, CustomerOrderStatsService.class, ProductService.class, CatalogPriceIndex.class, CategoryService.class, CustomerService.class, DomainMetrics.class,
+    ReadYourWritesTracker.class, ApplicationConfig.class, OptimisticRetryConfig.class, OptimisticLockingConcurrencyTest.Beans.class })
+@DisplayName("Optimistic locking under concurrent checkouts")
+class OptimisticLockingConcurrencyTest {
+
+    private static final int CLIENTS = 8;
+    private static final int ORDERS_PER_CLIENT = 5;
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry() {
+            return ObservationRegistry.NOOP;
+        }
+
+        @Bean
+        BCryptPasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CustomerOrderStatsRepository customerOrderStatsRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category electronics;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        electronics = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from tb_outbox_events");
+        customerOrderStatsRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should not lose stock updates when checkouts race on the same product")
+    void shouldNotLoseUpdatesOnHotProduct() throws Exception {
+        Product hot = productRepository.save(new Product("Smartphone X", "Latest model smartphone", new BigDecimal("1500.00"), 100, electronics, "SMARTPHX001", true));
+
+        List<Order> orders = checkoutConcurrently(client -> "SMARTPHX001");
+
+        assertThat(orders).hasSize(CLIENTS * ORDERS_PER_CLIENT).allMatch(order -> order.getStatus() == OrderStatus.CONFIRMED);
+        Product reloaded = productRepository.findById(hot.getProductId()).orElseThrow();
+        assertThat(reloaded.getStockQuantity()).isEqualTo(100 - CLIENTS * ORDERS_PER_CLIENT);
+        assertThat(reloaded.getVersion()).isEqualTo(CLIENTS * ORDERS_PER_CLIENT);
+        assertThat(conflicts("OrderService.createNewOrder")).isPositive();
+
+        CustomerOrderStats stats = customerOrderStatsRepository.findAll().get(0);
+        assertThat(stats.getOrderCount()).isEqualTo(CLIENTS * ORDERS_PER_CLIENT);
+        assertThat(stats.getTotalSpent()).isEqualByComparingTo(new BigDecimal("1500.00").multiply(BigDecimal.valueOf(CLIENTS * ORDERS_PER_CLIENT)));
+
+        // Tentativas desfeitas por conflito não deixam eventos; os de estoque saem na ordem dos commits
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_outbox_events where event_type = ?", Long.class, OutboxWriter.ORDER_CREATED))
+            .isEqualTo(CLIENTS * ORDERS_PER_CLIENT);
+        List<String> stockEvents = jdbcTemplate.queryForList("select payload from tb_outbox_events where event_type = ? and aggregate_id = ? order by event_id",
+            String.class, OutboxWriter.STOCK_CHANGED, String.valueOf(hot.getProductId()));
+        assertThat(stockEvents).hasSize(CLIENTS * ORDERS_PER_CLIENT);
+        for (int i = 0; i < stockEvents.size(); i++) {
+            assertThat(stockEvents.get(i)).contains("\"stockQuantity\":" + (99 - i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should let checkouts on different products proceed without conflicts")
+    void shouldNotSerializeIndependentCheckouts() throws Exception {
+        for (int client = 0; client < CLIENTS; client++) {
+            productRepository.save(new Product("Product " + client, "Independent product", new BigDecimal("10.00"), 100, electronics, "SKU-" + client, true));
+        }
+
+        List<Order> orders = checkoutConcurrently(client -> "SKU-" + client);
+
+        assertThat(orders).hasSize(CLIENTS * ORDERS_PER_CLIENT).allMatch(order -> order.getStatus() == OrderStatus.CONFIRMED);
+        assertThat(productRepository.findAll()).allMatch(product -> product.getStockQuantity() == 100 - ORDERS_PER_CLIENT);
+        assertThat(conflicts("OrderService.createNewOrder")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should bump the version on every stock edit")
+    void shouldBumpVersionOnStockEdit() {
+        Product product = productRepository.save(new Product("Wireless Earbuds", "High-quality wireless earbuds", new BigDecimal("300.00"), 80, electronics, "EARBUDSW001", true));
+        assertThat(product.getVersion()).isZero();
+
+        Product edited = productService.editStock(product.getProductId(), 70);
+
+        assertThat(edited.getVersion()).isEqualTo(1L);
+    }
+
+    private List<Order> checkoutConcurrently(IntFunction<String> skuForClient) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Order>>> futures = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                String sku = skuForClient.apply(client);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Order> placed = new ArrayList<>();
+                    for (int i = 0; i < ORDERS_PER_CLIENT; i++) {
+                        placed.add(orderService.createNewOrder(new OrderDTO("joao.silva@example.com", "Rua A, 123", List.of(new OrderItemDTO(sku, 1)))));
+                    }
+                    return placed;
+                }));
+            }
+            start.countDown();
+
+            List<Order> orders = new ArrayList<>();
+            for (Future<List<Order>> future : futures) {
+                orders.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+            return orders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double conflicts(String operation) {
+        return meterRegistry.find("optimistic.lock.conflicts").tag("operation", operation).counters().stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    }
+}
@@ -0,0 +1,178 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("OrderExportService against H2")
+class OrderExportServiceIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderExportService exportService;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+        exportService = new OrderExportService(dataSource, transactionManager, mock(DomainMetrics.class), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("CSV export should include only orders in the period and escape text fields")
+    void shouldExportCsvForPeriod() {
+        insertOrders(LocalDate.of(2025, 1, 31), 1, "Rua A, 10");
+        insertOrders(LocalDate.of(2025, 2, 1), 2, "Rua \"B\", 20");
+        insertOrders(LocalDate.of(2025, 2, 28), 1, "Rua C");
+        insertOrders(LocalDate.of(2025, 3, 1), 1, "Rua D");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = exportService.exportOrders(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28), FileFormat.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo(String.join(",", OrderExportService.COLUMNS));
+        assertThat(lines.get(1)).startsWith(lines.get(1).split(",")[0] + ",2025-02-01T12:00,CONFIRMED,100.00,0," + customer.getCustomerId() + ",joao.silva@example.com,")
+            .endsWith(",\"Rua \"\"B\"\", 20\"");
+        assertThat(lines.get(3)).contains("2025-02-28T12:00").endsWith(",Rua C");
+    }
+
+    @Test
+    @DisplayName("NDJSON export should be a JSON object per line and survive gzip")
+    void shouldExportGzippedNdjson() throws IOException {
+        insertOrders(LocalDate.of(2025, 2, 10), 3, "Rua A, 10");
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            exportService.exportOrders(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28), FileFormat.NDJSON, gzip);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> orders = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                orders.add(objectMapper.readTree(line));
+            }
+        }
+
+        assertThat(orders).hasSize(3);
+        assertThat(orders.get(0).get("customerEmail").asText()).isEqualTo("joao.silva@example.com");
+        assertThat(orders.get(0).get("totalAmount").decimalValue()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(orders.get(0).get("shippingAddress").asText()).isEqualTo("Rua A, 10");
+    }
+
+    @Test
+    @DisplayName("Large exports should stream rows without buffering the whole result")
+    void shouldStreamLargeExport() {
+        int total = 20_000;
+        insertOrders(LocalDate.of(2025, 2, 10), total, "Rua A, 10");
+
+        CountingOutputStream output = new CountingOutputStream();
+        long rows = exportService.exportOrders(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28), FileFormat.CSV, output);
+
+        assertThat(rows).isEqualTo(total);
+        assertThat(output.lines).isEqualTo(total + 1);
+        // Cada linha traz ao menos o endereço e o e-mail do cliente
+        assertThat(output.bytes).isGreaterThan((long) total * ("Rua A, 10".length() + "joao.silva@example.com".length()));
+        // O writer de 32KB é descarregado várias vezes durante a consulta, não só no final
+        assertThat(output.writes).isGreaterThan(10);
+    }
+
+    private void insertOrders(LocalDate date, int count, String address) {
+        Timestamp timestamp = Timestamp.valueOf(date.atTime(12, 0));
+        List<Object[]> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[] { customer.getCustomerId(), "CONFIRMED", new BigDecimal("100.00"), address, timestamp, timestamp });
+        }
+        jdbcTemplate.batchUpdate("insert into tb_orders (customer_id, status, total_amount, shipping_address, created_at, updated_at) values (?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+        private long writes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
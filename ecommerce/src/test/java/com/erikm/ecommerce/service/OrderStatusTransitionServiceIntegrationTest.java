@@ -0,0 +1,265 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderStatusTransitionDTO;
+import com.erikm.ecommerce.dto.Responses.OrderStatusTransitionResult;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.OrderItem;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("OrderStatusTransitionService against H2")
+class OrderStatusTransitionServiceIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private OrderStatusTransitionService transitionService;
+    private OutboxWriter outbox;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tearDown();
+        customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+
+        DataSource counted = ProxyDataSourceBuilder.create(dataSource).countQuery().build();
+        outbox = mock(OutboxWriter.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(counted);
+        transitionService = new OrderStatusTransitionService(namedJdbcTemplate, new OrderStatusHistoryWriter(new JdbcTemplate(counted)), mock(CustomerOrderStatsService.class),
+            new ReadYourWritesTracker(Duration.ofSeconds(5)), outbox, new OrderStockRestorer(namedJdbcTemplate, outbox, eventPublisher), mock(DomainMetrics.class), 10_000);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(counted));
+        QueryCountHolder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tb_order_status_history");
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should validate each transition against the state machine and report per item")
+    void shouldValidateTransitionsPerItem() {
+        Order confirmed = order(OrderStatus.CONFIRMED);
+        Order pending = order(OrderStatus.PENDING);
+        Order delivered = order(OrderStatus.DELIVERED);
+        QueryCountHolder.clear();
+
+        List<OrderStatusTransitionResult> results = transition(List.of(
+            new OrderStatusTransitionDTO(confirmed.getOrderId(), "delivered"),
+            new OrderStatusTransitionDTO(pending.getOrderId(), "DELIVERED"),
+            new OrderStatusTransitionDTO(pending.getOrderId(), "CONFIRMED"),
+            new OrderStatusTransitionDTO(pending.getOrderId(), "CANCELLED"),
+            new OrderStatusTransitionDTO(delivered.getOrderId(), "CANCELLED"),
+            new OrderStatusTransitionDTO(999_999L, "CANCELLED"),
+            new OrderStatusTransitionDTO(confirmed.getOrderId(), "SHIPPED"),
+            new OrderStatusTransitionDTO(null, "CANCELLED")));
+
+        assertThat(results).extracting(OrderStatusTransitionResult::status).containsExactly(
+            "APPLIED", "REJECTED", "REJECTED", "APPLIED", "REJECTED", "NOT_FOUND", "REJECTED", "REJECTED");
+        assertThat(results.get(1).message()).isEqualTo("Transição de status inválida: PENDING -> DELIVERED.");
+        // Só o PendingOrderAllocator confirma pedidos PENDING, porque é ele quem reserva o estoque
+        assertThat(results.get(2).message()).isEqualTo("Transição de status inválida: PENDING -> CONFIRMED.");
+        assertThat(results.get(3).fromStatus()).isEqualTo(OrderStatus.PENDING);
+
+        assertThat(orderRepository.findById(confirmed.getOrderId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        Order reloadedPending = orderRepository.findById(pending.getOrderId()).orElseThrow();
+        assertThat(reloadedPending.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(reloadedPending.getVersion()).isEqualTo(1L);
+        assertThat(orderRepository.findById(delivered.getOrderId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+            "select from_status, to_status, source from tb_order_status_history where order_id = ? order by history_id", pending.getOrderId());
+        assertThat(history).extracting(row -> row.get("FROM_STATUS") + "->" + row.get("TO_STATUS"))
+            .containsExactly("PENDING->CANCELLED");
+        assertThat(history).allMatch(row -> OrderStatusHistoryWriter.SOURCE_BULK.equals(row.get("SOURCE")));
+
+        // Um SELECT ... FOR UPDATE, um batch de UPDATE e um batch de INSERT no histórico
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertThat(count.getSelect()).isEqualTo(1);
+        assertThat(count.getUpdate()).isEqualTo(1);
+        assertThat(count.getInsert()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not write history when the transaction rolls back")
+    void shouldDiscardHistoryOnRollback() {
+        Order confirmed = order(OrderStatus.CONFIRMED);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transitionService.transitionStatuses(List.of(new OrderStatusTransitionDTO(confirmed.getOrderId(), "DELIVERED")));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_order_status_history", Integer.class)).isZero();
+        assertThat(orderRepository.findById(confirmed.getOrderId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    @DisplayName("Should move thousands of orders with a handful of statements")
+    void shouldScaleToThousandsOfOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            orders.add(newOrder(OrderStatus.CONFIRMED));
+        }
+        orderRepository.saveAll(orders);
+        QueryCountHolder.clear();
+
+        List<OrderStatusTransitionDTO> transitions = new ArrayList<>();
+        for (Order order : orders) {
+            transitions.add(new OrderStatusTransitionDTO(order.getOrderId(), "DELIVERED"));
+        }
+
+        List<OrderStatusTransitionResult> results = transition(transitions);
+
+        assertThat(results).allMatch(result -> OrderStatusTransitionResult.APPLIED.equals(result.status()));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_orders where status = 'DELIVERED'", Integer.class)).isEqualTo(3_000);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_order_status_history", Integer.class)).isEqualTo(3_000);
+        // Três SELECT ... FOR UPDATE (fatias de 1000), um batch de UPDATE e um batch de INSERT no histórico
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertThat(count.getSelect()).isEqualTo(3);
+        assertThat(count.getUpdate()).isEqualTo(1);
+        assertThat(count.getInsert()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return the reserved stock of cancelled CONFIRMED orders, but not of PENDING ones")
+    void shouldRestoreStockOnBulkCancel() {
+        Category category = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        Product phone = productRepository.save(new Product("Phone", "Smartphone", new BigDecimal("10.00"), 5, category, "SKU-PHONE", true));
+        Product cable = productRepository.save(new Product("Cable", "USB cable", new BigDecimal("1.00"), 0, category, "SKU-CABLE", true));
+        Order confirmed = order(OrderStatus.CONFIRMED);
+        item(confirmed, phone, 2);
+        item(confirmed, cable, 3);
+        Order otherConfirmed = order(OrderStatus.CONFIRMED);
+        item(otherConfirmed, phone, 1);
+        Order pending = order(OrderStatus.PENDING);
+        item(pending, phone, 4);
+
+        List<OrderStatusTransitionResult> results = transition(List.of(
+            new OrderStatusTransitionDTO(confirmed.getOrderId(), "CANCELLED"),
+            new OrderStatusTransitionDTO(otherConfirmed.getOrderId(), "CANCELLED"),
+            new OrderStatusTransitionDTO(pending.getOrderId(), "CANCELLED")));
+
+        assertThat(results).allMatch(result -> OrderStatusTransitionResult.APPLIED.equals(result.status()));
+        Product reloadedPhone = productRepository.findById(phone.getProductId()).orElseThrow();
+        assertThat(reloadedPhone.getStockQuantity()).isEqualTo(8);
+        assertThat(reloadedPhone.getVersion()).isEqualTo(phone.getVersion() + 1);
+        assertThat(productRepository.findById(cable.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(3);
+
+        verify(outbox).recordStockChanged(phone.getProductId(), "SKU-PHONE", 5, 8);
+        verify(outbox).recordStockChanged(cable.getProductId(), "SKU-CABLE", 0, 3);
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.products(List.of(phone.getProductId(), cable.getProductId())));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof StockReplenishedEvent replenished
+            && replenished.skus().equals(Set.of("SKU-PHONE", "SKU-CABLE"))));
+    }
+
+    @Test
+    @DisplayName("Should reject empty and oversized batches")
+    void shouldRejectInvalidBatchSizes() {
+        OrderStatusTransitionService limited = new OrderStatusTransitionService(null, null, null, null, null, null, mock(DomainMetrics.class), 1);
+
+        assertThrows(ResponseStatusException.class, () -> limited.transitionStatuses(List.of()));
+        assertThrows(ResponseStatusException.class, () -> limited.transitionStatuses(List.of(
+            new OrderStatusTransitionDTO(1L, "DELIVERED"), new OrderStatusTransitionDTO(2L, "DELIVERED"))));
+    }
+
+    private List<OrderStatusTransitionResult> transition(List<OrderStatusTransitionDTO> transitions) {
+        return transactionTemplate.execute(status -> transitionService.transitionStatuses(transitions));
+    }
+
+    private void item(Order order, Product product, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        orderItemRepository.save(item);
+    }
+
+    private Order order(OrderStatus status) {
+        return orderRepository.save(newOrder(status));
+    }
+
+    private Order newOrder(OrderStatus status) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        order.setShippingAddress("Rua A, 123");
+        return order;
+    }
+}
@@ -0,0 +1,197 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.erikm.ecommerce.dto.Responses.PageResponse;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(JacksonAutoConfiguration.class)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("PageStreamingService against H2")
+class PageStreamingServiceIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private PageStreamingService streamingService;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        streamingService = new PageStreamingService(productRepository, orderRepository, entityManager, objectMapper, transactionManager, 200);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Streamed product page should be the same JSON as PageResponse")
+    void shouldStreamSameJsonAsPageResponse() throws Exception {
+        Category books = categoryRepository.save(new Category("Books", "Livros", true));
+        Category games = categoryRepository.save(new Category("Games", "Jogos", true));
+        for (int i = 1; i <= 7; i++) {
+            productRepository.save(new Product("Produto " + i, "Descrição " + i, new BigDecimal(i + "0.00"), i, i % 2 == 0 ? books : games, "SKU-" + i, true));
+        }
+        productRepository.save(new Product("Inativo", "Fora do catálogo", new BigDecimal("5.00"), 1, books, "SKU-OFF", false));
+
+        Pageable pageable = PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "price"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = streamingService.writeActiveProducts(pageable, output);
+
+        String expected = readOnly.execute(status -> {
+            try {
+                return objectMapper.writeValueAsString(PageResponse.fromSpringPage(productRepository.findByIsActiveTrue(pageable)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        JsonNode streamed = objectMapper.readTree(output.toString(StandardCharsets.UTF_8));
+
+        assertThat(written).isEqualTo(3);
+        assertThat(streamed).isEqualTo(objectMapper.readTree(expected));
+        assertThat(streamed.get("content").get(0).get("sku").asText()).isEqualTo("SKU-4");
+        assertThat(streamed.get("totalElements").asLong()).isEqualTo(7);
+        assertThat(streamed.get("totalPages").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Streamed order page should report the last page and keep the customer in each order")
+    void shouldStreamLastOrderPage() throws Exception {
+        Customer customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            batch.add(new Object[] { customer.getCustomerId(), "CONFIRMED", new BigDecimal("100.00"), "Rua A, " + i, now, now });
+        }
+        new JdbcTemplate(dataSource).batchUpdate("insert into tb_orders (customer_id, status, total_amount, shipping_address, created_at, updated_at) values (?, ?, ?, ?, ?, ?)", batch);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = streamingService.writeOrders(PageRequest.of(1, 200, Sort.by("orderId")), output);
+
+        JsonNode page = objectMapper.readTree(output.toString(StandardCharsets.UTF_8));
+        assertThat(written).isEqualTo(50);
+        assertThat(page.get("content")).hasSize(50);
+        assertThat(page.get("content").get(49).get("shippingAddress").asText()).isEqualTo("Rua A, 249");
+        assertThat(page.get("content").get(0).get("customer").get("email").asText()).isEqualTo("joao.silva@example.com");
+        assertThat(page.get("first").asBoolean()).isFalse();
+        assertThat(page.get("last").asBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Response should be written after the read transaction has released its connection")
+    void shouldWriteOutsideTheTransaction() throws Exception {
+        Category books = categoryRepository.save(new Category("Books", "Livros", true));
+        for (int i = 1; i <= 3; i++) {
+            productRepository.save(new Product("Produto " + i, "Descrição " + i, new BigDecimal(i + "0.00"), i, books, "SKU-" + i, true));
+        }
+
+        List<Boolean> transactionActiveOnWrite = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream slowClient = new OutputStream() {
+            @Override
+            public void write(int b) {
+                buffer.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                transactionActiveOnWrite.add(TransactionSynchronizationManager.isActualTransactionActive());
+                buffer.write(b, off, len);
+            }
+        };
+
+        int written = streamingService.writeActiveProducts(PageRequest.of(0, 10, Sort.by("productId")), slowClient);
+
+        assertThat(written).isEqualTo(3);
+        assertThat(transactionActiveOnWrite).isNotEmpty().containsOnly(false);
+        assertThat(objectMapper.readTree(buffer.toString(StandardCharsets.UTF_8)).get("content").get(2).get("category").get("name").asText())
+            .isEqualTo("Books");
+    }
+
+    @Test
+    @DisplayName("Only pages at or above the configured size should be streamed")
+    void shouldStreamOnlyLargePages() {
+        assertThat(streamingService.shouldStream(PageRequest.of(0, 20))).isFalse();
+        assertThat(streamingService.shouldStream(PageRequest.of(0, 200))).isTrue();
+        assertThat(streamingService.shouldStream(Pageable.unpaged())).isFalse();
+        assertThat(new PageStreamingService(productRepository, orderRepository, entityManager, objectMapper, transactionManager, 0)
+            .shouldStream(PageRequest.of(0, 500))).isFalse();
+    }
+}
@@ -0,0 +1,255 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.config.ReadYourWritesTracker;
+import com.erikm.ecommerce.dto.OrderStatusTransitionDTO;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.OrderItem;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+import io.micrometer.observation.ObservationRegistry;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("PendingOrderAllocator against H2")
+class PendingOrderAllocatorIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PendingOrderAllocator allocator;
+    private ApplicationEventPublisher eventPublisher;
+    private JdbcTemplate jdbcTemplate;
+    private Customer customer;
+    private Category electronics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tearDown();
+        customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+        electronics = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        allocator = allocator(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tb_order_status_history");
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should confirm pending orders oldest first across batches and reserve their stock")
+    void shouldConfirmInArrivalOrder() {
+        Product phone = product("SMARTPHX001", 5);
+        Order first = pendingOrder(Map.of(phone, 2));
+        Order second = pendingOrder(Map.of(phone, 2));
+        Order third = pendingOrder(Map.of(phone, 2));
+
+        int confirmed = allocator.allocate("SMARTPHX001");
+
+        assertThat(confirmed).isEqualTo(2);
+        assertThat(status(first)).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(status(second)).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(status(third)).isEqualTo(OrderStatus.PENDING);
+
+        Product reloaded = productRepository.findById(phone.getProductId()).orElseThrow();
+        assertThat(reloaded.getStockQuantity()).isEqualTo(1);
+        assertThat(reloaded.getVersion()).isPositive();
+        assertThat(orderRepository.findById(first.getOrderId()).orElseThrow().getVersion()).isEqualTo(1L);
+        // O estoque aparece no JSON do produto: a CDN precisa ser purgada
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.products(List.of(phone.getProductId())));
+
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+            "select from_status, to_status, source from tb_order_status_history where order_id = ?", first.getOrderId());
+        assertThat(history).singleElement().satisfies(row -> {
+            assertThat(row.get("FROM_STATUS")).isEqualTo("PENDING");
+            assertThat(row.get("TO_STATUS")).isEqualTo("CONFIRMED");
+            assertThat(row.get("SOURCE")).isEqualTo(OrderStatusHistoryWriter.SOURCE_ALLOCATION);
+        });
+    }
+
+    @Test
+    @DisplayName("Should not let smaller orders jump ahead of an older order waiting for the same SKU")
+    void shouldKeepQueueOrderWhenHeadIsBlocked() {
+        Product phone = product("SMARTPHX001", 3);
+        Order big = pendingOrder(Map.of(phone, 5));
+        Order small = pendingOrder(Map.of(phone, 1));
+
+        assertThat(allocator.allocate("SMARTPHX001")).isZero();
+
+        assertThat(status(big)).isEqualTo(OrderStatus.PENDING);
+        assertThat(status(small)).isEqualTo(OrderStatus.PENDING);
+        assertThat(productRepository.findById(phone.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should skip orders still waiting for another SKU and confirm multi-item orders atomically")
+    void shouldSkipOrdersMissingOtherProducts() {
+        allocator = allocator(200);
+        Product phone = product("SMARTPHX001", 10);
+        Product earbuds = product("EARBUDSW001", 1);
+        Order waitingEarbuds = pendingOrder(Map.of(phone, 1, earbuds, 2));
+        Order both = pendingOrder(Map.of(phone, 1, earbuds, 1));
+        Order phoneOnly = pendingOrder(Map.of(phone, 3));
+
+        assertThat(allocator.allocate("SMARTPHX001")).isEqualTo(2);
+
+        assertThat(status(waitingEarbuds)).isEqualTo(OrderStatus.PENDING);
+        assertThat(status(both)).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(status(phoneOnly)).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(productRepository.findById(phone.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(6);
+        assertThat(productRepository.findById(earbuds.getProductId()).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave non-pending orders untouched")
+    void shouldIgnoreOtherStatuses() {
+        Product phone = product("SMARTPHX001", 10);
+        Order created = pendingOrder(Map.of(phone, 1));
+        jdbcTemplate.update("update tb_orders set status = 'CREATED' where order_id = ?", created.getOrderId());
+
+        assertThat(allocator.allocate("SMARTPHX001")).isZero();
+        assertThat(allocator.allocate("UNKNOWN")).isZero();
+        assertThat(productRepository.findById(phone.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should leave stock unchanged when confirmed orders are cancelled one by one or in bulk")
+    void shouldRestoreReservedStockOnCancel() {
+        Product phone = product("SMARTPHX001", 5);
+        Order edited = pendingOrder(Map.of(phone, 2));
+        Order bulk = pendingOrder(Map.of(phone, 1));
+        Order deleted = pendingOrder(Map.of(phone, 1));
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        OutboxWriter outbox = mock(OutboxWriter.class);
+        OrderStockRestorer stockRestorer = new OrderStockRestorer(namedJdbcTemplate, outbox, eventPublisher);
+        OrderStatusHistoryWriter statusHistory = new OrderStatusHistoryWriter(jdbcTemplate);
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        OrderService orderService = new OrderService(orderRepository, orderItemRepository, null, null, null, mock(DomainMetrics.class),
+            ObservationRegistry.NOOP, readYourWrites, statusHistory, mock(CustomerOrderStatsService.class), outbox, stockRestorer);
+        OrderStatusTransitionService transitionService = new OrderStatusTransitionService(namedJdbcTemplate, statusHistory, mock(CustomerOrderStatsService.class),
+            readYourWrites, outbox, stockRestorer, mock(DomainMetrics.class), 10_000);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Confirmar à mão não reservaria estoque e um cancelamento depois criaria estoque fantasma
+        ResponseStatusException manualConfirm = assertThrows(ResponseStatusException.class,
+            () -> transaction.execute(status -> orderService.editStatusOrder(edited.getOrderId(), "CONFIRMED")));
+        assertThat(manualConfirm.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(status(edited)).isEqualTo(OrderStatus.PENDING);
+
+        assertThat(allocator.allocate("SMARTPHX001")).isEqualTo(3);
+        assertThat(stock(phone)).isEqualTo(1);
+
+        transaction.executeWithoutResult(status -> orderService.editStatusOrder(edited.getOrderId(), "CANCELLED"));
+        assertThat(stock(phone)).isEqualTo(3);
+        transaction.executeWithoutResult(status -> transitionService.transitionStatuses(List.of(new OrderStatusTransitionDTO(bulk.getOrderId(), "CANCELLED"))));
+        assertThat(stock(phone)).isEqualTo(4);
+        transaction.executeWithoutResult(status -> orderService.deleteOrder(deleted.getOrderId()));
+        assertThat(stock(phone)).isEqualTo(5);
+
+        assertThat(status(edited)).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(status(bulk)).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(status(deleted)).isEqualTo(OrderStatus.CANCELLED);
+        verify(outbox).recordStockChanged(phone.getProductId(), "SMARTPHX001", 1, 3);
+    }
+
+    private PendingOrderAllocator allocator(int batchSize) {
+        return new PendingOrderAllocator(new NamedParameterJdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource),
+            new OrderStatusHistoryWriter(jdbcTemplate), new ReadYourWritesTracker(Duration.ofSeconds(5)), mock(OutboxWriter.class), eventPublisher, mock(DomainMetrics.class), batchSize);
+    }
+
+    private Product product(String sku, int stock) {
+        return productRepository.save(new Product("Product " + sku, "Pending allocation product", new BigDecimal("10.00"), stock, electronics, sku, true));
+    }
+
+    private Order pendingOrder(Map<Product, Integer> items) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        order.setShippingAddress("Rua A, 123");
+        order = orderRepository.save(order);
+        for (Map.Entry<Product, Integer> entry : items.entrySet()) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(entry.getKey());
+            item.setQuantity(entry.getValue());
+            item.setUnitPrice(new BigDecimal("10.00"));
+            item.setSubtotal(new BigDecimal("10.00").multiply(BigDecimal.valueOf(entry.getValue())));
+            orderItemRepository.save(item);
+        }
+        return order;
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getProductId()).orElseThrow().getStockQuantity();
+    }
+
+    private OrderStatus status(Order order) {
+        return orderRepository.findById(order.getOrderId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,78 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ProductImportParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("CSV with quoted fields, embedded newlines, CRLF and BOM should be parsed per record")
+    void shouldParseCsvRecords() throws IOException {
+        String csv = "\uFEFFsku,name,description,price,stock_quantity,category\r\n"
+            + "SKU-001,Notebook,\"Tela 14\"\", 16GB\",3500.00,10,Electronics\r\n"
+            + "SKU-002,Livro,\"Linha 1\nLinha 2\",59.90,3,Books\n"
+            + "\n"
+            + "SKU-003,Caneca,,abc,1,Home\n";
+
+        List<ProductImportParser.Row> rows = parse(csv, FileFormat.CSV);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).product().description()).isEqualTo("Tela 14\", 16GB");
+        assertThat(rows.get(0).product().price()).isEqualByComparingTo(new BigDecimal("3500.00"));
+        assertThat(rows.get(1).product().description()).isEqualTo("Linha 1\nLinha 2");
+        assertThat(rows.get(1).product().stockQuantity()).isEqualTo(3);
+        assertThat(rows.get(2).line()).isEqualTo(6);
+        assertThat(rows.get(2).error()).startsWith("Preço inválido");
+        assertThat(rows.get(2).product().sku()).isEqualTo("SKU-003");
+    }
+
+    @Test
+    @DisplayName("CSV without required columns should be rejected")
+    void shouldRejectCsvWithoutRequiredColumns() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> parse("sku,name\nSKU-001,Notebook\n", FileFormat.CSV));
+
+        assertThat(exception.getReason()).contains("price").contains("category");
+    }
+
+    @Test
+    @DisplayName("NDJSON should report malformed lines and keep going")
+    void shouldParseNdjsonAndReportMalformedLines() throws IOException {
+        String ndjson = "{\"sku\":\"SKU-001\",\"name\":\"Notebook\",\"price\":3500.00,\"stockQuantity\":10,\"category\":\"Electronics\"}\n"
+            + "{\"sku\": \n"
+            + "\n"
+            + "{\"sku\":\"SKU-002\",\"name\":\"Livro\",\"price\":59.9,\"stockQuantity\":3,\"category\":\"Books\"}\n";
+
+        List<ProductImportParser.Row> rows = parse(ndjson, FileFormat.NDJSON);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).product().name()).isEqualTo("Notebook");
+        assertThat(rows.get(1).line()).isEqualTo(2);
+        assertThat(rows.get(1).error()).startsWith("JSON inválido");
+        assertThat(rows.get(2).line()).isEqualTo(4);
+        assertThat(rows.get(2).product().sku()).isEqualTo("SKU-002");
+    }
+
+    private List<ProductImportParser.Row> parse(String content, FileFormat format) throws IOException {
+        List<ProductImportParser.Row> rows = new ArrayList<>();
+        ProductImportParser.parse(new BufferedReader(new StringReader(content)), format, objectMapper, rows::add);
+        return rows;
+    }
+}
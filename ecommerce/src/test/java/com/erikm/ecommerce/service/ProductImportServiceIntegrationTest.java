@@ -0,0 +1,174 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.erikm.ecommerce.dto.Responses.ProductImportReport;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.FileFormat;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("ProductImportService against H2")
+class ProductImportServiceIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ProductImportService importService;
+    private OutboxWriter outbox;
+    private Category electronics;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        electronics = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        categoryRepository.save(new Category("Books", "Category for books and literature", true));
+        productRepository.save(new Product("Smartphone X", "Latest model smartphone", new BigDecimal("1500.00"), 50, electronics, "SMARTPHX001", true));
+
+        outbox = mock(OutboxWriter.class);
+        importService = new ProductImportService(new NamedParameterJdbcTemplate(dataSource), transactionManager,
+            new ObjectMapper(), mock(DomainMetrics.class), mock(ApplicationEventPublisher.class), outbox, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should insert new SKUs, update existing ones and report invalid rows")
+    void shouldUpsertBySkuAndReportErrors() {
+        String csv = "sku,name,description,price,stockQuantity,category\n"
+            + "SMARTPHX001,Smartphone X2,Nova versão,1700.00,40,electronics\n"
+            + "NOVEL0001,The Great Novel,,75.50,120,Books\n"
+            + "BAD0001,Produto sem categoria,,10.00,1,Garden\n"
+            + "BAD0002,Preço negativo,,-1,1,Books\n"
+            + "NOVEL0001,The Great Novel (2ª ed.),,80.00,100,Books\n";
+
+        ProductImportReport report = importService.importProducts(stream(csv), FileFormat.CSV);
+
+        assertThat(report.totalRows()).isEqualTo(5);
+        // Lotes de 2 linhas: a segunda ocorrência de NOVEL0001 cai num lote posterior e vira atualização
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.errors()).extracting(error -> error.line()).containsExactly(4L, 5L);
+        assertThat(report.errors().get(0).message()).contains("Categoria não encontrada");
+        assertThat(report.errors().get(1).message()).contains("maior que zero");
+
+        Product updated = productRepository.findBySkuAndIsActiveTrue("SMARTPHX001").orElseThrow();
+        assertThat(updated.getName()).isEqualTo("Smartphone X2");
+        assertThat(updated.getStockQuantity()).isEqualTo(40);
+        assertThat(updated.getCreatedAt()).isNotNull();
+
+        Product novel = productRepository.findBySkuAndIsActiveTrue("NOVEL0001").orElseThrow();
+        assertThat(novel.getName()).isEqualTo("The Great Novel (2ª ed.)");
+        assertThat(novel.getCategory().getName()).isEqualTo("Books");
+        assertThat(productRepository.count()).isEqualTo(2);
+
+        // Atualizações publicam a mudança de estoque como os demais ajustes; produtos novos não, como em createProduct
+        verify(outbox).recordStockChanged(updated.getProductId(), "SMARTPHX001", 50, 40);
+        verify(outbox).recordStockChanged(novel.getProductId(), "NOVEL0001", 120, 100);
+        verifyNoMoreInteractions(outbox);
+    }
+
+    @Test
+    @DisplayName("Should update a soft-deleted SKU without reactivating it")
+    void shouldNotReactivateSoftDeletedProducts() {
+        Product deleted = productRepository.findBySkuAndIsActiveTrue("SMARTPHX001").orElseThrow();
+        deleted.setIsActive(false);
+        productRepository.save(deleted);
+
+        ProductImportReport report = importService.importProducts(stream("sku,name,description,price,stockQuantity,category\n"
+            + "SMARTPHX001,Smartphone X2,Nova versão,1700.00,40,electronics\n"), FileFormat.CSV);
+
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(productRepository.findBySkuAndIsActiveTrue("SMARTPHX001")).isEmpty();
+        Product product = productRepository.findById(deleted.getProductId()).orElseThrow();
+        assertThat(product.getIsActive()).isFalse();
+        assertThat(product.getName()).isEqualTo("Smartphone X2");
+    }
+
+    @Test
+    @DisplayName("Should stream a large NDJSON upload in chunks")
+    void shouldImportLargeNdjsonInChunks() {
+        importService = new ProductImportService(new NamedParameterJdbcTemplate(dataSource), transactionManager,
+            new ObjectMapper(), mock(DomainMetrics.class), mock(ApplicationEventPublisher.class), outbox, 1000, 100);
+        int rows = 50_000;
+
+        ProductImportReport report = importService.importProducts(generatedNdjson(rows), FileFormat.NDJSON);
+
+        assertThat(report.failed()).isZero();
+        assertThat(report.inserted()).isEqualTo(rows);
+        assertThat(productRepository.count()).isEqualTo(rows + 1);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Gera o arquivo sob demanda, sem manter as 50 mil linhas em memória
+    private static InputStream generatedNdjson(int rows) {
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (next >= rows) {
+                    throw new NoSuchElementException();
+                }
+                int i = next++;
+                return stream("{\"sku\":\"BULK-" + i + "\",\"name\":\"Produto " + i + "\",\"price\":" + (10 + i % 500) + ".90,\"stockQuantity\":" + (i % 100) + ",\"category\":\"Electronics\"}\n");
+            }
+        });
+    }
+}
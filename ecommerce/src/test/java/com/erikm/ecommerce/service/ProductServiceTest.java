@@ -3,6 +3,8 @@ package com.erikm.ecommerce.service;
 import com.erikm.ecommerce.dto.ProductDTO;
 import com.erikm.ecommerce.model.Category;
 import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
 import com.erikm.ecommerce.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,15 +14,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,6 +45,21 @@ class ProductServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private DomainMetrics domainMetrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CatalogPriceIndex priceIndex;
+
     @InjectMocks
     private ProductService productService;
 
@@ -367,6 +387,7 @@ class ProductServiceTest {
         assertFalse(deletedProduct.getIsActive());
         verify(productRepository, times(1)).findByProductIdAndIsActiveTrue(productId);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.products(List.of(productId)));
     }
 
     @Test
@@ -0,0 +1,200 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.Responses.SalesBackfillReport;
+import com.erikm.ecommerce.dto.Responses.SalesSummary;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Customer;
+import com.erikm.ecommerce.model.Order;
+import com.erikm.ecommerce.model.OrderItem;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.OrderStatus;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.CustomerRepository;
+import com.erikm.ecommerce.repository.OrderItemRepository;
+import com.erikm.ecommerce.repository.OrderRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Sales rollups against H2")
+class SalesRollupServiceIntegrationTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private SalesRollupService rollupService;
+    private SalesAnalyticsService analyticsService;
+    private JdbcTemplate jdbcTemplate;
+    private Customer customer;
+    private Category electronics;
+    private Category books;
+    private Product phone;
+    private Product earbuds;
+    private Product novel;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tearDown();
+        customer = customerRepository.save(new Customer("João", "Silva", "joao.silva@example.com", "(11) 98765-4321", "111.111.111-11", true));
+        electronics = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        books = categoryRepository.save(new Category("Books", "Category for books and literature", true));
+        phone = productRepository.save(new Product("Smartphone X", "Latest model smartphone", new BigDecimal("1500.00"), 50, electronics, "SMARTPHX001", true));
+        earbuds = productRepository.save(new Product("Wireless Earbuds", "High-quality wireless earbuds", new BigDecimal("300.00"), 80, electronics, "EARBUDSW001", true));
+        novel = productRepository.save(new Product("Novel", "Paperback novel", new BigDecimal("50.00"), 100, books, "NOVEL001", true));
+
+        NamedParameterJdbcTemplate namedJdbc = new NamedParameterJdbcTemplate(dataSource);
+        rollupService = new SalesRollupService(namedJdbc, new DataSourceTransactionManager(dataSource), Duration.ZERO, 2);
+        analyticsService = new SalesAnalyticsService(namedJdbc, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tb_sales_rollups");
+        jdbcTemplate.update("delete from tb_rollup_watermarks");
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should roll up sales per day, category and product from confirmed and delivered orders")
+    void shouldAggregatePerDimension() {
+        order(MONDAY, OrderStatus.CONFIRMED, phone, 1, earbuds, 2);
+        order(MONDAY, OrderStatus.DELIVERED, novel, 3);
+        order(MONDAY, OrderStatus.PENDING, phone, 5);
+        order(TUESDAY, OrderStatus.CONFIRMED, earbuds, 1);
+
+        assertThat(rollupService.refresh()).isEqualTo(2);
+
+        List<SalesSummary> byDay = analyticsService.findSales(MONDAY, TUESDAY, "day");
+        assertThat(byDay).extracting(SalesSummary::date).containsExactly(MONDAY, TUESDAY);
+        assertThat(byDay.get(0).orders()).isEqualTo(2);
+        assertThat(byDay.get(0).units()).isEqualTo(6);
+        assertThat(byDay.get(0).revenue()).isEqualByComparingTo("2250.00");
+
+        List<SalesSummary> byCategory = analyticsService.findSales(MONDAY, TUESDAY, "CATEGORY");
+        assertThat(byCategory).extracting(SalesSummary::name).containsExactly("Electronics", "Books");
+        assertThat(byCategory.get(0).orders()).isEqualTo(2);
+        assertThat(byCategory.get(0).revenue()).isEqualByComparingTo("2400.00");
+
+        List<SalesSummary> top = analyticsService.findTopSellers(MONDAY, TUESDAY, "units", 2);
+        assertThat(top).extracting(SalesSummary::id).containsExactly(earbuds.getProductId(), novel.getProductId());
+        assertThat(top.get(0).units()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should only recompute days touched since the watermark and drop cancelled orders")
+    void shouldRefreshIncrementally() {
+        Order monday = order(MONDAY, OrderStatus.CONFIRMED, phone, 1);
+        order(TUESDAY, OrderStatus.CONFIRMED, novel, 2);
+        rollupService.refresh();
+        assertThat(rollupService.refresh()).isZero();
+
+        jdbcTemplate.update("update tb_orders set status = 'CANCELLED', updated_at = ? where order_id = ?",
+            Timestamp.valueOf(LocalDateTime.now().plusSeconds(1)), monday.getOrderId());
+
+        assertThat(rollupService.refresh()).isEqualTo(1);
+        assertThat(analyticsService.findSales(MONDAY, TUESDAY, "day")).extracting(SalesSummary::date).containsExactly(TUESDAY);
+        assertThat(analyticsService.findTopSellers(MONDAY, TUESDAY, "revenue", 10)).extracting(SalesSummary::id).containsExactly(novel.getProductId());
+    }
+
+    @Test
+    @DisplayName("Should backfill a historical period in chunks")
+    void shouldBackfillHistory() {
+        for (int day = 0; day < 5; day++) {
+            order(MONDAY.plusDays(day), OrderStatus.DELIVERED, novel, 1);
+        }
+
+        SalesBackfillReport report = rollupService.backfill(MONDAY, MONDAY.plusDays(4));
+
+        assertThat(report.days()).isEqualTo(5);
+        assertThat(report.rows()).isEqualTo(15);
+        assertThat(analyticsService.findSales(MONDAY, MONDAY.plusDays(4), "product")).singleElement()
+            .satisfies(row -> assertThat(row.revenue()).isEqualByComparingTo("250.00"));
+
+        // Reprocessar o mesmo período não duplica linhas
+        assertThat(rollupService.backfill(MONDAY, MONDAY.plusDays(4)).rows()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid periods, groupings and metrics")
+    void shouldValidateParameters() {
+        assertThrows(ResponseStatusException.class, () -> analyticsService.findSales(null, TUESDAY, "day"));
+        assertThrows(ResponseStatusException.class, () -> analyticsService.findSales(TUESDAY, MONDAY, "day"));
+        assertThrows(ResponseStatusException.class, () -> analyticsService.findSales(MONDAY, TUESDAY, "week"));
+        assertThrows(ResponseStatusException.class, () -> analyticsService.findTopSellers(MONDAY, TUESDAY, "price", 10));
+        assertThrows(ResponseStatusException.class, () -> analyticsService.findTopSellers(MONDAY, TUESDAY, "units", 0));
+        assertThrows(ResponseStatusException.class, () -> rollupService.backfill(TUESDAY, MONDAY));
+    }
+
+    // items: pares (produto, quantidade)
+    private Order order(LocalDate day, OrderStatus status, Object... items) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        order.setShippingAddress("Rua A, 123");
+        order = orderRepository.save(order);
+        for (int i = 0; i < items.length; i += 2) {
+            Product product = (Product) items[i];
+            int quantity = (Integer) items[i + 1];
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setUnitPrice(product.getPrice());
+            item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+            orderItemRepository.save(item);
+        }
+        jdbcTemplate.update("update tb_orders set created_at = ? where order_id = ?", Timestamp.valueOf(day.atTime(10, 0)), order.getOrderId());
+        return order;
+    }
+}
@@ -0,0 +1,63 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+// Garante que nenhum método de consulta novo fique fora de uma transação read-only
+class ServiceTransactionBoundaryTest {
+
+    private static final List<Class<?>> SERVICES = List.of(ProductService.class, CategoryService.class, CustomerService.class, OrderService.class,
+        CustomerOrderStatsService.class);
+
+    @Test
+    @DisplayName("Query methods should be @Transactional(readOnly = true)")
+    void queryMethodsShouldBeReadOnly() {
+        List<String> missing = new ArrayList<>();
+        for (Method method : publicMethods()) {
+            if (!method.getName().startsWith("find") && !method.getName().startsWith("list")) {
+                continue;
+            }
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            if (transactional == null || !transactional.readOnly()) {
+                missing.add(method.getDeclaringClass().getSimpleName() + "#" + method.getName());
+            }
+        }
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Write methods should run in a read-write transaction")
+    void writeMethodsShouldBeReadWrite() {
+        List<String> missing = new ArrayList<>();
+        for (Method method : publicMethods()) {
+            if (!method.getName().matches("(create|edit|delete).*")) {
+                continue;
+            }
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            if (transactional == null || transactional.readOnly()) {
+                missing.add(method.getDeclaringClass().getSimpleName() + "#" + method.getName());
+            }
+        }
+        assertThat(missing).isEmpty();
+    }
+
+    private static List<Method> publicMethods() {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> service : SERVICES) {
+            for (Method method : service.getDeclaredMethods()) {
+                if (Modifier.isPublic(method.getModifiers())) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+}
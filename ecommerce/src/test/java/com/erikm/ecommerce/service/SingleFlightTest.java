@@ -0,0 +1,131 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.observability.DomainMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("SingleFlight")
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> lookups;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lookups = new SingleFlight<>("products", new DomainMetrics(meterRegistry), mock(PlatformTransactionManager.class), "test.findById");
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups for the same key should share a single query and its result")
+    void shouldCoalesceConcurrentLookups() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(CALLERS, () -> lookups.load(1L, () -> {
+            queries.incrementAndGet();
+            await(release);
+            return "produto-1";
+        }));
+        awaitWaiting(1L, CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("produto-1");
+        }
+        assertThat(queries).hasValue(1);
+        assertThat(meterRegistry.counter("singleflight.queries", "name", "products").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("singleflight.coalesced", "name", "products").count()).isEqualTo(CALLERS - 1);
+        assertThat(meterRegistry.summary("singleflight.followers", "name", "products").max()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    @DisplayName("Waiting callers should get the same exception and the next lookup should query again")
+    void shouldShareFailureWithoutCachingIt() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(3, () -> lookups.load(2L, () -> {
+            queries.incrementAndGet();
+            await(release);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado.");
+        }));
+        awaitWaiting(2L, 2);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Produto não encontrado.");
+        }
+        assertThat(lookups.load(2L, () -> "produto-2")).isEqualTo("produto-2");
+        assertThat(queries).hasValue(1);
+        assertThat(meterRegistry.counter("singleflight.queries", "name", "products").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Lookups inside the caller's transaction should run directly")
+    void shouldBypassInsideCallerTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThat(lookups.load(3L, () -> "produto-3")).isEqualTo("produto-3");
+        assertThat(meterRegistry.find("singleflight.queries").counter()).isNull();
+    }
+
+    private List<Future<String>> submit(int callers, Callable<String> lookup) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(lookup));
+        }
+        return results;
+    }
+
+    private void awaitWaiting(Long key, int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lookups.waiting(key) < followers && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(lookups.waiting(key)).isEqualTo(followers);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.erikm.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.erikm.ecommerce.dto.StockAdjustmentDTO;
+import com.erikm.ecommerce.dto.Responses.StockAdjustmentResult;
+import com.erikm.ecommerce.model.Category;
+import com.erikm.ecommerce.model.Product;
+import com.erikm.ecommerce.model.Enums.StockAdjustmentType;
+import com.erikm.ecommerce.observability.DomainMetrics;
+import com.erikm.ecommerce.outbox.OutboxWriter;
+import com.erikm.ecommerce.repository.CategoryRepository;
+import com.erikm.ecommerce.repository.ProductRepository;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("StockAdjustmentService against H2")
+class StockAdjustmentServiceIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private StockAdjustmentService stockAdjustmentService;
+    private TransactionTemplate transactionTemplate;
+    private Category electronics;
+    private Product phone;
+    private Product earbuds;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        electronics = categoryRepository.save(new Category("Electronics", "Category for electronic devices", true));
+        phone = productRepository.save(new Product("Smartphone X", "Latest model smartphone", new BigDecimal("1500.00"), 50, electronics, "SMARTPHX001", true));
+        earbuds = productRepository.save(new Product("Wireless Earbuds", "High-quality wireless earbuds", new BigDecimal("300.00"), 80, electronics, "EARBUDSW001", true));
+        productRepository.save(new Product("Old Tablet", "An outdated tablet model", new BigDecimal("200.00"), 5, electronics, "OLDTAB001", false));
+
+        // O proxy conta os comandos enviados ao banco; o gerenciador de transação usa o mesmo DataSource
+        DataSource counted = ProxyDataSourceBuilder.create(dataSource).countQuery().build();
+        stockAdjustmentService = new StockAdjustmentService(new NamedParameterJdbcTemplate(counted), mock(DomainMetrics.class), mock(ApplicationEventPublisher.class), mock(OutboxWriter.class), 10_000);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(counted));
+        QueryCountHolder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should apply absolute and relative adjustments in request order and report each item")
+    void shouldApplyAdjustmentsAndReportPerItem() {
+        List<StockAdjustmentResult> results = adjust(List.of(
+            new StockAdjustmentDTO(phone.getProductId(), null, StockAdjustmentType.RELATIVE, -10),
+            new StockAdjustmentDTO(null, "SMARTPHX001", StockAdjustmentType.RELATIVE, -5),
+            new StockAdjustmentDTO(null, "EARBUDSW001", StockAdjustmentType.ABSOLUTE, 20),
+            new StockAdjustmentDTO(null, "EARBUDSW001", StockAdjustmentType.RELATIVE, -21),
+            new StockAdjustmentDTO(null, "OLDTAB001", StockAdjustmentType.ABSOLUTE, 1),
+            new StockAdjustmentDTO(999_999L, null, StockAdjustmentType.ABSOLUTE, 1),
+            new StockAdjustmentDTO(phone.getProductId(), "SMARTPHX001", StockAdjustmentType.ABSOLUTE, 1),
+            new StockAdjustmentDTO(null, "SMARTPHX001", StockAdjustmentType.ABSOLUTE, -1)));
+
+        assertThat(results).extracting(StockAdjustmentResult::status).containsExactly(
+            "APPLIED", "APPLIED", "APPLIED", "REJECTED", "NOT_FOUND", "NOT_FOUND", "REJECTED", "REJECTED");
+        assertThat(results.get(1).stockQuantity()).isEqualTo(35);
+        assertThat(results.get(3).stockQuantity()).isEqualTo(20);
+        assertThat(results.get(3).message()).isEqualTo("Estoque não pode ser negativo.");
+
+        assertThat(productRepository.findBySkuAndIsActiveTrue("SMARTPHX001").orElseThrow().getStockQuantity()).isEqualTo(35);
+        assertThat(productRepository.findBySkuAndIsActiveTrue("EARBUDSW001").orElseThrow().getStockQuantity()).isEqualTo(20);
+
+        // Um SELECT ... FOR UPDATE e um único batch de UPDATE
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertThat(count.getSelect()).isEqualTo(1);
+        assertThat(count.getUpdate()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should handle 10k adjustments with a handful of statements")
+    void shouldScaleToTenThousandAdjustments() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            products.add(new Product("Bulk product " + i, null, new BigDecimal("10.00"), 100, electronics, "BULK-" + i, true));
+        }
+        productRepository.saveAll(products);
+        QueryCountHolder.clear();
+
+        List<StockAdjustmentDTO> adjustments = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            adjustments.add(new StockAdjustmentDTO(null, "BULK-" + (i % 2_000), StockAdjustmentType.RELATIVE, -1));
+        }
+
+        List<StockAdjustmentResult> results = adjust(adjustments);
+
+        assertThat(results).allMatch(result -> StockAdjustmentResult.APPLIED.equals(result.status()));
+        assertThat(productRepository.findBySkuAndIsActiveTrue("BULK-7").orElseThrow().getStockQuantity()).isEqualTo(95);
+        // 2 000 SKUs: dois lotes para resolver os ids e dois SELECT ... FOR UPDATE
+        assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(4);
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should lock more than one slice in ascending id order across the whole batch")
+    void shouldLockSlicesInGlobalIdOrder() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            products.add(new Product("Bulk product " + i, null, new BigDecimal("10.00"), 100, electronics, "BULK-" + i, true));
+        }
+        products = productRepository.saveAll(products);
+
+        List<List<Long>> lockedSlices = new ArrayList<>();
+        DataSource recording = ProxyDataSourceBuilder.create(dataSource).afterQuery((execution, queries) -> queries.stream()
+            .filter(query -> query.getQuery().contains("for update"))
+            .forEach(query -> lockedSlices.add(query.getParametersList().get(0).stream()
+                .map(parameter -> parameter.getArgs()[1])
+                .filter(Long.class::isInstance)
+                .map(Long.class::cast)
+                .toList())))
+            .build();
+        StockAdjustmentService service = new StockAdjustmentService(new NamedParameterJdbcTemplate(recording), mock(DomainMetrics.class),
+            mock(ApplicationEventPublisher.class), mock(OutboxWriter.class), 10_000);
+
+        // Ids em ordem decrescente e SKUs misturados: fatiar na ordem da requisição bloquearia o topo antes da base
+        List<StockAdjustmentDTO> adjustments = new ArrayList<>();
+        for (int i = products.size() - 1; i >= 100; i--) {
+            adjustments.add(new StockAdjustmentDTO(products.get(i).getProductId(), null, StockAdjustmentType.RELATIVE, -1));
+        }
+        for (int i = 0; i < 100; i++) {
+            adjustments.add(new StockAdjustmentDTO(null, products.get(i).getSku(), StockAdjustmentType.RELATIVE, -1));
+        }
+        List<StockAdjustmentResult> results = new TransactionTemplate(new DataSourceTransactionManager(recording))
+            .execute(status -> service.adjustStock(adjustments));
+
+        assertThat(results).allMatch(result -> StockAdjustmentResult.APPLIED.equals(result.status()));
+        assertThat(lockedSlices).hasSize(2);
+        assertThat(lockedSlices.get(0)).hasSize(1_000).isSorted();
+        assertThat(lockedSlices.get(1)).hasSize(200).isSorted();
+        assertThat(lockedSlices.get(0).get(999)).isLessThan(lockedSlices.get(1).get(0));
+        assertThat(lockedSlices.get(0).get(0)).isEqualTo(products.get(0).getProductId());
+    }
+
+    @Test
+    @DisplayName("Should reject empty and oversized batches")
+    void shouldRejectInvalidBatchSizes() {
+        StockAdjustmentService limited = new StockAdjustmentService(null, mock(DomainMetrics.class), mock(ApplicationEventPublisher.class), null, 2);
+        List<StockAdjustmentDTO> tooMany = List.of(
+            new StockAdjustmentDTO(1L, null, StockAdjustmentType.ABSOLUTE, 1),
+            new StockAdjustmentDTO(2L, null, StockAdjustmentType.ABSOLUTE, 1),
+            new StockAdjustmentDTO(3L, null, StockAdjustmentType.ABSOLUTE, 1));
+
+        assertThrows(ResponseStatusException.class, () -> limited.adjustStock(List.of()));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> limited.adjustStock(tooMany));
+        assertThat(exception.getReason()).contains("Máximo de 2");
+    }
+
+    private List<StockAdjustmentResult> adjust(List<StockAdjustmentDTO> adjustments) {
+        return transactionTemplate.execute(status -> stockAdjustmentService.adjustStock(adjustments));
+    }
+}